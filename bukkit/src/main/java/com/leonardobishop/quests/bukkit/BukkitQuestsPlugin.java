@@ -3,6 +3,9 @@ package com.leonardobishop.quests.bukkit;
 import com.leonardobishop.quests.bukkit.command.QuestsCommandSwitcher;
 import com.leonardobishop.quests.bukkit.config.BukkitQuestsConfig;
 import com.leonardobishop.quests.bukkit.config.BukkitQuestsLoader;
+import com.leonardobishop.quests.bukkit.config.QuestCache;
+import com.leonardobishop.quests.bukkit.config.QuestFileWatcher;
+import com.leonardobishop.quests.bukkit.config.QuestManifest;
 import com.leonardobishop.quests.bukkit.hook.actionbar.ActionBar_Nothing;
 import com.leonardobishop.quests.bukkit.hook.actionbar.ActionBar_Paper;
 import com.leonardobishop.quests.bukkit.hook.actionbar.ActionBar_Spigot;
@@ -45,10 +48,14 @@ import com.leonardobishop.quests.bukkit.hook.wildstacker.WildStackerHook;
 import com.leonardobishop.quests.bukkit.item.ParsedQuestItem;
 import com.leonardobishop.quests.bukkit.item.QuestItem;
 import com.leonardobishop.quests.bukkit.item.QuestItemRegistry;
+import com.leonardobishop.quests.bukkit.listener.PlayerCommandSendListener;
 import com.leonardobishop.quests.bukkit.listener.PlayerJoinListener;
 import com.leonardobishop.quests.bukkit.listener.PlayerLeaveListener;
+import com.leonardobishop.quests.bukkit.listener.PlayerPermissionListener;
+import com.leonardobishop.quests.bukkit.listener.PlayerPreLoginListener;
 import com.leonardobishop.quests.bukkit.menu.MenuController;
 import com.leonardobishop.quests.bukkit.menu.itemstack.QItemStackRegistry;
+import com.leonardobishop.quests.bukkit.menu.itemstack.QuestMenuItemCache;
 import com.leonardobishop.quests.bukkit.questcompleter.BukkitQuestCompleter;
 import com.leonardobishop.quests.bukkit.questcontroller.NormalQuestController;
 import com.leonardobishop.quests.bukkit.runnable.QuestsAutoSaveRunnable;
@@ -56,9 +63,12 @@ import com.leonardobishop.quests.bukkit.scheduler.ServerScheduler;
 import com.leonardobishop.quests.bukkit.scheduler.WrappedTask;
 import com.leonardobishop.quests.bukkit.scheduler.bukkit.BukkitServerSchedulerAdapter;
 import com.leonardobishop.quests.bukkit.scheduler.folia.FoliaServerScheduler;
+import com.leonardobishop.quests.bukkit.storage.BinaryStorageProvider;
 import com.leonardobishop.quests.bukkit.storage.MySqlStorageProvider;
 import com.leonardobishop.quests.bukkit.storage.YamlStorageProvider;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskTypeManager;
+import com.leonardobishop.quests.bukkit.tasktype.EarlyProgressBuffer;
+import com.leonardobishop.quests.bukkit.tasktype.ProgressNotifier;
 import com.leonardobishop.quests.bukkit.tasktype.type.BlockItemdroppingTaskType;
 import com.leonardobishop.quests.bukkit.tasktype.type.BlockshearingTaskType;
 import com.leonardobishop.quests.bukkit.tasktype.type.BreedingTaskType;
@@ -159,6 +169,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -180,10 +191,16 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
 
     private boolean validConfiguration;
     private Map<String, List<ConfigProblem>> configProblems;
+    private Map<String, Long> questLoadTimings = Collections.emptyMap();
+    private volatile QuestManifest questManifest;
+    private QuestFileWatcher questFileWatcher;
 
     private QItemStackRegistry qItemStackRegistry;
     private QuestItemRegistry questItemRegistry;
     private MenuController menuController;
+    private EarlyProgressBuffer earlyProgressBuffer;
+    private ProgressNotifier progressNotifier;
+    private QuestMenuItemCache questMenuItemCache;
     private AbstractPlaceholderAPIHook placeholderAPIHook;
     private AbstractCMIHook cmiHook;
     private AbstractCoreProtectHook coreProtectHook;
@@ -200,6 +217,7 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
     private LogHistory logHistory;
     private WrappedTask questAutoSaveTask;
     private WrappedTask questQueuePollTask;
+    private WrappedTask offlinePlayerCacheTask;
     private BiFunction<Player, String, String> placeholderAPIProcessor;
 
     @Override
@@ -279,6 +297,9 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
             case "yaml":
                 this.storageProvider = new YamlStorageProvider(this);
                 break;
+            case "binary":
+                this.storageProvider = new BinaryStorageProvider(this);
+                break;
             case "mysql":
                 ConfigurationSection section = this.getConfig().getConfigurationSection("options.storage.database-settings");
                 if (section == null) {
@@ -339,10 +360,16 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
         this.taskTypeManager = new BukkitTaskTypeManager(this, questsConfig.getStringList("options.task-type-exclusions"));
         this.qPlayerManager = new QPlayerManager(this, storageProvider, questController);
         this.menuController = new MenuController(this);
+        this.earlyProgressBuffer = new EarlyProgressBuffer(this);
+        this.progressNotifier = new ProgressNotifier(this);
+        this.questMenuItemCache = new QuestMenuItemCache(this);
         this.questItemRegistry = new QuestItemRegistry();
         this.qItemStackRegistry = new QItemStackRegistry();
         this.questCompleter = new BukkitQuestCompleter(this);
 
+        // Write back idle offline players, expired players are also evicted whenever the cache is used
+        this.offlinePlayerCacheTask = serverScheduler.runTaskTimerAsynchronously(qPlayerManager::cleanUpOfflinePlayers, 1200L, 1200L);
+
         // Start metrics
         MetricsLite metrics = new MetricsLite(this, 3443);
         if (metrics.isEnabled()) {
@@ -368,9 +395,14 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
         super.getCommand("quests").setExecutor(questsCommandSwitcher);
 
         // Register events
+        super.getServer().getPluginManager().registerEvents(new PlayerPreLoginListener(this), this);
         super.getServer().getPluginManager().registerEvents(new PlayerJoinListener(this), this);
         super.getServer().getPluginManager().registerEvents(menuController, this);
         super.getServer().getPluginManager().registerEvents(new PlayerLeaveListener(this), this);
+        super.getServer().getPluginManager().registerEvents(new PlayerPermissionListener(this), this);
+        if (CompatUtils.classExists("org.bukkit.event.player.PlayerCommandSendEvent")) {
+            super.getServer().getPluginManager().registerEvents(new PlayerCommandSendListener(this), this);
+        }
 
         // Register task types after the server has fully started
         getScheduler().doSync(() -> {
@@ -508,11 +540,18 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
             for (Player player : Bukkit.getOnlinePlayers()) {
                 qPlayerManager.loadPlayer(player.getUniqueId());
             }
+
+            // only watch for changes once the quests have been loaded for the first time
+            this.questFileWatcher = new QuestFileWatcher(this);
+            questFileWatcher.configure();
         });
     }
 
     @Override
     public void onDisable() {
+        if (questFileWatcher != null) {
+            questFileWatcher.stop();
+        }
         if (!validConfiguration) return;
 
         for (TaskType taskType : getTaskTypeManager().getTaskTypes()) {
@@ -525,6 +564,9 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
                 qPlayerManager.savePlayerSync(qPlayer.getPlayerUUID());
             } catch (Exception ignored) { }
         }
+        try {
+            qPlayerManager.saveOfflinePlayersSync();
+        } catch (Exception ignored) { }
         if (placeholderAPIHook != null) {
             try {
                 placeholderAPIHook.unregisterExpansion();
@@ -542,24 +584,104 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
 
     @Override
     public void reloadQuests() {
+        this.reloadQuests(false);
+    }
+
+    private boolean isQuestCacheEnabled(@Nullable String dependencyHash) {
+        return dependencyHash != null && this.getQuestsConfig().getBoolean("options.performance-tweaking.quest-cache", true);
+    }
+
+    private Path getQuestCacheFile() {
+        return new File(super.getDataFolder(), "quests.cache").toPath();
+    }
+
+    private String getQuestCacheKey(String dependencyHash) {
+        // validators of task types from other plugins, and the materials and entities known to the server, may
+        // change without the version of Quests changing
+        List<String> taskTypes = new ArrayList<>();
+        for (TaskType taskType : taskTypeManager.getTaskTypes()) {
+            taskTypes.add(taskType.getType() + "@" + (taskType.getAuthor() == null ? "" : taskType.getAuthor()));
+        }
+        Collections.sort(taskTypes);
+        return super.getDescription().getVersion() + "\n" + Bukkit.getBukkitVersion() + "\n" + dependencyHash + "\n" + String.join(",", taskTypes);
+    }
+
+    /**
+     * Reload the quests. Unless a full reload is requested, only the quest files which changed since the
+     * last reload are reloaded, as long as the main config, categories and quest items have not changed.
+     *
+     * @param full whether all quests should be reloaded
+     */
+    public void reloadQuests(boolean full) {
         if (this.reloadBaseConfiguration()) {
             BukkitQuestsLoader questsLoader = new BukkitQuestsLoader(this);
-            questsLoader.loadQuestItems(new File(super.getDataFolder() + File.separator + "items"));
-            configProblems = questsLoader.loadQuests(new File(super.getDataFolder() + File.separator + "quests"));
-
-            for (TaskType taskType : taskTypeManager.getTaskTypes()) {
-                try {
-                    taskType.onReady();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+            File itemsRoot = new File(super.getDataFolder() + File.separator + "items");
+            String dependencyHash = questsLoader.hashDependencies(itemsRoot);
+            QuestManifest previous = questManifest;
+            if (full || previous == null || dependencyHash == null || !dependencyHash.equals(previous.dependencyHash())) {
+                previous = null;
+                questsLoader.loadQuestItems(itemsRoot);
             }
+
+            // compiled quest files stay valid as long as their dependencies, the plugin and the task types do not change
+            Map<String, QuestCache.Entry> cache = this.isQuestCacheEnabled(dependencyHash) && !full && previous == null
+                    ? QuestCache.read(this.getQuestCacheFile(), this.getQuestCacheKey(dependencyHash))
+                    : Collections.emptyMap();
+
+            BukkitQuestsLoader.PreparedQuests prepared = questsLoader.prepareQuests(new File(super.getDataFolder() + File.separator + "quests"), previous, cache);
+            this.applyQuests(questsLoader, prepared, dependencyHash);
         } else {
+            questLoadTimings = Collections.emptyMap();
             configProblems = Collections.singletonMap("<MAIN CONFIG> config.yml",
                     Collections.singletonList(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR, ConfigProblemDescriptions.MALFORMED_YAML.getDescription(), ConfigProblemDescriptions.MALFORMED_YAML.getExtendedDescription())));
         }
     }
 
+    /**
+     * Register quests prepared by {@link BukkitQuestsLoader#prepareQuests(File, QuestManifest, Map)}, and bring
+     * everything depending on them up to date. This must be called on the main thread.
+     *
+     * @param questsLoader the loader which prepared the quests
+     * @param prepared the prepared quests
+     * @param dependencyHash the hash of the dependencies the quests were prepared with, or null if it is not known
+     */
+    public void applyQuests(BukkitQuestsLoader questsLoader, BukkitQuestsLoader.PreparedQuests prepared, @Nullable String dependencyHash) {
+        configProblems = questsLoader.loadQuests(prepared);
+        questManifest = dependencyHash == null ? null : questsLoader.getManifest(dependencyHash);
+        questLoadTimings = questsLoader.getStageTimings();
+
+        if (this.isQuestCacheEnabled(dependencyHash) && questsLoader.isCacheOutdated()) {
+            QuestManifest manifest = questManifest;
+            Path cacheFile = this.getQuestCacheFile();
+            String cacheKey = this.getQuestCacheKey(dependencyHash);
+            serverScheduler.doAsync(() -> {
+                try {
+                    QuestCache.write(cacheFile, cacheKey, manifest);
+                } catch (IOException e) {
+                    questsLogger.warning("Failed to write the quest cache: " + e.getMessage());
+                }
+            });
+        }
+
+        // task types build their indexes in onReady, which only needs to happen again if their quests changed
+        for (TaskType taskType : questsLoader.getChangedTaskTypes()) {
+            try {
+                taskType.onReady();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        // cached active tasks, start results and menu items refer to quest instances which no longer exist
+        for (QPlayer qPlayer : qPlayerManager.getQPlayers()) {
+            qPlayer.getActiveTaskCache().invalidate();
+            qPlayer.getQuestStartCache().invalidate();
+        }
+        questMenuItemCache.invalidate();
+        // time limits may have changed
+        questCompleter.rescheduleExpiries();
+    }
+
     public QuestItem getConfiguredQuestItem(String path, ConfigurationSection config, ItemGetter.Filter... excludes) {
         if (config.contains(path + ".quest-item")) {
             return questItemRegistry.getItem(config.getString(path + ".quest-item"));
@@ -599,10 +721,22 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
             long queueExecuteInterval = this.getConfig().getLong("options.performance-tweaking.quest-queue-executor-interval", 1);
             try {
                 if (questQueuePollTask != null) questQueuePollTask.cancel();
+                questCompleter.setTimeBudget(this.getConfig().getLong("options.performance-tweaking.quest-queue-executor-budget", 2000));
                 questQueuePollTask = serverScheduler.runTaskTimer(questCompleter, queueExecuteInterval, queueExecuteInterval);
             } catch (Exception ex) {
                 questsLogger.debug("Cannot cancel and restart queue executor task");
             }
+
+            // on startup these are created after the base configuration is loaded, and configure themselves
+            if (qPlayerManager != null) {
+                qPlayerManager.configureOfflinePlayerCache();
+                earlyProgressBuffer.configure();
+                progressNotifier.configure();
+                questMenuItemCache.configure();
+            }
+            if (questFileWatcher != null) {
+                questFileWatcher.configure();
+            }
         }
         return validConfiguration;
     }
@@ -763,6 +897,15 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
         return configProblems;
     }
 
+    /**
+     * Get the time taken by each stage of the last quest load, in the order the stages ran.
+     *
+     * @return map of stage names to milliseconds
+     */
+    public Map<String, Long> getQuestLoadTimings() {
+        return questLoadTimings;
+    }
+
     public @NotNull BiFunction<Player, String, String> getPlaceholderAPIProcessor() {
         return placeholderAPIProcessor;
     }
@@ -827,6 +970,27 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
         return menuController;
     }
 
+    public EarlyProgressBuffer getEarlyProgressBuffer() {
+        return earlyProgressBuffer;
+    }
+
+    public ProgressNotifier getProgressNotifier() {
+        return progressNotifier;
+    }
+
+    public QuestMenuItemCache getQuestMenuItemCache() {
+        return questMenuItemCache;
+    }
+
+    /**
+     * Get the manifest of the last quest load, or null if the files quests depend on could not be hashed.
+     *
+     * @return {@link QuestManifest}
+     */
+    public @Nullable QuestManifest getQuestManifest() {
+        return questManifest;
+    }
+
     @NotNull
     @Override
     public FileConfiguration getConfig() {
@@ -3,6 +3,7 @@ package com.leonardobishop.quests.bukkit.command;
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.item.QuestItem;
 import com.leonardobishop.quests.bukkit.questcompleter.BukkitQuestCompleter;
+import com.leonardobishop.quests.bukkit.storage.MySqlStorageProvider;
 import com.leonardobishop.quests.bukkit.util.LogHistory;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
@@ -35,7 +36,6 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.function.Function;
 
 public class AdminDebugReportCommandHandler implements CommandHandler {
@@ -107,7 +107,17 @@ public class AdminDebugReportCommandHandler implements CommandHandler {
             lines.add("");
             printList(lines, 0, "Full check queue", completer.getFullCheckQueue(), questProgressFile -> questProgressFile.getPlayerUUID().toString());
             lines.add("");
-            printList(lines, 0, "Expired check queue", completer.getExpiredCheckQueue(), UUID::toString);
+            lines.add("Scheduled expiries: " + completer.getScheduledExpiries());
+            lines.add("Queue executor budget: " + completer.getTimeBudget() + "us");
+            lines.add("Last run time: " + completer.getLastRunTime() + "us");
+            lines.add("Max run time: " + completer.getMaxRunTime() + "us");
+            lines.add("Runs exceeding budget: " + completer.getBudgetExhaustedRuns());
+            lines.add("Completion checks: " + completer.getCompletionChecks());
+            lines.add("Full checks: " + completer.getFullChecks());
+            lines.add("Expiry checks: " + completer.getExpiryChecks());
+            lines.add("Coalesced checks: " + completer.getCoalesced());
+            lines.add("Average completion latency: " + completer.getAverageCompletionLatency() + "us");
+            lines.add("Max completion latency: " + completer.getMaxCompletionLatency() + "us");
             lines.add("");
 
             lines.add("################################");
@@ -115,6 +125,16 @@ public class AdminDebugReportCommandHandler implements CommandHandler {
             lines.add("################################");
             lines.add("");
             lines.add("Storage provider: " + plugin.getStorageProvider().getName());
+            if (plugin.getStorageProvider() instanceof MySqlStorageProvider mySqlStorageProvider) {
+                long flushes = mySqlStorageProvider.getFlushes();
+                lines.add("Write-behind: " + mySqlStorageProvider.isWriteBehind());
+                lines.add("Pending rows: " + mySqlStorageProvider.getPendingRows());
+                lines.add("Flushes: " + flushes);
+                lines.add("Rows flushed: " + mySqlStorageProvider.getFlushedRows());
+                lines.add("Average rows per flush: " + (flushes == 0 ? 0 : mySqlStorageProvider.getFlushedRows() / flushes));
+                lines.add("Last flush rows: " + mySqlStorageProvider.getLastFlushRows());
+                lines.add("Largest flush rows: " + mySqlStorageProvider.getLargestFlushRows());
+            }
             lines.add("");
 
             lines.add("################################");
@@ -141,6 +161,7 @@ public class AdminDebugReportCommandHandler implements CommandHandler {
                 lines.add("Verify quests exist on load: " + plugin.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true));
                 lines.add("Queue executor interval: " + plugin.getQuestsConfig().getInt("options.performance-tweaking.quest-queue-executor-interval", 1) + " ticks");
                 lines.add("Autosave interval: " + plugin.getQuestsConfig().getInt("options.performance-tweaking.quest-autosave-interval", 12000) + " ticks");
+                lines.add("Active task cache refresh interval: " + plugin.getQuestsConfig().getInt("options.performance-tweaking.active-task-cache-refresh-interval", 100) + " ticks");
                 lines.add("Override errors: " + plugin.getQuestsConfig().getBoolean("options.error-checking.override-errors", false));
                 lines.add("Placeholder cache time: " + plugin.getQuestsConfig().getInt("options.placeholder-cache-time") + " seconds");
                 lines.add("Quest mode: " + plugin.getQuestsConfig().getInt("quest-mode.mode"));
@@ -1,9 +1,10 @@
 package com.leonardobishop.quests.bukkit.command;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.storage.BinaryStorageProvider;
 import com.leonardobishop.quests.bukkit.storage.MySqlStorageProvider;
 import com.leonardobishop.quests.bukkit.storage.YamlStorageProvider;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.storage.StorageMigrator;
 import com.leonardobishop.quests.common.storage.StorageProvider;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
@@ -31,6 +32,7 @@ public class AdminMigrateCommandHandler implements CommandHandler {
     @Override
     public void handle(CommandSender sender, String[] args) {
         File dataMigrateFile = new File(plugin.getDataFolder(), "migrate_data.yml");
+        File checkpointFile = new File(plugin.getDataFolder(), "migrate_data.checkpoint");
 
         if (migrationInProgress.get()) {
             sender.sendMessage(ChatColor.RED + "A migration is already in progress.");
@@ -81,34 +83,60 @@ public class AdminMigrateCommandHandler implements CommandHandler {
             sender.sendMessage(ChatColor.GRAY + "Performing migration...");
             migrationInProgress.set(true);
             plugin.getScheduler().doAsync(() -> {
-                if (!initProvider(sender, fromProvider) || !initProvider(sender, toProvider)) {
-                    sender.sendMessage(ChatColor.DARK_RED + "Migration aborted.");
-                    return;
+                StorageMigrator.Result result;
+                try {
+                    if (!initProvider(sender, fromProvider) || !initProvider(sender, toProvider)) {
+                        sender.sendMessage(ChatColor.DARK_RED + "Migration aborted.");
+                        return;
+                    }
+
+                    ConfigurationSection settings = configuration.getConfigurationSection("settings");
+                    if (settings == null) {
+                        settings = new YamlConfiguration();
+                    }
+                    StorageMigrator migrator = new StorageMigrator(fromProvider, toProvider, checkpointFile,
+                            message -> sender.sendMessage(ChatColor.GRAY + message),
+                            settings.getInt("writer-threads", 4),
+                            settings.getInt("batch-size", 500),
+                            settings.getInt("queue-capacity", 8),
+                            settings.getLong("progress-interval", 5) * 1000L);
+
+                    sender.sendMessage(ChatColor.GRAY + "Migrating quest progress files from '" + fromProvider.getName() + "' to '" + toProvider.getName() + "'...");
+                    try {
+                        result = migrator.migrate();
+                    } catch (IOException | InterruptedException e) {
+                        sender.sendMessage(ChatColor.RED + "An error occurred while migrating data. See server console for more details.");
+                        e.printStackTrace();
+                        result = null;
+                    }
+                } finally {
+                    // also shuts down a provider which was initialised before the other failed to be
+                    shutdownProvider(sender, fromProvider);
+                    shutdownProvider(sender, toProvider);
+                    migrationInProgress.set(false);
                 }
 
-                sender.sendMessage(ChatColor.GRAY + "Loading quest progress files from '" + fromProvider.getName() + "'...");
-                List<QuestProgressFile> files = fromProvider.loadAllProgressFiles();
-                sender.sendMessage(ChatColor.GRAY.toString() + files.size() + " files loaded.");
-
-                for (QuestProgressFile file : files) {
-                    file.setModified(true);
+                if (result == null) {
+                    sender.sendMessage(ChatColor.DARK_RED + "Migration aborted. Run the command again to resume.");
+                    return;
                 }
 
-                sender.sendMessage(ChatColor.GRAY + "Writing quest progress files to '" + toProvider.getName() + "'...");
-                toProvider.saveAllProgressFiles(files);
-                sender.sendMessage(ChatColor.GRAY + "Done.");
-
-                shutdownProvider(sender, fromProvider);
-                shutdownProvider(sender, toProvider);
+                sender.sendMessage(ChatColor.GRAY.toString() + result.written() + " files migrated at " + result.throughput() + " files/s"
+                        + (result.skipped() > 0 ? ", " + result.skipped() + " skipped as they were already migrated." : "."));
+                if (result.failed() > 0) {
+                    sender.sendMessage(ChatColor.RED.toString() + result.failed() + " files could not be written. See server console for more details.");
+                    sender.sendMessage(ChatColor.RED + "Run the command again to retry them.");
+                    return;
+                }
 
                 long endTime = System.currentTimeMillis();
                 sender.sendMessage(ChatColor.GREEN + "Migration complete. Took " + String.format("%.3f", (endTime - startTime) / 1000f) + "s.");
 
+                checkpointFile.delete();
                 configuration.set("ready", false);
                 try {
                     configuration.save(dataMigrateFile);
                 } catch (IOException ignored) { }
-                migrationInProgress.set(false);
             });
             return;
         }
@@ -137,7 +165,6 @@ public class AdminMigrateCommandHandler implements CommandHandler {
             provider.init();
             return true;
         } catch (Exception e) {
-            migrationInProgress.set(false);
             sender.sendMessage(ChatColor.RED + "An error occurred while initializing '" + provider.getName() + "' storage provider. " +
                     "See server console for more details.");
             e.printStackTrace();
@@ -153,6 +180,9 @@ public class AdminMigrateCommandHandler implements CommandHandler {
             case "yaml":
                 storageProvider = new YamlStorageProvider(plugin);
                 break;
+            case "binary":
+                storageProvider = new BinaryStorageProvider(plugin);
+                break;
             case "mysql":
                 ConfigurationSection section = configurationSection.getConfigurationSection("database-settings");
                 storageProvider = new MySqlStorageProvider(plugin, section);
@@ -8,6 +8,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class AdminReloadCommandHandler implements CommandHandler {
 
@@ -21,13 +23,25 @@ public class AdminReloadCommandHandler implements CommandHandler {
     public void handle(CommandSender sender, String[] args) {
         sender.sendMessage(ChatColor.GRAY + "Please note that some options, such as storage, require a full restart for chances to take effect.");
         plugin.reloadConfig();
-        plugin.reloadQuests();
+        // quests whose files have not changed are kept, unless a full reload is requested
+        plugin.reloadQuests(args.length > 2 && args[2].equalsIgnoreCase("full"));
         if (!plugin.getConfigProblems().isEmpty()) CommandUtils.showProblems(sender, plugin.getConfigProblems());
         sender.sendMessage(ChatColor.GREEN + "Quests successfully reloaded.");
+        Map<String, Long> timings = plugin.getQuestLoadTimings();
+        if (!timings.isEmpty()) {
+            long total = timings.values().stream().mapToLong(Long::longValue).sum();
+            String stages = timings.entrySet().stream()
+                    .map(stage -> stage.getKey() + ": " + stage.getValue() + "ms")
+                    .collect(Collectors.joining(", "));
+            sender.sendMessage(ChatColor.GRAY + "Loaded quests in " + total + "ms (" + stages + ").");
+        }
     }
 
     @Override
     public List<String> tabComplete(CommandSender sender, String[] args) {
+        if (args.length == 3) {
+            return TabHelper.matchTabComplete(args[2], Collections.singletonList("full"));
+        }
         return Collections.emptyList();
     }
 
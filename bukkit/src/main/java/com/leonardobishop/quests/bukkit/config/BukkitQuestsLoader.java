@@ -30,10 +30,13 @@ import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
 import java.nio.file.Files;
@@ -43,11 +46,20 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class BukkitQuestsLoader implements QuestsLoader {
 
@@ -59,6 +71,14 @@ public class BukkitQuestsLoader implements QuestsLoader {
     private final QuestsLogger questsLogger;
     private final QItemStackRegistry qItemStackRegistry;
     private final QuestItemRegistry questItemRegistry;
+    private final Map<String, Long> stageTimings = new LinkedHashMap<>();
+    private final Map<String, QuestManifest.Entry> manifestEntries = new LinkedHashMap<>();
+    private final Set<TaskType> changedTaskTypes = new HashSet<>();
+    private boolean fullLoad = true;
+    private final AtomicInteger cachedFiles = new AtomicInteger();
+    private final AtomicInteger compiledFiles = new AtomicInteger();
+    private final Set<String> reloadedFiles = new HashSet<>();
+    private int cacheSize;
 
     public BukkitQuestsLoader(BukkitQuestsPlugin plugin) {
         this.plugin = plugin;
@@ -80,9 +100,62 @@ public class BukkitQuestsLoader implements QuestsLoader {
      */
     @Override
     public Map<String, List<ConfigProblem>> loadQuests(File root) {
-        qItemStackRegistry.clearRegistry();
-        questManager.clear();
-        taskTypeManager.resetTaskTypes();
+        return loadQuests(root, null, Collections.emptyMap());
+    }
+
+    /**
+     * Load quests like {@link #loadQuests(File)}, but only reload the quest files which changed since a
+     * previous load. Quests from unchanged files stay registered as they are. The previous load must have
+     * used the same main config, categories and quest items, see {@link #hashDependencies(File)}.
+     *
+     * @param root the directory to load from
+     * @param previous the manifest of the previous load, or null to load all quests
+     * @param cache the compiled quest files read from the {@link QuestCache}, which are used instead of parsing
+     *              files with the same content hash
+     * @return map of configuration issues
+     */
+    public Map<String, List<ConfigProblem>> loadQuests(File root, @Nullable QuestManifest previous, Map<String, QuestCache.Entry> cache) {
+        return loadQuests(prepareQuests(root, previous, cache));
+    }
+
+    /**
+     * Read, parse and validate the quest files in a directory, without registering anything. Unlike
+     * {@link #loadQuests(PreparedQuests)}, this does not need to run on the main thread.
+     *
+     * @param root the directory to load from
+     * @param previous the manifest of the previous load, or null to load all quests
+     * @param cache the compiled quest files read from the {@link QuestCache}, which are used instead of parsing
+     *              files with the same content hash
+     * @return the prepared quests
+     */
+    public PreparedQuests prepareQuests(File root, @Nullable QuestManifest previous, Map<String, QuestCache.Entry> cache) {
+        // files are read, parsed and validated in parallel, but only registered by loadQuests
+        long parseStart = System.nanoTime();
+        List<ParsedQuestFile> parsedFiles = parseQuestFiles(root, previous, cache);
+        stageTimings.put("read and validate", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - parseStart));
+
+        cacheSize = cache.size();
+        if (!cache.isEmpty()) {
+            questsLogger.debug("Loaded " + cachedFiles.get() + " quest files from the quest cache and compiled " + compiledFiles.get() + ".");
+        }
+        return new PreparedQuests(previous, parsedFiles);
+    }
+
+    /**
+     * Register quests prepared by {@link #prepareQuests(File, QuestManifest, Map)}, along with the categories
+     * if the quests were not prepared against a previous load. This must be called on the main thread.
+     *
+     * @param prepared the prepared quests
+     * @return map of configuration issues
+     */
+    public Map<String, List<ConfigProblem>> loadQuests(PreparedQuests prepared) {
+        QuestManifest previous = prepared.previous;
+        fullLoad = previous == null;
+        if (fullLoad) {
+            qItemStackRegistry.clearRegistry();
+            questManager.clear();
+            taskTypeManager.resetTaskTypes();
+        }
 
         Map<String, List<ConfigProblem>> configProblems = new HashMap<>();
         HashMap<String, Quest> pathToQuest = new HashMap<>();
@@ -98,343 +171,590 @@ public class BukkitQuestsLoader implements QuestsLoader {
             }
         }
 
-        ConfigurationSection categories;
-        File categoriesFile = new File(plugin.getDataFolder() + File.separator + "categories.yml");
-        if (plugin.getConfig().isConfigurationSection("categories")) {
-            categories = plugin.getConfig().getConfigurationSection("categories");
-        } else {
-            if (categoriesFile.exists()) {
-                YamlConfiguration categoriesConfiguration = YamlConfiguration.loadConfiguration(categoriesFile);
-                if (categoriesConfiguration.isConfigurationSection("categories")) {
-                    categories = categoriesConfiguration.getConfigurationSection("categories");
+        // categories are part of the dependency hash, so they only change on a full load
+        if (fullLoad) {
+            ConfigurationSection categories;
+            File categoriesFile = new File(plugin.getDataFolder() + File.separator + "categories.yml");
+            if (plugin.getConfig().isConfigurationSection("categories")) {
+                categories = plugin.getConfig().getConfigurationSection("categories");
+            } else {
+                if (categoriesFile.exists()) {
+                    YamlConfiguration categoriesConfiguration = YamlConfiguration.loadConfiguration(categoriesFile);
+                    if (categoriesConfiguration.isConfigurationSection("categories")) {
+                        categories = categoriesConfiguration.getConfigurationSection("categories");
+                    } else {
+                        categories = new YamlConfiguration();
+                    }
                 } else {
                     categories = new YamlConfiguration();
                 }
-            } else {
-                categories = new YamlConfiguration();
+            }
+
+            for (String id : categories.getKeys(false)) {
+                ItemStack displayItem = plugin.getConfiguredItemStack(id + ".display", categories);
+                boolean permissionRequired = categories.getBoolean(id + ".permission-required", false);
+                boolean hidden = categories.getBoolean(id + ".hidden", false);
+
+                Category category = new Category(id, permissionRequired, hidden);
+                questManager.registerCategory(category);
+                qItemStackRegistry.register(category, displayItem);
             }
         }
 
-        for (String id : categories.getKeys(false)) {
-            ItemStack displayItem = plugin.getConfiguredItemStack(id + ".display", categories);
-            boolean permissionRequired = categories.getBoolean(id + ".permission-required", false);
-            boolean hidden = categories.getBoolean(id + ".hidden", false);
+        long registerStart = System.nanoTime();
+        Set<String> foundPaths = new HashSet<>();
+        int reloaded = 0;
+        for (ParsedQuestFile parsedFile : prepared.files) {
+            foundPaths.add(parsedFile.relativePath());
+            QuestManifest.Entry previousEntry = previous == null ? null : previous.files().get(parsedFile.relativePath());
+            Quest previousQuest = previousEntry == null || previousEntry.questId() == null ? null : questManager.getQuestById(previousEntry.questId());
+
+            if (parsedFile.unchanged()) {
+                if (previousQuest != null) {
+                    pathToQuest.put(parsedFile.relativePath(), previousQuest);
+                }
+                if (!previousEntry.problems().isEmpty()) {
+                    configProblems.put(parsedFile.relativePath(), new ArrayList<>(previousEntry.problems()));
+                }
+                manifestEntries.put(parsedFile.relativePath(), previousEntry);
+                continue;
+            }
 
-            Category category = new Category(id, permissionRequired, hidden);
-            questManager.registerCategory(category);
-            qItemStackRegistry.register(category, displayItem);
+            reloaded++;
+            reloadedFiles.add(parsedFile.relativePath());
+            try {
+                if (previousQuest != null) {
+                    unregisterQuest(previousQuest);
+                }
+                Quest quest = registerQuest(parsedFile, globalTaskConfig, configProblems, pathToQuest);
+                if (previousQuest != null && quest == null) {
+                    questManager.unregisterQuest(previousQuest.getId());
+                }
+                // the quest keeps its position in its category if the category has not changed
+                if (previousQuest != null && (quest == null || !Objects.equals(previousQuest.getCategoryId(), quest.getCategoryId()))) {
+                    unregisterQuestFromCategory(previousQuest);
+                }
+                manifestEntries.put(parsedFile.relativePath(), new QuestManifest.Entry(parsedFile.hash(),
+                        quest == null ? null : quest.getId(), List.copyOf(parsedFile.problems()), parsedFile.compiled()));
+            } catch (Exception e) {
+                questsLogger.severe("An exception occurred when attempting to load quest '" + parsedFile.path() + "' (will be ignored)");
+                e.printStackTrace();
+            }
         }
 
-        // <\$m\s*([^ ]+)\s*\$>
-        Pattern macroPattern = Pattern.compile("<\\$m\\s*([^ ]+)\\s*\\$>");
+        int removed = 0;
+        if (previous != null) {
+            for (Map.Entry<String, QuestManifest.Entry> entry : previous.files().entrySet()) {
+                if (foundPaths.contains(entry.getKey()) || entry.getValue().questId() == null) {
+                    continue;
+                }
+                Quest previousQuest = questManager.getQuestById(entry.getValue().questId());
+                if (previousQuest != null) {
+                    unregisterQuest(previousQuest);
+                    questManager.unregisterQuest(previousQuest.getId());
+                    unregisterQuestFromCategory(previousQuest);
+                }
+                reloadedFiles.add(entry.getKey());
+                removed++;
+            }
+        }
+        long checkStart = System.nanoTime();
+        stageTimings.put("register", TimeUnit.NANOSECONDS.toMillis(checkStart - registerStart));
 
-        FileVisitor<Path> fileVisitor = new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
-                try {
-                    File questFile = new File(path.toUri());
-                    URI relativeLocation = root.toURI().relativize(path.toUri());
+        questsLogger.info(questManager.getQuests().size() + " quests have been registered.");
+        if (!fullLoad) {
+            questsLogger.info("Reloaded " + reloaded + " changed quest files and unloaded " + removed + " removed quest files.");
+        }
 
-                    if (!questFile.getName().toLowerCase().endsWith(".yml")) {
-                        return FileVisitResult.CONTINUE;
-                    }
+        // post-load checks
+        Set<Quest> cyclicQuests = new HashSet<>(questManager.getRequirementGraph().getCyclicQuests());
+        for (Map.Entry<String, Quest> loadedQuest : pathToQuest.entrySet()) {
+            List<ConfigProblem> problems = new ArrayList<>();
+            if (cyclicQuests.contains(loadedQuest.getValue())) {
+                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
+                        ConfigProblemDescriptions.REQUIREMENT_CYCLE.getDescription(loadedQuest.getValue().getId()),
+                        ConfigProblemDescriptions.REQUIREMENT_CYCLE.getExtendedDescription(),
+                        "options.requires"));
+            }
+            for (String req : loadedQuest.getValue().getRequirements()) {
+                if (questManager.getQuestById(req) == null) {
+                    problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
+                            ConfigProblemDescriptions.UNKNOWN_REQUIREMENT.getDescription(req),
+                            ConfigProblemDescriptions.UNKNOWN_REQUIREMENT.getExtendedDescription(req),
+                            "options.requires"));
+                }
+            }
 
-                    // process macros -- start
-                    String data = Files.readAllLines(path).stream().reduce("", (a, b) -> a + "\n" + b);
-                    StringBuilder processed = new StringBuilder();
-                    Matcher matcher = macroPattern.matcher(data);
-
-                    int end = 0;
-                    while (matcher.find()) {
-                        String macro = matcher.group(1);
-                        String replacement = questsConfig.getString("global-macros." + macro, null);
-                        if (replacement == null) {
-                            replacement = matcher.group(0);
-                        }
-                        processed.append(data, end, matcher.start()).append(replacement);
-                        end = matcher.end();
-                    }
+            if (!problems.isEmpty()) {
+                if (configProblems.containsKey(loadedQuest.getKey())) {
+                    configProblems.get(loadedQuest.getKey()).addAll(problems);
+                } else {
+                    configProblems.put(loadedQuest.getKey(), problems);
+                }
+            }
+        }
+        stageTimings.put("checks", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - checkStart));
 
-                    if (end < data.length()) {
-                        processed.append(data, end, data.length());
-                    }
-                    // process macros -- end
+        return configProblems;
+    }
 
-                    YamlConfiguration config = new YamlConfiguration();
-                    // test QUEST file integrity
-                    try {
-                        config.loadFromString(processed.toString());
-                    } catch (InvalidConfigurationException ex) {
-                        configProblems.put(relativeLocation.getPath(), Collections.singletonList(new ConfigProblem(
-                                ConfigProblem.ConfigProblemType.ERROR,
-                                ConfigProblemDescriptions.MALFORMED_YAML.getDescription(),
-                                ConfigProblemDescriptions.MALFORMED_YAML.getExtendedDescription(ex.getMessage())
-                        )));
-                        return FileVisitResult.CONTINUE;
-                    }
+    /**
+     * Read, expand the macros of, parse and validate all quest files in a directory on a fork-join pool.
+     * Nothing is registered by this stage, so it does not need to run on the main thread.
+     *
+     * @param root the directory to load from
+     * @param previous the manifest of the previous load, files which have not changed since are not parsed
+     * @param cache the compiled quest files, which are decompiled instead of parsed if their hash matches
+     * @return list of parsed quest files, in the order they were found
+     */
+    private List<ParsedQuestFile> parseQuestFiles(File root, @Nullable QuestManifest previous, Map<String, QuestCache.Entry> cache) {
+        List<Path> paths;
+        try (Stream<Path> stream = Files.find(root.toPath(), Integer.MAX_VALUE,
+                (path, attributes) -> !attributes.isDirectory() && path.getFileName().toString().toLowerCase().endsWith(".yml"))) {
+            paths = stream.toList();
+        } catch (IOException | UncheckedIOException e) {
+            e.printStackTrace();
+            return Collections.emptyList();
+        }
 
-                    String id = questFile.getName().replace(".yml", "");
+        Map<String, String> macros = new HashMap<>();
+        ConfigurationSection macroSection = questsConfig.getConfig().getConfigurationSection("global-macros");
+        if (macroSection != null) {
+            for (String macro : macroSection.getKeys(true)) {
+                if (!macroSection.isConfigurationSection(macro)) {
+                    macros.put(macro, macroSection.getString(macro));
+                }
+            }
+        }
 
-                    List<ConfigProblem> problems = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(paths.size(), Runtime.getRuntime().availableProcessors())));
+        try {
+            List<ForkJoinTask<ParsedQuestFile>> tasks = new ArrayList<>(paths.size());
+            for (Path path : paths) {
+                tasks.add(pool.submit(() -> parseQuestFile(root, path, macros, previous, cache)));
+            }
 
-                    if (!StringUtils.isAlphanumeric(id)) {
-                        problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
-                                ConfigProblemDescriptions.INVALID_QUEST_ID.getDescription(id),
-                                ConfigProblemDescriptions.INVALID_QUEST_ID.getExtendedDescription(id)));
-                    }
+            List<ParsedQuestFile> parsedFiles = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<ParsedQuestFile> task : tasks) {
+                ParsedQuestFile parsedFile = task.join();
+                if (parsedFile != null) {
+                    parsedFiles.add(parsedFile);
+                }
+            }
+            return parsedFiles;
+        } finally {
+            pool.shutdown();
+        }
+    }
 
-                    // CHECK EVERYTHING WRONG WITH THE QUEST FILE BEFORE ACTUALLY LOADING THE QUEST
-
-                    if (!config.isConfigurationSection("tasks")) {
-                        problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
-                                ConfigProblemDescriptions.NO_TASKS.getDescription(),
-                                ConfigProblemDescriptions.NO_TASKS.getExtendedDescription(),
-                                "tasks"));
-                    } else { //continue
-                        int validTasks = 0;
-                        for (String taskId : config.getConfigurationSection("tasks").getKeys(false)) {
-                            boolean isValid = true;
-                            String taskRoot = "tasks." + taskId;
-                            String taskType = config.getString(taskRoot + ".type");
-
-                            if (!config.isConfigurationSection(taskRoot)) {
-                                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
-                                        ConfigProblemDescriptions.TASK_MALFORMED_NOT_SECTION.getDescription(taskId),
-                                        ConfigProblemDescriptions.TASK_MALFORMED_NOT_SECTION.getExtendedDescription(taskId),
-                                        taskRoot));
-                                continue;
-                            }
-
-                            if (taskType == null) {
-                                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
-                                        ConfigProblemDescriptions.NO_TASK_TYPE.getDescription(),
-                                        ConfigProblemDescriptions.NO_TASK_TYPE.getExtendedDescription(),
-                                        taskRoot));
-                                continue;
-                            }
-
-                            // check the tasks
-                            String resolvedTaskTypeName = taskTypeManager.resolveTaskTypeName(taskType);
-                            if (resolvedTaskTypeName != null) {
-                                TaskType t = taskTypeManager.getTaskType(resolvedTaskTypeName);
-                                HashMap<String, Object> configValues = new HashMap<>();
-                                for (String key : config.getConfigurationSection(taskRoot).getKeys(false)) {
-                                    configValues.put(key, config.get(taskRoot + "." + key));
-                                }
-
-                                List<ConfigProblem> taskProblems = new ArrayList<>();
-                                for (TaskType.ConfigValidator validator : t.getConfigValidators()) {
-                                    validator.validateConfig(configValues, taskProblems);
-                                }
-
-                                // pre-pend task root to locations
-                                for (ConfigProblem problem : taskProblems) {
-                                    problems.add(new ConfigProblem(problem.getType(), problem.getDescription(),
-                                            problem.getExtendedDescription(), taskRoot + "." + problem.getLocation()));
-                                }
-                            } else {
-                                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
-                                        ConfigProblemDescriptions.UNKNOWN_TASK_TYPE.getDescription(taskType),
-                                        ConfigProblemDescriptions.UNKNOWN_TASK_TYPE.getExtendedDescription(taskType),
-                                        taskRoot));
-                                isValid = false;
-                            }
-
-                            if (isValid) {
-                                validTasks++;
-                            }
-                        }
-                        if (validTasks == 0) {
-                            problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
-                                    ConfigProblemDescriptions.NO_TASKS.getDescription(),
-                                    ConfigProblemDescriptions.NO_TASKS.getExtendedDescription(),
-                                    "tasks"));
-                        }
-                    }
+    private ParsedQuestFile parseQuestFile(File root, Path path, Map<String, String> macros, @Nullable QuestManifest previous,
+                                           Map<String, QuestCache.Entry> cache) {
+        try {
+            File questFile = new File(path.toUri());
+            URI relativeLocation = root.toURI().relativize(path.toUri());
+
+            byte[] bytes = Files.readAllBytes(path);
+            String hash = QuestManifest.hash(bytes);
+            QuestManifest.Entry previousEntry = previous == null ? null : previous.files().get(relativeLocation.getPath());
+            if (previousEntry != null && previousEntry.hash().equals(hash)) {
+                return new ParsedQuestFile(path, relativeLocation.getPath(), hash, true, null, null, Collections.emptyList(), false, null);
+            }
 
-                    boolean error = false;
-                    for (ConfigProblem problem : problems) {
-                        if (problem.getType() == ConfigProblem.ConfigProblemType.ERROR) {
-                            error = true;
-                            break;
-                        }
-                    }
+            QuestCache.Entry cacheEntry = cache.get(relativeLocation.getPath());
+            if (cacheEntry != null && cacheEntry.hash().equals(hash)) {
+                try {
+                    QuestCache.CompiledQuestFile compiledFile = QuestCache.decompile(cacheEntry.compiled());
+                    List<ConfigProblem> problems = new ArrayList<>(compiledFile.problems());
+                    String id = compiledFile.config() == null ? null : questFile.getName().replace(".yml", "");
+                    cachedFiles.incrementAndGet();
+                    return new ParsedQuestFile(path, relativeLocation.getPath(), hash, false, id, compiledFile.config(),
+                            problems, hasError(problems), cacheEntry.compiled());
+                } catch (IllegalArgumentException e) {
+                    questsLogger.debug("Cached quest '" + relativeLocation.getPath() + "' is malformed, parsing it instead.");
+                }
+            }
 
-                    // END OF THE CHECKING
-                    if (!error && !questsConfig.getBoolean("options.error-checking.override-errors", false)) {
-                        QItemStack displayItem = getQItemStack("display", config);
-                        List<String> rewards = config.getStringList("rewards");
-                        List<String> requirements = config.getStringList("options.requires");
-                        List<String> rewardString = config.getStringList("rewardstring");
-                        List<String> startString = config.getStringList("startstring");
-                        List<String> startCommands = config.getStringList("startcommands");
-                        List<String> cancelCommands = config.getStringList("cancelcommands");
-                        List<String> expiryCommands = config.getStringList("expirycommands");
-                        boolean repeatable = config.getBoolean("options.repeatable", false);
-                        boolean cooldown = config.getBoolean("options.cooldown.enabled", false);
-                        boolean timeLimit = config.getBoolean("options.time-limit.enabled", false);
-                        boolean permissionRequired = config.getBoolean("options.permission-required", false);
-                        boolean autostart = config.getBoolean("options.autostart", false);
-                        boolean cancellable = config.getBoolean("options.cancellable", true);
-                        boolean countsTowardsLimit = config.getBoolean("options.counts-towards-limit", true);
-                        int cooldownTime = config.getInt("options.cooldown.time", 10);
-                        int timeLimtTime = config.getInt("options.time-limit.time", 10);
-                        int sortOrder = config.getInt("options.sort-order", 1);
-                        String category = config.getString("options.category");
-                        Map<String, String> placeholders = new HashMap<>();
-                        Map<String, String> progressPlaceholders = new HashMap<>();
-
-                        if (category != null && category.equals("")) category = null;
-
-                        if (questController.getName().equals("daily")) {
-                            repeatable = true;
-                            cooldown = true;
-                            cooldownTime = 0;
-                            requirements = Collections.emptyList();
-                            permissionRequired = false;
-                        }
+            // process macros -- start
+            String data = new String(bytes, StandardCharsets.UTF_8).lines().collect(Collectors.joining("\n"));
+            StringBuilder processed = new StringBuilder(data.length());
+            Matcher matcher = macroPattern.matcher(data);
 
-                        Quest quest = new Quest.Builder(id)
-                                .withRewards(rewards)
-                                .withRequirements(requirements)
-                                .withRewardString(rewardString)
-                                .withStartString(startString)
-                                .withStartCommands(startCommands)
-                                .withCancelCommands(cancelCommands)
-                                .withExpiryCommands(expiryCommands)
-                                .withPlaceholders(placeholders)
-                                .withProgressPlaceholders(progressPlaceholders)
-                                .withCooldown(cooldownTime)
-                                .withTimeLimit(timeLimtTime)
-                                .withSortOrder(sortOrder)
-                                .withCooldownEnabled(cooldown)
-                                .withTimeLimitEnabled(timeLimit)
-                                .withPermissionRequired(permissionRequired)
-                                .withRepeatEnabled(repeatable)
-                                .withCancellable(cancellable)
-                                .withCountsTowardsLimit(countsTowardsLimit)
-                                .withAutoStartEnabled(autostart)
-                                .inCategory(category)
-                                .build();
-
-                        if (category != null) {
-                            Category c = questManager.getCategoryById(category);
-                            if (c != null) {
-                                c.registerQuestId(id);
-                            } else {
-                                String allCategories = questManager.getCategories().stream().map(Category::getId).collect(Collectors.joining(", "));
-                                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
-                                        ConfigProblemDescriptions.UNKNOWN_CATEGORY.getDescription(category, allCategories),
-                                        ConfigProblemDescriptions.UNKNOWN_CATEGORY.getExtendedDescription(category, allCategories),
-                                        "options.category"));
-                            }
-                        }
+            int end = 0;
+            while (matcher.find()) {
+                String replacement = macros.get(matcher.group(1));
+                if (replacement == null) {
+                    replacement = matcher.group(0);
+                }
+                processed.append(data, end, matcher.start()).append(replacement);
+                end = matcher.end();
+            }
 
-                        for (String taskId : config.getConfigurationSection("tasks").getKeys(false)) {
-                            String taskRoot = "tasks." + taskId;
-                            String taskType = config.getString(taskRoot + ".type");
-                            String resolvedTaskTypeName = taskTypeManager.resolveTaskTypeName(taskType);
-                            if (resolvedTaskTypeName == null) continue;
+            if (end < data.length()) {
+                processed.append(data, end, data.length());
+            }
+            // process macros -- end
+
+            YamlConfiguration config = new YamlConfiguration();
+            // test QUEST file integrity
+            try {
+                config.loadFromString(processed.toString());
+            } catch (InvalidConfigurationException ex) {
+                List<ConfigProblem> problems = new ArrayList<>(Collections.singletonList(new ConfigProblem(
+                        ConfigProblem.ConfigProblemType.ERROR,
+                        ConfigProblemDescriptions.MALFORMED_YAML.getDescription(),
+                        ConfigProblemDescriptions.MALFORMED_YAML.getExtendedDescription(ex.getMessage())
+                )));
+                return new ParsedQuestFile(path, relativeLocation.getPath(), hash, false, null, null, problems, true,
+                        compile(problems, null));
+            }
 
-                            Task task = new Task(taskId, resolvedTaskTypeName);
+            String id = questFile.getName().replace(".yml", "");
 
-                            for (String key : config.getConfigurationSection(taskRoot).getKeys(false)) {
-                                task.addConfigValue(key, config.get(taskRoot + "." + key));
-                            }
+            List<ConfigProblem> problems = new ArrayList<>();
 
-                            if (globalTaskConfig.containsKey(taskType)) {
-                                for (Map.Entry<String, Object> entry : globalTaskConfig.get(taskType).entrySet()) {
-                                    if (questsConfig.getBoolean("options.global-task-configuration-override") && task.getConfigValue(entry.getKey()) != null)
-                                        continue;
-                                    task.addConfigValue(entry.getKey(), entry.getValue());
-                                }
-                            }
+            if (!StringUtils.isAlphanumeric(id)) {
+                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
+                        ConfigProblemDescriptions.INVALID_QUEST_ID.getDescription(id),
+                        ConfigProblemDescriptions.INVALID_QUEST_ID.getExtendedDescription(id)));
+            }
 
-                            quest.registerTask(task);
-                        }
+            // CHECK EVERYTHING WRONG WITH THE QUEST FILE BEFORE ACTUALLY LOADING THE QUEST
+
+            if (!config.isConfigurationSection("tasks")) {
+                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
+                        ConfigProblemDescriptions.NO_TASKS.getDescription(),
+                        ConfigProblemDescriptions.NO_TASKS.getExtendedDescription(),
+                        "tasks"));
+            } else { //continue
+                int validTasks = 0;
+                for (String taskId : config.getConfigurationSection("tasks").getKeys(false)) {
+                    boolean isValid = true;
+                    String taskRoot = "tasks." + taskId;
+                    String taskType = config.getString(taskRoot + ".type");
+
+                    if (!config.isConfigurationSection(taskRoot)) {
+                        problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
+                                ConfigProblemDescriptions.TASK_MALFORMED_NOT_SECTION.getDescription(taskId),
+                                ConfigProblemDescriptions.TASK_MALFORMED_NOT_SECTION.getExtendedDescription(taskId),
+                                taskRoot));
+                        continue;
+                    }
 
+                    if (taskType == null) {
+                        problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
+                                ConfigProblemDescriptions.NO_TASK_TYPE.getDescription(),
+                                ConfigProblemDescriptions.NO_TASK_TYPE.getExtendedDescription(),
+                                taskRoot));
+                        continue;
+                    }
 
-                        for (String line : displayItem.getLoreNormal()) {
-                            findInvalidTaskReferences(quest, line, problems, "display.lore-normal");
-                        }
-                        for (String line : displayItem.getLoreStarted()) {
-                            findInvalidTaskReferences(quest, line, problems, "display.lore-started");
+                    // check the tasks
+                    String resolvedTaskTypeName = taskTypeManager.resolveTaskTypeName(taskType);
+                    if (resolvedTaskTypeName != null) {
+                        TaskType t = taskTypeManager.getTaskType(resolvedTaskTypeName);
+                        HashMap<String, Object> configValues = new HashMap<>();
+                        for (String key : config.getConfigurationSection(taskRoot).getKeys(false)) {
+                            configValues.put(key, config.get(taskRoot + "." + key));
                         }
 
-                        if (config.isConfigurationSection("placeholders")) {
-                            for (String p : config.getConfigurationSection("placeholders").getKeys(false)) {
-                                placeholders.put(p, config.getString("placeholders." + p));
-                                findInvalidTaskReferences(quest, config.getString("placeholders." + p), problems, "placeholders." + p);
-                            }
-                        }
-                        if (config.isConfigurationSection("progress-placeholders")) {
-                            for (String p : config.getConfigurationSection("progress-placeholders").getKeys(false)) {
-                                progressPlaceholders.put(p, config.getString("progress-placeholders." + p));
-                                findInvalidTaskReferences(quest, config.getString("progress-placeholders." + p), problems, "placeholders." + p, true);
-                            }
-                        }
-                        questManager.registerQuest(quest);
-                        taskTypeManager.registerQuestTasksWithTaskTypes(quest);
-                        qItemStackRegistry.register(quest, displayItem);
-                        if (config.isConfigurationSection("options.started-display")) {
-                            qItemStackRegistry.registerQuestLocked(quest,
-                                    plugin.getItemGetter().getItem("options.locked-display", config));
-                        }
-                        if (config.isConfigurationSection("options.completed-display")) {
-                            qItemStackRegistry.registerQuestCompleted(quest,
-                                    plugin.getItemGetter().getItem("options.completed-display", config));
+                        List<ConfigProblem> taskProblems = new ArrayList<>();
+                        for (TaskType.ConfigValidator validator : t.getConfigValidators()) {
+                            validator.validateConfig(configValues, taskProblems);
                         }
-                        if (config.isConfigurationSection("options.cooldown-display")) {
-                            qItemStackRegistry.registerQuestCooldown(quest,
-                                    plugin.getItemGetter().getItem("options.cooldown-display", config));
-                        }
-                        if (config.isConfigurationSection("options.permission-display")) {
-                            qItemStackRegistry.registerQuestPermission(quest,
-                                    plugin.getItemGetter().getItem("options.permission-display", config));
+
+                        // pre-pend task root to locations
+                        for (ConfigProblem problem : taskProblems) {
+                            problems.add(new ConfigProblem(problem.getType(), problem.getDescription(),
+                                    problem.getExtendedDescription(), taskRoot + "." + problem.getLocation()));
                         }
-                        pathToQuest.put(relativeLocation.getPath(), quest);
+                    } else {
+                        problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
+                                ConfigProblemDescriptions.UNKNOWN_TASK_TYPE.getDescription(taskType),
+                                ConfigProblemDescriptions.UNKNOWN_TASK_TYPE.getExtendedDescription(taskType),
+                                taskRoot));
+                        isValid = false;
                     }
-                    if (!problems.isEmpty()) {
-                        configProblems.put(relativeLocation.getPath(), problems);
+
+                    if (isValid) {
+                        validTasks++;
                     }
-                } catch (Exception e) {
-                    questsLogger.severe("An exception occurred when attempting to load quest '" + path + "' (will be ignored)");
-                    e.printStackTrace();
                 }
-                return FileVisitResult.CONTINUE;
+                if (validTasks == 0) {
+                    problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
+                            ConfigProblemDescriptions.NO_TASKS.getDescription(),
+                            ConfigProblemDescriptions.NO_TASKS.getExtendedDescription(),
+                            "tasks"));
+                }
             }
-        };
 
-        try {
-            Files.walkFileTree(root.toPath(), fileVisitor);
-        } catch (IOException e) {
+            // compiled before registration, which adds problems that are found again on every load
+            return new ParsedQuestFile(path, relativeLocation.getPath(), hash, false, id, config, problems, hasError(problems),
+                    compile(problems, config));
+        } catch (Exception e) {
+            questsLogger.severe("An exception occurred when attempting to load quest '" + path + "' (will be ignored)");
             e.printStackTrace();
+            return null;
         }
+    }
 
-        questsLogger.info(questManager.getQuests().size() + " quests have been registered.");
+    private byte[] compile(List<ConfigProblem> problems, YamlConfiguration config) {
+        byte[] compiled = QuestCache.compile(problems, config);
+        if (compiled != null) {
+            compiledFiles.incrementAndGet();
+        }
+        return compiled;
+    }
 
-        // post-load checks
-        for (Map.Entry<String, Quest> loadedQuest : pathToQuest.entrySet()) {
-            List<ConfigProblem> problems = new ArrayList<>();
-            for (String req : loadedQuest.getValue().getRequirements()) {
-                if (questManager.getQuestById(req) == null) {
+    private static boolean hasError(List<ConfigProblem> problems) {
+        for (ConfigProblem problem : problems) {
+            if (problem.getType() == ConfigProblem.ConfigProblemType.ERROR) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build a quest from a parsed quest file and register it. Unlike parsing, this is not thread safe.
+     *
+     * @return the registered quest, or null if the file has errors
+     */
+    private Quest registerQuest(ParsedQuestFile parsedFile, Map<String, Map<String, Object>> globalTaskConfig,
+                               Map<String, List<ConfigProblem>> configProblems, Map<String, Quest> pathToQuest) {
+        List<ConfigProblem> problems = parsedFile.problems();
+        if (parsedFile.config() == null) {
+            configProblems.put(parsedFile.relativePath(), problems);
+            return null;
+        }
+
+        String id = parsedFile.id();
+        YamlConfiguration config = parsedFile.config();
+        Quest registered = null;
+
+        if (!parsedFile.error() && !questsConfig.getBoolean("options.error-checking.override-errors", false)) {
+            QItemStack displayItem = getQItemStack("display", config);
+            List<String> rewards = config.getStringList("rewards");
+            List<String> requirements = config.getStringList("options.requires");
+            List<String> rewardString = config.getStringList("rewardstring");
+            List<String> startString = config.getStringList("startstring");
+            List<String> startCommands = config.getStringList("startcommands");
+            List<String> cancelCommands = config.getStringList("cancelcommands");
+            List<String> expiryCommands = config.getStringList("expirycommands");
+            boolean repeatable = config.getBoolean("options.repeatable", false);
+            boolean cooldown = config.getBoolean("options.cooldown.enabled", false);
+            boolean timeLimit = config.getBoolean("options.time-limit.enabled", false);
+            boolean permissionRequired = config.getBoolean("options.permission-required", false);
+            boolean autostart = config.getBoolean("options.autostart", false);
+            boolean cancellable = config.getBoolean("options.cancellable", true);
+            boolean countsTowardsLimit = config.getBoolean("options.counts-towards-limit", true);
+            int cooldownTime = config.getInt("options.cooldown.time", 10);
+            int timeLimtTime = config.getInt("options.time-limit.time", 10);
+            int sortOrder = config.getInt("options.sort-order", 1);
+            String category = config.getString("options.category");
+            Map<String, String> placeholders = new HashMap<>();
+            Map<String, String> progressPlaceholders = new HashMap<>();
+
+            if (category != null && category.equals("")) category = null;
+
+            if (questController.getName().equals("daily")) {
+                repeatable = true;
+                cooldown = true;
+                cooldownTime = 0;
+                requirements = Collections.emptyList();
+                permissionRequired = false;
+            }
+
+            Quest quest = new Quest.Builder(id)
+                    .withRewards(rewards)
+                    .withRequirements(requirements)
+                    .withRewardString(rewardString)
+                    .withStartString(startString)
+                    .withStartCommands(startCommands)
+                    .withCancelCommands(cancelCommands)
+                    .withExpiryCommands(expiryCommands)
+                    .withPlaceholders(placeholders)
+                    .withProgressPlaceholders(progressPlaceholders)
+                    .withCooldown(cooldownTime)
+                    .withTimeLimit(timeLimtTime)
+                    .withSortOrder(sortOrder)
+                    .withCooldownEnabled(cooldown)
+                    .withTimeLimitEnabled(timeLimit)
+                    .withPermissionRequired(permissionRequired)
+                    .withRepeatEnabled(repeatable)
+                    .withCancellable(cancellable)
+                    .withCountsTowardsLimit(countsTowardsLimit)
+                    .withAutoStartEnabled(autostart)
+                    .inCategory(category)
+                    .build();
+
+            if (category != null) {
+                Category c = questManager.getCategoryById(category);
+                if (c != null) {
+                    c.registerQuestId(id);
+                } else {
+                    String allCategories = questManager.getCategories().stream().map(Category::getId).collect(Collectors.joining(", "));
                     problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
-                            ConfigProblemDescriptions.UNKNOWN_REQUIREMENT.getDescription(req),
-                            ConfigProblemDescriptions.UNKNOWN_REQUIREMENT.getExtendedDescription(req),
-                            "options.requires"));
+                            ConfigProblemDescriptions.UNKNOWN_CATEGORY.getDescription(category, allCategories),
+                            ConfigProblemDescriptions.UNKNOWN_CATEGORY.getExtendedDescription(category, allCategories),
+                            "options.category"));
                 }
             }
 
-            if (!problems.isEmpty()) {
-                if (configProblems.containsKey(loadedQuest.getKey())) {
-                    configProblems.get(loadedQuest.getKey()).addAll(problems);
-                } else {
-                    configProblems.put(loadedQuest.getKey(), problems);
+            for (String taskId : config.getConfigurationSection("tasks").getKeys(false)) {
+                String taskRoot = "tasks." + taskId;
+                String taskType = config.getString(taskRoot + ".type");
+                String resolvedTaskTypeName = taskTypeManager.resolveTaskTypeName(taskType);
+                if (resolvedTaskTypeName == null) continue;
+
+                Task task = new Task(taskId, resolvedTaskTypeName);
+
+                for (String key : config.getConfigurationSection(taskRoot).getKeys(false)) {
+                    task.addConfigValue(key, config.get(taskRoot + "." + key));
+                }
+
+                if (globalTaskConfig.containsKey(taskType)) {
+                    for (Map.Entry<String, Object> entry : globalTaskConfig.get(taskType).entrySet()) {
+                        if (questsConfig.getBoolean("options.global-task-configuration-override") && task.getConfigValue(entry.getKey()) != null)
+                            continue;
+                        task.addConfigValue(entry.getKey(), entry.getValue());
+                    }
+                }
+
+                quest.registerTask(task);
+            }
+
+
+            for (String line : displayItem.getLoreNormal()) {
+                findInvalidTaskReferences(quest, line, problems, "display.lore-normal");
+            }
+            for (String line : displayItem.getLoreStarted()) {
+                findInvalidTaskReferences(quest, line, problems, "display.lore-started");
+            }
+
+            if (config.isConfigurationSection("placeholders")) {
+                for (String p : config.getConfigurationSection("placeholders").getKeys(false)) {
+                    placeholders.put(p, config.getString("placeholders." + p));
+                    findInvalidTaskReferences(quest, config.getString("placeholders." + p), problems, "placeholders." + p);
                 }
             }
+            if (config.isConfigurationSection("progress-placeholders")) {
+                for (String p : config.getConfigurationSection("progress-placeholders").getKeys(false)) {
+                    progressPlaceholders.put(p, config.getString("progress-placeholders." + p));
+                    findInvalidTaskReferences(quest, config.getString("progress-placeholders." + p), problems, "placeholders." + p, true);
+                }
+            }
+            questManager.registerQuest(quest);
+            taskTypeManager.registerQuestTasksWithTaskTypes(quest);
+            qItemStackRegistry.register(quest, displayItem);
+            if (config.isConfigurationSection("options.started-display")) {
+                qItemStackRegistry.registerQuestLocked(quest,
+                        plugin.getItemGetter().getItem("options.locked-display", config));
+            }
+            if (config.isConfigurationSection("options.completed-display")) {
+                qItemStackRegistry.registerQuestCompleted(quest,
+                        plugin.getItemGetter().getItem("options.completed-display", config));
+            }
+            if (config.isConfigurationSection("options.cooldown-display")) {
+                qItemStackRegistry.registerQuestCooldown(quest,
+                        plugin.getItemGetter().getItem("options.cooldown-display", config));
+            }
+            if (config.isConfigurationSection("options.permission-display")) {
+                qItemStackRegistry.registerQuestPermission(quest,
+                        plugin.getItemGetter().getItem("options.permission-display", config));
+            }
+            pathToQuest.put(parsedFile.relativePath(), quest);
+            for (Task task : quest.getTasks()) {
+                TaskType taskType = taskTypeManager.getTaskType(task.getType());
+                if (taskType != null) {
+                    changedTaskTypes.add(taskType);
+                }
+            }
+            registered = quest;
         }
+        if (!problems.isEmpty()) {
+            configProblems.put(parsedFile.relativePath(), new ArrayList<>(problems));
+        }
+        return registered;
+    }
 
-        return configProblems;
+    private void unregisterQuest(Quest quest) {
+        taskTypeManager.unregisterQuestTasksWithTaskTypes(quest);
+        qItemStackRegistry.unregister(quest);
+        for (Task task : quest.getTasks()) {
+            TaskType taskType = taskTypeManager.getTaskType(task.getType());
+            if (taskType != null) {
+                changedTaskTypes.add(taskType);
+            }
+        }
+    }
+
+    private void unregisterQuestFromCategory(Quest quest) {
+        if (quest.getCategoryId() == null) {
+            return;
+        }
+        Category category = questManager.getCategoryById(quest.getCategoryId());
+        if (category != null) {
+            category.unregisterQuestId(quest.getId());
+        }
+    }
+
+    /**
+     * Hash everything quests are built from besides their own files: the main config (which includes
+     * global macros and global task configuration), the categories and the quest items. Quests may only be
+     * reloaded incrementally if this has not changed.
+     *
+     * @param itemsRoot the directory quest items are loaded from
+     * @return the hash, or null if it could not be computed
+     */
+    public @Nullable String hashDependencies(File itemsRoot) {
+        try {
+            return QuestManifest.hashAll(new File(plugin.getDataFolder(), "config.yml"),
+                    new File(plugin.getDataFolder(), "categories.yml"), itemsRoot);
+        } catch (IOException | UncheckedIOException e) {
+            questsLogger.debug("Could not hash quest dependencies: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Get the manifest of the last load, to be passed to the next load.
+     *
+     * @param dependencyHash the hash of the dependencies the load used
+     * @return the manifest
+     */
+    public QuestManifest getManifest(String dependencyHash) {
+        return new QuestManifest(dependencyHash, Collections.unmodifiableMap(new LinkedHashMap<>(manifestEntries)));
+    }
+
+    /**
+     * Get whether the quest cache needs to be written again after the last load, which is the case if any
+     * quest files were compiled, or if the cache read for the load holds files which no longer exist.
+     *
+     * @return true if the cache is outdated
+     */
+    public boolean isCacheOutdated() {
+        long cacheable = manifestEntries.values().stream().filter(entry -> entry.compiled() != null).count();
+        return compiledFiles.get() > 0 || cacheable != cacheSize;
+    }
+
+    /**
+     * Get the quest files which were loaded or unloaded by the last load, relative to the quests directory.
+     * After a full load, this is every quest file found.
+     *
+     * @return set of paths
+     */
+    public Set<String> getReloadedFiles() {
+        return Collections.unmodifiableSet(reloadedFiles);
+    }
+
+    /**
+     * Get the task types which quests were registered to or unregistered from by the last load. After
+     * a full load, this is every task type.
+     *
+     * @return set of task types
+     */
+    public Set<TaskType> getChangedTaskTypes() {
+        return fullLoad ? new HashSet<>(taskTypeManager.getTaskTypes()) : Collections.unmodifiableSet(changedTaskTypes);
     }
 
     /**
@@ -443,6 +763,7 @@ public class BukkitQuestsLoader implements QuestsLoader {
      * @param root the directory to load from
      */
     public void loadQuestItems(File root) {
+        long start = System.nanoTime();
         questItemRegistry.clearRegistry();
 
         FileVisitor<Path> fileVisitor = new SimpleFileVisitor<Path>() {
@@ -512,8 +833,21 @@ public class BukkitQuestsLoader implements QuestsLoader {
         }
 
         questsLogger.info(questItemRegistry.getAllItems().size() + " quest items have been registered.");
+        stageTimings.put("items", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
     }
 
+    /**
+     * Get the time taken by each stage of the last load, in the order the stages ran.
+     *
+     * @return map of stage names to milliseconds
+     */
+    public Map<String, Long> getStageTimings() {
+        return Collections.unmodifiableMap(stageTimings);
+    }
+
+    // <\$m\s*([^ ]+)\s*\$>
+    private static final Pattern macroPattern = Pattern.compile("<\\$m\\s*([^ ]+)\\s*\\$>");
+
     private static final Pattern taskPlaceholderPattern = Pattern.compile("\\{([^}]+):(progress|complete|id)}");
 
     private void findInvalidTaskReferences(Quest quest, String s, List<ConfigProblem> configProblems, String location) {
@@ -566,4 +900,20 @@ public class BukkitQuestsLoader implements QuestsLoader {
         return new QItemStack(plugin, name, loreNormal, loreStarted, is);
     }
 
+    /**
+     * Quest files which have been read, parsed and validated, but not yet registered.
+     */
+    public static final class PreparedQuests {
+
+        private final QuestManifest previous;
+        private final List<ParsedQuestFile> files;
+
+        private PreparedQuests(QuestManifest previous, List<ParsedQuestFile> files) {
+            this.previous = previous;
+            this.files = files;
+        }
+    }
+
+    private record ParsedQuestFile(Path path, String relativePath, String hash, boolean unchanged, String id,
+                                   YamlConfiguration config, List<ConfigProblem> problems, boolean error, byte[] compiled) { }
 }
@@ -0,0 +1,363 @@
+package com.leonardobishop.quests.bukkit.config;
+
+import com.leonardobishop.quests.common.config.ConfigProblem;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Stores quest files in a compact binary form, so that quests can be loaded at startup without parsing and
+ * validating their YAML again. Each file is stored as the problems found while validating it followed by its
+ * parsed configuration tree, keyed by the content hash of the source file.
+ * <p>
+ * The cache starts with a header holding the format version and a key describing everything the compiled
+ * files depend on (see {@link #read(Path, String)}), followed by the entries and a CRC32 checksum of all of
+ * the above. A cache with a different key, or which fails the checksum, is ignored as a whole.
+ */
+public final class QuestCache {
+
+    private static final int MAGIC = 0x51514346; // QQCF
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_BOOLEAN = 5;
+    private static final byte TYPE_LIST = 6;
+    private static final byte TYPE_MAP = 7;
+    private static final byte TYPE_SECTION = 8;
+
+    private QuestCache() { }
+
+    /**
+     * A cached quest file.
+     *
+     * @param hash the content hash of the source file
+     * @param compiled the compiled file, see {@link #compile(List, ConfigurationSection)}
+     */
+    public record Entry(@NotNull String hash, @NotNull byte[] compiled) { }
+
+    /**
+     * A decompiled quest file.
+     *
+     * @param problems the problems found while validating the file
+     * @param config the parsed configuration, or null if the file is not valid YAML
+     */
+    public record CompiledQuestFile(@NotNull List<ConfigProblem> problems, @Nullable YamlConfiguration config) { }
+
+    /**
+     * Compile a parsed and validated quest file.
+     *
+     * @param problems the problems found while validating the file
+     * @param config the parsed configuration, or null if the file is not valid YAML
+     * @return the compiled file, or null if the configuration contains values which cannot be compiled
+     */
+    public static @Nullable byte[] compile(@NotNull List<ConfigProblem> problems, @Nullable ConfigurationSection config) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(problems.size());
+            for (ConfigProblem problem : problems) {
+                out.writeByte(problem.getType().ordinal());
+                writeString(out, problem.getDescription());
+                writeNullableString(out, problem.getExtendedDescription());
+                writeString(out, problem.getLocation());
+            }
+
+            out.writeBoolean(config != null);
+            if (config != null && !writeSection(out, config)) {
+                return null;
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // not thrown by a byte array stream
+            return null;
+        }
+    }
+
+    /**
+     * Decompile a quest file compiled by {@link #compile(List, ConfigurationSection)}.
+     *
+     * @param compiled the compiled file
+     * @return the decompiled file
+     * @throws IllegalArgumentException if the compiled file is malformed
+     */
+    public static @NotNull CompiledQuestFile decompile(@NotNull byte[] compiled) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(compiled);
+            int problemCount = buffer.getInt();
+            List<ConfigProblem> problems = new ArrayList<>(problemCount);
+            for (int i = 0; i < problemCount; i++) {
+                ConfigProblem.ConfigProblemType type = ConfigProblem.ConfigProblemType.values()[buffer.get()];
+                String description = readString(buffer);
+                String extendedDescription = readNullableString(buffer);
+                String location = readString(buffer);
+                problems.add(new ConfigProblem(type, description, extendedDescription, location));
+            }
+
+            YamlConfiguration config = null;
+            if (buffer.get() != 0) {
+                config = new YamlConfiguration();
+                readSection(buffer, config);
+            }
+            return new CompiledQuestFile(problems, config);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Malformed compiled quest file", e);
+        }
+    }
+
+    /**
+     * Read the cache by memory mapping it.
+     *
+     * @param path the cache file
+     * @param key the key describing everything the compiled files depend on, such as the plugin version and
+     *            the hash of the main config; if it differs from the key the cache was written with, the cache
+     *            is not read
+     * @return map of quest file paths, relative to the quests directory, to their entries; empty if the cache
+     * does not exist, is stale or is corrupt
+     */
+    public static @NotNull Map<String, Entry> read(@NotNull Path path, @NotNull String key) {
+        if (!Files.isRegularFile(path)) {
+            return Collections.emptyMap();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 9 || size > Integer.MAX_VALUE) {
+                return Collections.emptyMap();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().limit((int) size - 4));
+            if ((int) crc.getValue() != buffer.getInt((int) size - 4)) {
+                return Collections.emptyMap();
+            }
+
+            if (buffer.getInt() != MAGIC || buffer.get() != FORMAT_VERSION || !key.equals(readString(buffer))) {
+                return Collections.emptyMap();
+            }
+
+            int count = buffer.getInt();
+            Map<String, Entry> entries = new HashMap<>(Math.max(16, count * 2));
+            for (int i = 0; i < count; i++) {
+                String file = readString(buffer);
+                String hash = readString(buffer);
+                byte[] compiled = new byte[buffer.getInt()];
+                buffer.get(compiled);
+                entries.put(file, new Entry(hash, compiled));
+            }
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Write the compiled files of a manifest to the cache. The cache is written to a temporary file which is
+     * then atomically moved over the previous cache, and files without a compiled form are left out.
+     *
+     * @param path the cache file
+     * @param key the key describing everything the compiled files depend on, see {@link #read(Path, String)}
+     * @param manifest the manifest
+     * @throws IOException if the cache could not be written
+     */
+    public static synchronized void write(@NotNull Path path, @NotNull String key, @NotNull QuestManifest manifest) throws IOException {
+        Map<String, QuestManifest.Entry> files = new LinkedHashMap<>();
+        for (Map.Entry<String, QuestManifest.Entry> file : manifest.files().entrySet()) {
+            if (file.getValue().compiled() != null) {
+                files.put(file.getKey(), file.getValue());
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        writeString(out, key);
+        out.writeInt(files.size());
+        for (Map.Entry<String, QuestManifest.Entry> file : files.entrySet()) {
+            byte[] compiled = file.getValue().compiled();
+            writeString(out, file.getKey());
+            writeString(out, file.getValue().hash());
+            out.writeInt(compiled.length);
+            out.write(compiled);
+        }
+        out.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static boolean writeSection(DataOutputStream out, ConfigurationSection section) throws IOException {
+        List<String> keys = new ArrayList<>(section.getKeys(false));
+        out.writeInt(keys.size());
+        for (String key : keys) {
+            writeString(out, key);
+            Object value = section.get(key);
+            if (value instanceof ConfigurationSection child) {
+                out.writeByte(TYPE_SECTION);
+                if (!writeSection(out, child)) {
+                    return false;
+                }
+            } else if (!writeValue(out, value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String s) {
+            out.writeByte(TYPE_STRING);
+            writeString(out, s);
+        } else if (value instanceof Integer i) {
+            out.writeByte(TYPE_INT);
+            out.writeInt(i);
+        } else if (value instanceof Long l) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong(l);
+        } else if (value instanceof Double d) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean(b);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(TYPE_LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                if (!writeValue(out, element)) {
+                    return false;
+                }
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            // maps only remain as such within lists, elsewhere they are turned into sections
+            out.writeByte(TYPE_MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String key)) {
+                    return false;
+                }
+                writeString(out, key);
+                if (!writeValue(out, entry.getValue())) {
+                    return false;
+                }
+            }
+        } else {
+            // e.g. dates or serialized objects, which are left for the YAML parser
+            return false;
+        }
+        return true;
+    }
+
+    private static void readSection(ByteBuffer buffer, ConfigurationSection section) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            String key = readString(buffer);
+            byte type = buffer.get();
+            if (type == TYPE_SECTION) {
+                readSection(buffer, section.createSection(key));
+            } else {
+                section.set(key, readValue(buffer, type));
+            }
+        }
+    }
+
+    private static Object readValue(ByteBuffer buffer, byte type) {
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_STRING -> readString(buffer);
+            case TYPE_INT -> buffer.getInt();
+            case TYPE_LONG -> buffer.getLong();
+            case TYPE_DOUBLE -> buffer.getDouble();
+            case TYPE_BOOLEAN -> buffer.get() != 0;
+            case TYPE_LIST -> {
+                int size = buffer.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buffer, buffer.get()));
+                }
+                yield list;
+            }
+            case TYPE_MAP -> {
+                int size = buffer.getInt();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String key = readString(buffer);
+                    map.put(key, readValue(buffer, buffer.get()));
+                }
+                yield map;
+            }
+            default -> throw new IllegalArgumentException("Unknown value type " + type);
+        };
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        // unlike writeUTF, not limited to 64 KiB
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            writeString(out, s);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readNullableString(ByteBuffer buffer) {
+        return buffer.get() != 0 ? readString(buffer) : null;
+    }
+}
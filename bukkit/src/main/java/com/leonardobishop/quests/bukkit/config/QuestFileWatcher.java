@@ -0,0 +1,265 @@
+package com.leonardobishop.quests.bukkit.config;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.util.CommandUtils;
+import com.leonardobishop.quests.common.config.ConfigProblem;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches the quests and items directories and the categories file, and reloads quests once they have
+ * changed. Bursts of changes are debounced, so that the quests are only reloaded once the files have not
+ * changed for a while. Changed quest files are read, parsed and validated on the watcher thread, and only
+ * registered on the main thread. Changes to the categories or quest items require every quest to be reloaded,
+ * which is done on the main thread like {@code /quests admin reload}. The main config is not watched, but is
+ * reloaded the same way if it has changed by the time any watched file changes.
+ * <p>
+ * The problems found in the reloaded files are reported to online players with the admin permission.
+ */
+public class QuestFileWatcher {
+
+    private final BukkitQuestsPlugin plugin;
+    private final Path dataFolder;
+    private final Path questsRoot;
+    private final Path itemsRoot;
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    // separate from the monitor of this watcher, so that configuring it does not wait for quests to be prepared
+    private final Object reloadLock = new Object();
+    private WatchService watchService;
+    private Thread thread;
+    private long debounce;
+
+    public QuestFileWatcher(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+        this.dataFolder = plugin.getDataFolder().toPath();
+        this.questsRoot = dataFolder.resolve("quests");
+        this.itemsRoot = dataFolder.resolve("items");
+    }
+
+    /**
+     * Apply the watcher settings from the config, starting or stopping the watcher as needed.
+     */
+    public synchronized void configure() {
+        boolean enabled = plugin.getQuestsConfig().getBoolean("options.auto-reload.enabled", false);
+        long debounce = Math.max(0, plugin.getQuestsConfig().getInt("options.auto-reload.debounce", 1000));
+        if (enabled && (thread == null || debounce != this.debounce)) {
+            this.stop();
+            this.debounce = debounce;
+            this.start();
+        } else if (!enabled) {
+            this.stop();
+        }
+    }
+
+    /**
+     * Stop watching for changes.
+     */
+    public synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+
+        try {
+            watchService.close();
+        } catch (IOException ignored) { }
+        thread.interrupt();
+        directories.clear();
+        watchService = null;
+        thread = null;
+    }
+
+    private void start() {
+        try {
+            watchService = dataFolder.getFileSystem().newWatchService();
+            register(dataFolder);
+            registerAll(questsRoot);
+            registerAll(itemsRoot);
+        } catch (IOException | UncheckedIOException e) {
+            plugin.getQuestsLogger().warning("Failed to watch the quest files for changes, automatic reloading is disabled: " + e.getMessage());
+            try {
+                if (watchService != null) watchService.close();
+            } catch (IOException ignored) { }
+            watchService = null;
+            directories.clear();
+            return;
+        }
+
+        WatchService watchService = this.watchService;
+        long debounce = this.debounce;
+        thread = new Thread(() -> watch(watchService, debounce), "Quests File Watcher");
+        thread.setDaemon(true);
+        thread.start();
+        plugin.getQuestsLogger().debug("Watching quest files for changes.");
+    }
+
+    private void register(Path directory) throws IOException {
+        WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        directories.put(key, directory);
+    }
+
+    private void registerAll(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        List<Path> subdirectories;
+        try (Stream<Path> stream = Files.walk(root)) {
+            subdirectories = stream.filter(Files::isDirectory).toList();
+        }
+        for (Path directory : subdirectories) {
+            register(directory);
+        }
+    }
+
+    private void watch(WatchService watchService, long debounce) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean changed = poll(watchService.take());
+                // wait until nothing has changed for the debounce time, so that a burst of changes is reloaded once
+                WatchKey key;
+                while ((key = watchService.poll(debounce, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= poll(key);
+                }
+                if (changed) {
+                    this.reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // stopped
+        }
+    }
+
+    private boolean poll(WatchKey key) {
+        Path directory = directories.get(key);
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (directory == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+            if (directory.equals(dataFolder)) {
+                // of the data folder, only the categories and newly created quests or items directories are relevant
+                String name = path.getFileName().toString();
+                if (name.equals("categories.yml")) {
+                    changed = true;
+                } else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && (path.equals(questsRoot) || path.equals(itemsRoot))) {
+                    changed |= this.registerCreated(path);
+                }
+                continue;
+            }
+
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                changed |= this.registerCreated(path);
+            } else if (Files.isDirectory(path) || path.getFileName().toString().toLowerCase().endsWith(".yml")) {
+                changed = true;
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                // a deleted directory can no longer be told apart from a file
+                changed = true;
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+        return changed;
+    }
+
+    private boolean registerCreated(Path directory) {
+        try {
+            synchronized (this) {
+                if (watchService == null) {
+                    return false;
+                }
+                this.registerAll(directory);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            plugin.getQuestsLogger().debug("Failed to watch directory " + directory + ": " + e.getMessage());
+        }
+        // files may have been moved in along with the directory
+        return true;
+    }
+
+    private void reload() {
+        synchronized (reloadLock) {
+            this.prepareAndApply();
+        }
+    }
+
+    private void prepareAndApply() {
+        BukkitQuestsLoader questsLoader = new BukkitQuestsLoader(plugin);
+        String dependencyHash = questsLoader.hashDependencies(itemsRoot.toFile());
+        QuestManifest previous = plugin.getQuestManifest();
+        if (previous == null || dependencyHash == null || !dependencyHash.equals(previous.dependencyHash())) {
+            plugin.getScheduler().runTask(() -> {
+                plugin.getQuestsLogger().info("The main config, categories or quest items have changed, reloading all quests.");
+                plugin.reloadQuests();
+                this.report("Quests automatically reloaded all quests.", plugin.getConfigProblems().keySet());
+            });
+            return;
+        }
+
+        BukkitQuestsLoader.PreparedQuests prepared = questsLoader.prepareQuests(questsRoot.toFile(), previous, Collections.emptyMap());
+        plugin.getScheduler().runTask(() -> {
+            if (plugin.getQuestManifest() != previous) {
+                // quests were reloaded while these were prepared, so they may be based on outdated files
+                plugin.getScheduler().doAsync(this::reload);
+                return;
+            }
+
+            plugin.applyQuests(questsLoader, prepared, dependencyHash);
+            Set<String> reloadedFiles = questsLoader.getReloadedFiles();
+            if (!reloadedFiles.isEmpty()) {
+                this.report("Quests automatically reloaded " + reloadedFiles.size() + " changed quest files.", reloadedFiles);
+            }
+        });
+    }
+
+    private void report(String message, Set<String> reloadedFiles) {
+        // only the problems of reloaded files are reported, others have been reported before
+        Map<String, List<ConfigProblem>> problems = new HashMap<>();
+        for (String file : reloadedFiles) {
+            List<ConfigProblem> fileProblems = plugin.getConfigProblems().get(file);
+            if (fileProblems != null && !fileProblems.isEmpty()) {
+                problems.put(file, fileProblems);
+            }
+        }
+
+        plugin.getQuestsLogger().info(message);
+        if (!problems.isEmpty()) {
+            plugin.getQuestsLogger().warning(problems.size() + " reloaded files have configuration issues. You can view these issues with the command: /q a config.");
+        }
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (!player.hasPermission("quests.admin")) {
+                continue;
+            }
+            player.sendMessage(ChatColor.GRAY + message);
+            if (!problems.isEmpty()) {
+                CommandUtils.showProblems(player, problems);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.leonardobishop.quests.bukkit.config;
+
+import com.leonardobishop.quests.common.config.ConfigProblem;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The content hashes of the files quests were last loaded from, used to only reload the quest files which
+ * have changed since.
+ *
+ * @param dependencyHash the combined hash of everything quests are built from besides their own file, such as
+ *                       the main config (including global macros), categories and quest items
+ * @param files map of quest file paths, relative to the quests directory, to their entries
+ */
+public record QuestManifest(@NotNull String dependencyHash, @NotNull Map<String, Entry> files) {
+
+    /**
+     * @param hash the content hash of the quest file
+     * @param questId the id of the quest registered from the file, or null if none was registered
+     * @param problems the problems found in the file itself, excluding those depending on other quests
+     * @param compiled the file compiled for the {@link QuestCache}, or null if it could not be compiled
+     */
+    public record Entry(@NotNull String hash, @Nullable String questId, @NotNull List<ConfigProblem> problems,
+                        @Nullable byte[] compiled) { }
+
+    /**
+     * Hash some file contents.
+     *
+     * @param data the contents
+     * @return the hash as a hex string
+     */
+    public static @NotNull String hash(byte[] data) {
+        return HexFormat.of().formatHex(newDigest().digest(data));
+    }
+
+    /**
+     * Hash the contents of several files and directories together. Directories are hashed recursively, and
+     * files which do not exist are skipped.
+     *
+     * @param files the files and directories
+     * @return the hash as a hex string
+     * @throws IOException if a file could not be read
+     */
+    public static @NotNull String hashAll(File... files) throws IOException {
+        MessageDigest digest = newDigest();
+        for (File file : files) {
+            if (!file.exists()) {
+                continue;
+            }
+
+            List<Path> paths;
+            try (Stream<Path> stream = Files.walk(file.toPath())) {
+                paths = stream.filter(Files::isRegularFile).sorted().toList();
+            }
+            for (Path path : paths) {
+                // the path is included so that renaming or moving a file changes the hash
+                digest.update(path.toString().getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(path));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -153,34 +153,34 @@ public class QuestsPlaceholders extends PlaceholderExpansion implements Cacheabl
                         switch (args[1].toLowerCase()) {
                             case "started":
                             case "s":
-                                result = (qPlayer.getQuestProgressFile().getQuestProgress(quest).isStarted() ? Messages.PLACEHOLDERAPI_TRUE.getMessageLegacyColor() : Messages.PLACEHOLDERAPI_FALSE.getMessageLegacyColor());
+                                result = (qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest).isStarted() ? Messages.PLACEHOLDERAPI_TRUE.getMessageLegacyColor() : Messages.PLACEHOLDERAPI_FALSE.getMessageLegacyColor());
                                 break;
                             case "starteddate":
                             case "sd":
-                                if (qPlayer.getQuestProgressFile().getQuestProgress(quest).isStarted()) {
-                                    result = parseDate(args, qPlayer.getQuestProgressFile().getQuestProgress(quest).getStartedDate());
+                                if (qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest).isStarted()) {
+                                    result = parseDate(args, qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest).getStartedDate());
                                 } else {
                                     result = "Never";
                                 }
                                 break;
                             case "completed":
                             case "c":
-                                result = (qPlayer.getQuestProgressFile().getQuestProgress(quest).isCompleted() ? Messages.PLACEHOLDERAPI_TRUE.getMessageLegacyColor() : Messages.PLACEHOLDERAPI_FALSE.getMessageLegacyColor());
+                                result = (qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest).isCompleted() ? Messages.PLACEHOLDERAPI_TRUE.getMessageLegacyColor() : Messages.PLACEHOLDERAPI_FALSE.getMessageLegacyColor());
                                 break;
                             case "completedbefore":
                             case "cb":
-                                result = (qPlayer.getQuestProgressFile().getQuestProgress(quest).isCompletedBefore() ? Messages.PLACEHOLDERAPI_TRUE.getMessageLegacyColor() : Messages.PLACEHOLDERAPI_FALSE.getMessageLegacyColor());
+                                result = (qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest).isCompletedBefore() ? Messages.PLACEHOLDERAPI_TRUE.getMessageLegacyColor() : Messages.PLACEHOLDERAPI_FALSE.getMessageLegacyColor());
                                 break;
                             case "completiondate":
                             case "cd":
-                                if (qPlayer.getQuestProgressFile().getQuestProgress(quest).isCompleted()) {
-                                    result = parseDate(args, qPlayer.getQuestProgressFile().getQuestProgress(quest).getCompletionDate());
+                                if (qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest).isCompleted()) {
+                                    result = parseDate(args, qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest).getCompletionDate());
                                 } else {
                                     result = "Never";
                                 }
                                 break;
                             case "cooldown":
-                                if (qPlayer.getQuestProgressFile().getQuestProgress(quest).isCompleted()) {
+                                if (qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest).isCompleted()) {
                                     final String time = Format.formatTime(TimeUnit.SECONDS.convert(qPlayer.getQuestProgressFile().getCooldownFor(quest), TimeUnit.MILLISECONDS));
                                     if (!time.startsWith("-")) result = time;
                                 } else {
@@ -210,17 +210,17 @@ public class QuestsPlaceholders extends PlaceholderExpansion implements Cacheabl
                                     if (t.length == 1) return "Please specify task name";
 
                                     if (args.length == 2) {
-                                        result = qPlayer.getQuestProgressFile().getQuestProgress(quest).getTaskProgress(t[1]).getTaskId();
+                                        result = qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest).getTaskProgress(t[1]).getTaskId();
                                     } else {
                                         switch (args[2].toLowerCase()) {
                                             case "progress":
                                             case "p":
-                                                final Object progress = qPlayer.getQuestProgressFile().getQuestProgress(quest).getTaskProgress(t[1]).getProgress();
+                                                final Object progress = qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest).getTaskProgress(t[1]).getProgress();
                                                 result = (progress == null ? "0" : String.valueOf(progress));
                                                 break;
                                             case "completed":
                                             case "c":
-                                                result = String.valueOf(qPlayer.getQuestProgressFile().getQuestProgress(quest).getTaskProgress(t[1]).isCompleted() ? Messages.PLACEHOLDERAPI_TRUE.getMessageLegacyColor() : Messages.PLACEHOLDERAPI_FALSE.getMessageLegacyColor());
+                                                result = String.valueOf(qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest).getTaskProgress(t[1]).isCompleted() ? Messages.PLACEHOLDERAPI_TRUE.getMessageLegacyColor() : Messages.PLACEHOLDERAPI_FALSE.getMessageLegacyColor());
                                                 break;
                                             default:
                                                 return args[0] + "_" + args[1] + "_" + args[2] + " is not a valid placeholder";
@@ -233,7 +233,7 @@ public class QuestsPlaceholders extends PlaceholderExpansion implements Cacheabl
                                     if (placeholder == null) {
                                         return t[1] + " is not a valid placeholder within quest " + quest.getId();
                                     }
-                                    placeholder = QItemStack.processPlaceholders(Chat.legacyColor(placeholder), qPlayer.getQuestProgressFile().getQuestProgress(quest));
+                                    placeholder = QItemStack.processPlaceholders(Chat.legacyColor(placeholder), qPlayer.getQuestProgressFile().getQuestProgressOrDefault(quest));
                                     return placeholder;
                                 } else {
                                     return args[0] + "_" + args[1] + " is not a valid placeholder";
@@ -339,15 +339,15 @@ public class QuestsPlaceholders extends PlaceholderExpansion implements Cacheabl
             if (quest != null) {
                 switch (filter) {
                     case STARTED:
-                        if (questP.getQuestProgressFile().getQuestProgress(quest).isStarted())
+                        if (questP.getQuestProgressFile().getQuestProgressOrDefault(quest).isStarted())
                             categoryQuests.add(quest);
                         break;
                     case COMPLETED:
-                        if (questP.getQuestProgressFile().getQuestProgress(quest).isCompleted())
+                        if (questP.getQuestProgressFile().getQuestProgressOrDefault(quest).isCompleted())
                             categoryQuests.add(quest);
                         break;
                     case COMPLETED_BEFORE:
-                        if (questP.getQuestProgressFile().getQuestProgress(quest).isCompletedBefore())
+                        if (questP.getQuestProgressFile().getQuestProgressOrDefault(quest).isCompletedBefore())
                             categoryQuests.add(quest);
                         break;
                     default:
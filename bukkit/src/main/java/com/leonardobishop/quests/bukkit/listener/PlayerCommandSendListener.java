@@ -0,0 +1,26 @@
+package com.leonardobishop.quests.bukkit.listener;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+
+/**
+ * The command list of a player is resent whenever their permissions are recalculated, which is the closest
+ * thing to a permission change event Bukkit offers. Only registered on 1.13+.
+ */
+public class PlayerCommandSendListener implements Listener {
+
+    private final BukkitQuestsPlugin plugin;
+
+    public PlayerCommandSendListener(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEvent(PlayerCommandSendEvent event) {
+        PlayerPermissionListener.invalidate(plugin, event.getPlayer().getUniqueId());
+    }
+
+}
@@ -32,10 +32,16 @@ public class PlayerJoinListener implements Listener {
 
         final Player player = event.getPlayer();
         plugin.getQuestsLogger().debug("PlayerJoinListener: " + player.getUniqueId() + " (" + player.getName() + ")");
+        // progress made before the player has loaded is buffered and replayed afterwards
+        plugin.getEarlyProgressBuffer().open(player.getUniqueId());
         plugin.getScheduler().runTaskLater(() -> {
             if (!player.isOnline()) return;
             plugin.getPlayerManager().loadPlayer(player.getUniqueId()).thenAccept(qPlayer -> {
-                if (qPlayer == null) return;
+                if (qPlayer == null) {
+                    plugin.getEarlyProgressBuffer().discard(player.getUniqueId());
+                    return;
+                }
+                plugin.getScheduler().runTaskAtEntity(player, () -> plugin.getEarlyProgressBuffer().replay(player));
                 plugin.getScheduler().doSync(() -> {
                     // run a full check to check for any missed quest completions
                     plugin.getQuestCompleter().queueFullCheck(qPlayer.getQuestProgressFile());
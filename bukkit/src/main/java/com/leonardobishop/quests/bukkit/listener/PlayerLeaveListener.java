@@ -17,6 +17,9 @@ public class PlayerLeaveListener implements Listener {
 
     @EventHandler
     public void onEvent(PlayerQuitEvent event) {
+        plugin.getEarlyProgressBuffer().discard(event.getPlayer().getUniqueId());
+        plugin.getProgressNotifier().discard(event.getPlayer().getUniqueId());
+        plugin.getQuestMenuItemCache().discard(event.getPlayer().getUniqueId());
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(event.getPlayer().getUniqueId());
         if (qPlayer == null) return;
         Player player = event.getPlayer();
@@ -0,0 +1,36 @@
+package com.leonardobishop.quests.bukkit.listener;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.common.player.QPlayer;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+
+import java.util.UUID;
+
+/**
+ * Discards the cached quest start results of players whose permissions may have changed.
+ */
+public class PlayerPermissionListener implements Listener {
+
+    private final BukkitQuestsPlugin plugin;
+
+    public PlayerPermissionListener(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    // permission plugins may grant different permissions per world
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEvent(PlayerChangedWorldEvent event) {
+        invalidate(plugin, event.getPlayer().getUniqueId());
+    }
+
+    static void invalidate(BukkitQuestsPlugin plugin, UUID uuid) {
+        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(uuid);
+        if (qPlayer == null) return;
+        qPlayer.getQuestStartCache().invalidate();
+        qPlayer.getActiveTaskCache().invalidate();
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.leonardobishop.quests.bukkit.listener;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.common.player.QPlayer;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Starts loading the quest progress of players while they are logging in, so that it is usually ready by the
+ * time they join. The load is picked up by {@link PlayerJoinListener}.
+ */
+public class PlayerPreLoginListener implements Listener {
+
+    // prefetched players who have not joined by then (e.g. because another plugin denied the login) are discarded
+    private static final long PREFETCH_EXPIRY = 1200L;
+
+    private final BukkitQuestsPlugin plugin;
+
+    public PlayerPreLoginListener(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEvent(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        if (!plugin.getQuestsConfig().getBoolean("options.storage.synchronisation.prefetch", true)) return;
+        // delayed loading gives other servers time to save the player, which prefetching would defeat
+        if (plugin.getQuestsConfig().getInt("options.storage.synchronisation.delay-loading", 0) > 0) return;
+
+        UUID uuid = event.getUniqueId();
+        plugin.getQuestsLogger().debug("PlayerPreLoginListener: " + uuid + " (" + event.getName() + ")");
+        CompletableFuture<QPlayer> future = plugin.getPlayerManager().prefetchPlayer(uuid);
+        plugin.getScheduler().runTaskLaterAsynchronously(() -> {
+            if (Bukkit.getPlayer(uuid) == null) {
+                plugin.getPlayerManager().discardPrefetchedPlayer(uuid);
+            }
+        }, PREFETCH_EXPIRY);
+
+        // this thread only holds up the login of this player, so it may wait for the load to finish
+        int timeout = plugin.getQuestsConfig().getInt("options.storage.synchronisation.prefetch-login-timeout", 2000);
+        if (timeout > 0) {
+            try {
+                future.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                plugin.getQuestsLogger().debug("Player " + uuid + " did not load within " + timeout + "ms, continuing login.");
+            } catch (InterruptedException | ExecutionException ignored) { }
+        }
+    }
+
+}
@@ -36,7 +36,7 @@ public class QuestQMenu extends PaginatedQMenu {
         List<MenuElement> filteredQuests = new ArrayList<>();
         for (Quest quest : quests) {
             if (config.getBoolean("options.gui-hide-locked")) {
-                QuestProgress questProgress = owner.getQuestProgressFile().getQuestProgress(quest);
+                QuestProgress questProgress = owner.getQuestProgressFile().getQuestProgressOrDefault(quest);
                 long cooldown = owner.getQuestProgressFile().getCooldownFor(quest);
                 if (!owner.getQuestProgressFile().hasMetRequirements(quest) || (!quest.isRepeatable() && questProgress.isCompletedBefore()) || cooldown > 0) {
                     continue;
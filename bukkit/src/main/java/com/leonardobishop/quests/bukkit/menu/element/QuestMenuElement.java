@@ -6,6 +6,7 @@ import com.leonardobishop.quests.bukkit.menu.CancelQMenu;
 import com.leonardobishop.quests.bukkit.menu.ClickResult;
 import com.leonardobishop.quests.bukkit.menu.QMenu;
 import com.leonardobishop.quests.bukkit.menu.itemstack.QItemStack;
+import com.leonardobishop.quests.bukkit.menu.itemstack.QuestMenuItemCache;
 import com.leonardobishop.quests.bukkit.util.Format;
 import com.leonardobishop.quests.bukkit.util.MenuUtils;
 import com.leonardobishop.quests.bukkit.util.Messages;
@@ -14,10 +15,12 @@ import com.leonardobishop.quests.common.enums.QuestStartResult;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.RequirementGraph;
 import org.bukkit.event.inventory.ClickType;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -67,20 +70,31 @@ public class QuestMenuElement extends MenuElement {
 
     @Override
     public ItemStack asItemStack() {
-        QuestProgress questProgress = owner.getQuestProgressFile().getQuestProgress(quest);
+        QuestProgress questProgress = owner.getQuestProgressFile().getQuestProgressOrDefault(quest);
         QuestStartResult status = owner.canStartQuest(quest);
         long cooldown = owner.getQuestProgressFile().getCooldownFor(quest);
+        boolean tracked = quest.getId().equals(owner.getPlayerPreferences().getTrackedQuestId());
+        // only locked items show the progress of other quests, through their requirements
+        int stateVersion = status == QuestStartResult.QUEST_LOCKED ? owner.getQuestProgressFile().getStateVersion() : 0;
+        boolean timeDependent = cooldown > 0 || quest.isTimeLimitEnabled() || config.getBoolean("options.gui-use-placeholderapi");
+
+        QuestMenuItemCache.Key key = new QuestMenuItemCache.Key(status, questProgress, questProgress.getVersion(), stateVersion, tracked, cooldown > 0);
+        return plugin.getQuestMenuItemCache().getItemStack(owner.getPlayerUUID(), quest, key, timeDependent,
+                () -> this.render(questProgress, status, cooldown));
+    }
+
+    private ItemStack render(QuestProgress questProgress, QuestStartResult status, long cooldown) {
         QItemStack qItemStack = plugin.getQItemStackRegistry().getQuestItemStack(quest);
 
         Map<String, String> placeholders = new HashMap<>();
         ItemStack display;
         if (status == QuestStartResult.QUEST_LOCKED) {
             List<String> quests = new ArrayList<>();
-            for (String requirement : quest.getRequirements()) {
-                Quest requirementQuest = plugin.getQuestManager().getQuestById(requirement);
-                if (requirementQuest == null) continue;
+            RequirementGraph requirementGraph = plugin.getQuestManager().getRequirementGraph();
+            List<Quest> requirements = requirementGraph.contains(quest) ? requirementGraph.getRequirements(quest) : Collections.emptyList();
+            for (Quest requirementQuest : requirements) {
                 if (!owner.getQuestProgressFile().hasQuestProgress(requirementQuest) ||
-                        !owner.getQuestProgressFile().getQuestProgress(requirementQuest).isCompletedBefore()) {
+                        !owner.getQuestProgressFile().getQuestProgressOrDefault(requirementQuest).isCompletedBefore()) {
                     quests.add(Chat.legacyStrip(plugin.getQItemStackRegistry().getQuestItemStack(requirementQuest).getName()));
                 }
             }
@@ -131,7 +131,7 @@ public class QItemStack {
         return is;
     }
 
-    private static final Pattern taskPlaceholderPattern = Pattern.compile("\\{([^}]+):(progress|complete|id)}");
+    public static final Pattern taskPlaceholderPattern = Pattern.compile("\\{([^}]+):(progress|complete|id)}");
 
     public static String processPlaceholders(String s, QuestProgress questProgress) {
         return processPlaceholders(s, questProgress, null);
@@ -154,38 +154,7 @@ public class QItemStack {
                 continue;
             }
 
-            String placeholderPart = matcher.group(2);
-            String replacement;
-
-            switch (placeholderPart) {
-                // formatted progress placeholders
-                case "progress" -> {
-                    Object progress = matchedTaskProgress.getProgress();
-                    if (progress instanceof Float || progress instanceof Double || progress instanceof BigDecimal) {
-                        replacement = String.format("%.2f", ((Number) progress).floatValue());
-                    } else if (progress != null) {
-                        replacement = String.valueOf(progress);
-                    } else {
-                        replacement = String.valueOf(0);
-                    }
-                }
-
-                // completion placeholders
-                case "complete" -> {
-                    boolean completed = matchedTaskProgress.isCompleted();
-                    if (completed) {
-                        replacement = Messages.UI_PLACEHOLDERS_TRUE.getMessageLegacyColor();
-                    } else {
-                        replacement = Messages.UI_PLACEHOLDERS_FALSE.getMessageLegacyColor();
-                    }
-                }
-
-                // may be particularly useful when using PAPI placeholders in boss bars
-                case "id" -> replacement = matchedTaskProgress.getTaskId();
-
-                // set it to null so we can check if there is need to update the matcher
-                default -> replacement = null;
-            }
+            String replacement = formatTaskPlaceholder(matchedTaskProgress, matcher.group(2));
 
             // update the matcher only if something needs to be replaced
             if (replacement != null) {
@@ -197,6 +166,40 @@ public class QItemStack {
         return s;
     }
 
+    /**
+     * Format a single task placeholder, such as the {@code progress} part of {@code {mining:progress}}.
+     *
+     * @param taskProgress the task progress the placeholder refers to
+     * @param placeholderPart the placeholder, one of {@code progress}, {@code complete} or {@code id}
+     * @return the formatted value, or null if the placeholder is not known
+     */
+    public static String formatTaskPlaceholder(TaskProgress taskProgress, String placeholderPart) {
+        return switch (placeholderPart) {
+            // formatted progress placeholders
+            case "progress" -> {
+                Object progress = taskProgress.getProgress();
+                if (progress instanceof Float || progress instanceof Double || progress instanceof BigDecimal) {
+                    yield String.format("%.2f", ((Number) progress).floatValue());
+                } else if (progress != null) {
+                    yield String.valueOf(progress);
+                } else {
+                    yield String.valueOf(0);
+                }
+            }
+
+            // completion placeholders
+            case "complete" -> taskProgress.isCompleted()
+                    ? Messages.UI_PLACEHOLDERS_TRUE.getMessageLegacyColor()
+                    : Messages.UI_PLACEHOLDERS_FALSE.getMessageLegacyColor();
+
+            // may be particularly useful when using PAPI placeholders in boss bars
+            case "id" -> taskProgress.getTaskId();
+
+            // unknown placeholders are left as they are
+            default -> null;
+        };
+    }
+
     public static String processTimeLeft(String s, Quest quest, QuestProgressFile questProgressFile) {
         String timeLeft;
         if (quest.isTimeLimitEnabled()) {
@@ -65,6 +65,14 @@ public class QItemStackRegistry {
         categoryRegistry.clear();
     }
 
+    public void unregister(Quest quest) {
+        questRegistry.remove(quest.getId());
+        questLockedRegistry.remove(quest.getId());
+        questCompletedRegistry.remove(quest.getId());
+        questCooldownRegistry.remove(quest.getId());
+        questPermissionRegistry.remove(quest.getId());
+    }
+
     public void register(Quest quest, QItemStack qItemStack) {
         questRegistry.put(quest.getId(), qItemStack);
     }
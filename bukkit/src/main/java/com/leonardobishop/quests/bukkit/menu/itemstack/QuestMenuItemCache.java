@@ -0,0 +1,108 @@
+package com.leonardobishop.quests.bukkit.menu.itemstack;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.common.enums.QuestStartResult;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.quest.Quest;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches the rendered menu items of quests per player, so that drawing a menu only renders the items whose
+ * underlying state has changed. Each item is stored along with a {@link Key} describing that state, such as
+ * the version of the quest progress it was rendered from, and is rendered again once the key differs.
+ * <p>
+ * Items which depend on the time, such as those showing a cooldown or the time left to complete a quest, or
+ * on PlaceholderAPI, are rendered again once the configured refresh interval has passed. All items are
+ * discarded when quests are reloaded.
+ */
+public class QuestMenuItemCache {
+
+    private final BukkitQuestsPlugin plugin;
+    private final Map<UUID, Map<Quest, Entry>> entries = new ConcurrentHashMap<>();
+    private volatile long refreshInterval;
+
+    public QuestMenuItemCache(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+        this.configure();
+    }
+
+    /**
+     * Apply the cache settings from the config, and discard all cached items.
+     */
+    public void configure() {
+        // measured in ticks in the config
+        this.refreshInterval = Math.max(0, plugin.getConfig().getLong("options.performance-tweaking.menu-item-refresh-interval", 20)) * 50;
+        this.entries.clear();
+    }
+
+    /**
+     * Get the rendered menu item of a quest, rendering it if the cached item is missing or outdated. The
+     * returned item is shared and must not be modified.
+     *
+     * @param uuid the uuid of the player
+     * @param quest the quest
+     * @param key the state the item is rendered from
+     * @param timeDependent whether the item depends on the time, and must be refreshed periodically
+     * @param renderer the function rendering the item
+     * @return the rendered item
+     */
+    public @NotNull ItemStack getItemStack(@NotNull UUID uuid, @NotNull Quest quest, @NotNull Key key, boolean timeDependent, @NotNull Supplier<ItemStack> renderer) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(quest, "quest cannot be null");
+        Objects.requireNonNull(key, "key cannot be null");
+        Objects.requireNonNull(renderer, "renderer cannot be null");
+
+        Map<Quest, Entry> playerEntries = entries.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>());
+        long now = System.currentTimeMillis();
+        Entry entry = playerEntries.get(quest);
+        if (entry != null && entry.validUntil > now && entry.key.equals(key)) {
+            return entry.itemStack;
+        }
+
+        ItemStack itemStack = renderer.get();
+        playerEntries.put(quest, new Entry(key, itemStack, timeDependent ? now + refreshInterval : Long.MAX_VALUE));
+        return itemStack;
+    }
+
+    /**
+     * Discard the cached items of a player.
+     *
+     * @param uuid the uuid of the player
+     */
+    public void discard(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        entries.remove(uuid);
+    }
+
+    /**
+     * Discard the cached items of all players.
+     */
+    public void invalidate() {
+        entries.clear();
+    }
+
+    /**
+     * The state a menu item is rendered from. Quest progress is compared by identity, as it does not
+     * override equals, so replaced progress is never mistaken for the progress an item was rendered from.
+     *
+     * @param status the result of whether the player can start the quest
+     * @param questProgress the quest progress of the player
+     * @param progressVersion the version of the quest progress, see {@link QuestProgress#getVersion()}
+     * @param stateVersion the state version of the players quest progress file, for items depending on the
+     *                     progress of other quests, otherwise 0
+     * @param tracked whether the player is tracking the quest
+     * @param cooldown whether the quest is on cooldown
+     */
+    public record Key(QuestStartResult status, QuestProgress questProgress, int progressVersion, int stateVersion,
+                      boolean tracked, boolean cooldown) { }
+
+    private record Entry(Key key, ItemStack itemStack, long validUntil) { }
+}
@@ -2,6 +2,7 @@ package com.leonardobishop.quests.bukkit.questcompleter;
 
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.scheduler.folia.FoliaServerScheduler;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
@@ -13,31 +14,94 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 //TODO move complete effects here ?
 public class BukkitQuestCompleter implements QuestCompleter, Runnable {
 
-    private final LinkedList<QuestProgress> completionQueue = new LinkedList<>();
-    private final LinkedList<QuestProgressFile> fullCheckQueue = new LinkedList<>();
-    private final LinkedList<UUID> expiredCheckQueue = new LinkedList<>();
+    // entries are queued by key and coalesced in the pending maps, so that a quest progressed many
+    // times before it is next checked is only checked once
+    private final Queue<CompletionKey> completionQueue = new ConcurrentLinkedQueue<>();
+    private final Map<CompletionKey, PendingCompletion> pendingCompletions = new ConcurrentHashMap<>();
+    private final Queue<UUID> fullCheckQueue = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, QuestProgressFile> pendingFullChecks = new ConcurrentHashMap<>();
+    // time-limited quests are ordered by when they expire, so only the quests which are due are
+    // checked; the map holds the current expiry of each entry so that superseded entries are skipped
+    private final Queue<ScheduledExpiry> expiryQueue = new PriorityBlockingQueue<>();
+    private final Map<CompletionKey, Long> scheduledExpiries = new ConcurrentHashMap<>();
     private final BukkitQuestsPlugin plugin;
 
+    private long timeBudget = TimeUnit.MICROSECONDS.toNanos(2000);
+
+    private final AtomicLong coalesced = new AtomicLong();
+    private long completionChecks;
+    private long fullChecks;
+    private long expiryChecks;
+    private long totalCompletionLatency;
+    private long maxCompletionLatency;
+    private long lastRunTime;
+    private long maxRunTime;
+    private long budgetExhaustedRuns;
+
     public BukkitQuestCompleter(BukkitQuestsPlugin plugin) {
         this.plugin = plugin;
     }
 
+    /**
+     * Set the time each run may spend processing the queues. At least one entry from each queue is
+     * always processed per run, regardless of the budget.
+     *
+     * @param timeBudget the time budget, in microseconds
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = TimeUnit.MICROSECONDS.toNanos(Math.max(0, timeBudget));
+    }
+
     @Override
     public void run() {
-        this.processExpiredCheckQueue();
+        long start = System.nanoTime();
+        long deadline = start + timeBudget;
+        long now = System.currentTimeMillis();
+
+        this.processExpiryQueue(now);
         this.processCompletionQueue();
         this.processFullCheckQueue();
+
+        // completions are what players are waiting on, so they take priority over the other queues
+        boolean exhausted = false;
+        while (!(completionQueue.isEmpty() && fullCheckQueue.isEmpty() && !isExpiryDue(now))) {
+            if (System.nanoTime() >= deadline) {
+                exhausted = true;
+                break;
+            }
+            if (!this.processCompletionQueue() && !this.processFullCheckQueue()) {
+                this.processExpiryQueue(now);
+            }
+        }
+
+        lastRunTime = System.nanoTime() - start;
+        if (lastRunTime > maxRunTime) {
+            maxRunTime = lastRunTime;
+        }
+        if (exhausted) {
+            budgetExhaustedRuns++;
+        }
     }
 
+    /**
+     * Expire every started quest of a player which has run out of time, and schedule the expiry of
+     * every other started time-limited quest.
+     */
     private void checkExpiredQuests(QPlayer qPlayer) {
         QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
         for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
@@ -46,78 +110,136 @@ public class BukkitQuestCompleter implements QuestCompleter, Runnable {
             }
 
             Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
-            if (quest == null) {
+            if (quest == null || !quest.isTimeLimitEnabled()) {
                 continue;
             }
 
             if (questProgressFile.getTimeRemainingFor(quest) == 0) {
                 qPlayer.expireQuest(quest);
+            } else {
+                scheduleExpiry(quest, questProgress);
             }
         }
     }
 
-    private void processExpiredCheckQueue() {
-        UUID who = expiredCheckQueue.poll();
-        if (who == null) {
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                expiredCheckQueue.add(player.getUniqueId());
-            }
-            return;
-        }
+    private boolean isExpiryDue(long now) {
+        ScheduledExpiry next = expiryQueue.peek();
+        return next != null && next.expiresAt() <= now;
+    }
+
+    private boolean processExpiryQueue(long now) {
+        if (!isExpiryDue(now)) return false;
+        ScheduledExpiry expiry = expiryQueue.poll();
+        if (expiry == null) return false;
+        // superseded by a later schedule for the same quest
+        if (!scheduledExpiries.remove(expiry.key(), expiry.expiresAt())) return true;
+        expiryChecks++;
 
-        Player player = Bukkit.getPlayer(who);
-        if (player == null || !player.isOnline()) return;
+        Player player = Bukkit.getPlayer(expiry.key().player());
+        if (player == null || !player.isOnline()) return true;
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
-        if (qPlayer == null) return;
+        if (qPlayer == null) return true;
+
+        Quest quest = plugin.getQuestManager().getQuestById(expiry.key().questId());
+        if (quest == null) return true;
 
-        checkExpiredQuests(qPlayer);
+        runForPlayer(player, () -> {
+            QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
+            if (!questProgressFile.hasQuestProgress(quest)) return;
+
+            long timeRemaining = questProgressFile.getTimeRemainingFor(quest);
+            if (timeRemaining == 0) {
+                qPlayer.expireQuest(quest);
+            } else if (timeRemaining > 0) {
+                // the time limit was extended since this was scheduled
+                scheduleExpiry(quest, questProgressFile.getQuestProgress(quest));
+            }
+        });
+        return true;
     }
 
-    private void processCompletionQueue() {
-        QuestProgress questProgress = completionQueue.poll();
-        if (questProgress == null) return;
+    private boolean processCompletionQueue() {
+        CompletionKey key = completionQueue.poll();
+        if (key == null) return false;
+        PendingCompletion pending = pendingCompletions.remove(key);
+        if (pending == null) return true;
+        completionChecks++;
+
+        long latency = System.nanoTime() - pending.queuedAt();
+        totalCompletionLatency += latency;
+        if (latency > maxCompletionLatency) {
+            maxCompletionLatency = latency;
+        }
 
+        QuestProgress questProgress = pending.questProgress();
         Player player = Bukkit.getPlayer(questProgress.getPlayer());
         if (player != null && player.isOnline()) {
             QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
-            if (qPlayer == null) return;
+            if (qPlayer == null) return true;
 
-            plugin.getQuestsLogger().debug("Processing player (singular: " + questProgress.getQuestId() + ") " + qPlayer.getPlayerUUID());
+            runForPlayer(player, () -> {
+                plugin.getQuestsLogger().debug("Processing player (singular: " + questProgress.getQuestId() + ") " + qPlayer.getPlayerUUID());
 
-            checkExpiredQuests(qPlayer);
+                Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+                if (quest == null) return;
 
-            Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+                if (qPlayer.getQuestProgressFile().getTimeRemainingFor(quest) == 0) {
+                    qPlayer.expireQuest(quest);
+                    return;
+                }
 
-            if (!qPlayer.hasStartedQuest(quest)) return;
+                if (!qPlayer.hasStartedQuest(quest)) return;
 
-            if (checkComplete(quest, questProgress)) {
-                qPlayer.completeQuest(quest);
-            }
+                if (checkComplete(quest, questProgress)) {
+                    qPlayer.completeQuest(quest);
+                }
+            });
         }
+        return true;
     }
 
-    private void processFullCheckQueue() {
-        QuestProgressFile questProgressFile = fullCheckQueue.poll();
-        if (questProgressFile == null) return;
+    private boolean processFullCheckQueue() {
+        UUID who = fullCheckQueue.poll();
+        if (who == null) return false;
+        QuestProgressFile questProgressFile = pendingFullChecks.remove(who);
+        if (questProgressFile == null) return true;
+        fullChecks++;
 
         Player player = Bukkit.getPlayer(questProgressFile.getPlayerUUID());
         if (player != null && player.isOnline()) {
             QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
-            if (qPlayer == null) return;
-            plugin.getQuestsLogger().debug("Processing player (full check) " + qPlayer.getPlayerUUID());
+            if (qPlayer == null) return true;
 
-            checkExpiredQuests(qPlayer);
+            runForPlayer(player, () -> {
+                plugin.getQuestsLogger().debug("Processing player (full check) " + qPlayer.getPlayerUUID());
 
-            for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
-                Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
-                if (quest == null) continue;
-                if (!qPlayer.hasStartedQuest(quest)) continue;
+                checkExpiredQuests(qPlayer);
 
-                if (checkComplete(quest, questProgress)) {
-                    qPlayer.completeQuest(quest);
+                for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+                    Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+                    if (quest == null) continue;
+                    if (!qPlayer.hasStartedQuest(quest)) continue;
+
+                    if (checkComplete(quest, questProgress)) {
+                        qPlayer.completeQuest(quest);
+                    }
                 }
-            }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Run a check for a player on the thread which owns them. On Folia, the completer runs on the
+     * global region thread, but completing or expiring a quest touches the player, which is only
+     * allowed from their region thread; everywhere else the check is run immediately.
+     */
+    private void runForPlayer(Player player, Runnable check) {
+        if (FoliaServerScheduler.FOLIA) {
+            plugin.getScheduler().runTaskAtEntity(player, check);
+        } else {
+            check.run();
         }
     }
 
@@ -125,7 +247,7 @@ public class BukkitQuestCompleter implements QuestCompleter, Runnable {
         boolean complete = true;
         for (Task task : quest.getTasks()) {
             TaskProgress taskProgress;
-            if ((taskProgress = questProgress.getTaskProgress(task.getId())) == null || !taskProgress.isCompleted()) {
+            if ((taskProgress = questProgress.getTaskProgress(task)) == null || !taskProgress.isCompleted()) {
                 complete = false;
                 break;
             }
@@ -138,25 +260,149 @@ public class BukkitQuestCompleter implements QuestCompleter, Runnable {
     public void queueSingular(@NotNull QuestProgress questProgress) {
         Objects.requireNonNull(questProgress, "questProgress cannot be null");
 
-        completionQueue.add(questProgress);
+        CompletionKey key = new CompletionKey(questProgress.getPlayer(), questProgress.getQuestId());
+        boolean[] queued = new boolean[1];
+        pendingCompletions.compute(key, (k, pending) -> {
+            if (pending == null) {
+                queued[0] = true;
+                return new PendingCompletion(questProgress, System.nanoTime());
+            }
+            return new PendingCompletion(questProgress, pending.queuedAt());
+        });
+
+        if (queued[0]) {
+            completionQueue.add(key);
+        } else {
+            coalesced.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void scheduleExpiry(@NotNull Quest quest, @NotNull QuestProgress questProgress) {
+        Objects.requireNonNull(quest, "quest cannot be null");
+        Objects.requireNonNull(questProgress, "questProgress cannot be null");
+
+        if (!quest.isTimeLimitEnabled() || !questProgress.isStarted()) return;
+
+        long expiresAt = questProgress.getStartedDate() + TimeUnit.MINUTES.toMillis(quest.getTimeLimit());
+        CompletionKey key = new CompletionKey(questProgress.getPlayer(), quest.getId());
+        Long previous = scheduledExpiries.put(key, expiresAt);
+        if (previous == null || previous != expiresAt) {
+            expiryQueue.add(new ScheduledExpiry(key, expiresAt));
+        }
+    }
+
+    /**
+     * Schedule the expiry of every started time-limited quest of every online player, for example
+     * after the quests have been reloaded and their time limits may have changed.
+     */
+    public void rescheduleExpiries() {
+        for (QPlayer qPlayer : plugin.getPlayerManager().getQPlayers()) {
+            for (QuestProgress questProgress : qPlayer.getQuestProgressFile().getAllQuestProgress()) {
+                Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+                if (quest != null) {
+                    scheduleExpiry(quest, questProgress);
+                }
+            }
+        }
     }
 
     @Override
     public void queueFullCheck(@NotNull QuestProgressFile questProgressFile) {
         Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
 
-        fullCheckQueue.add(questProgressFile);
+        UUID uuid = questProgressFile.getPlayerUUID();
+        if (pendingFullChecks.put(uuid, questProgressFile) == null) {
+            fullCheckQueue.add(uuid);
+        } else {
+            coalesced.incrementAndGet();
+        }
     }
 
     public List<QuestProgress> getCompletionQueue() {
-        return Collections.unmodifiableList(completionQueue);
+        List<QuestProgress> queue = new ArrayList<>();
+        for (PendingCompletion pending : pendingCompletions.values()) {
+            queue.add(pending.questProgress());
+        }
+        return queue;
     }
 
     public List<QuestProgressFile> getFullCheckQueue() {
-        return Collections.unmodifiableList(fullCheckQueue);
+        return new ArrayList<>(pendingFullChecks.values());
+    }
+
+    /**
+     * Get the number of time-limited quests whose expiry is scheduled.
+     *
+     * @return number of scheduled expiries
+     */
+    public int getScheduledExpiries() {
+        return scheduledExpiries.size();
+    }
+
+    /**
+     * Get the number of queued checks which were merged into a check already in the queue.
+     *
+     * @return number of coalesced checks
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public long getCompletionChecks() {
+        return completionChecks;
+    }
+
+    public long getFullChecks() {
+        return fullChecks;
+    }
+
+    public long getExpiryChecks() {
+        return expiryChecks;
+    }
+
+    /**
+     * Get the average time between a quest being queued and checked for completion.
+     *
+     * @return average latency, in microseconds
+     */
+    public long getAverageCompletionLatency() {
+        return completionChecks == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalCompletionLatency / completionChecks);
+    }
+
+    public long getMaxCompletionLatency() {
+        return TimeUnit.NANOSECONDS.toMicros(maxCompletionLatency);
+    }
+
+    public long getTimeBudget() {
+        return TimeUnit.NANOSECONDS.toMicros(timeBudget);
+    }
+
+    public long getLastRunTime() {
+        return TimeUnit.NANOSECONDS.toMicros(lastRunTime);
+    }
+
+    public long getMaxRunTime() {
+        return TimeUnit.NANOSECONDS.toMicros(maxRunTime);
     }
 
-    public List<UUID> getExpiredCheckQueue() {
-        return Collections.unmodifiableList(expiredCheckQueue);
+    /**
+     * Get the number of runs which stopped processing the queues because the time budget ran out.
+     *
+     * @return number of runs
+     */
+    public long getBudgetExhaustedRuns() {
+        return budgetExhaustedRuns;
+    }
+
+    private record CompletionKey(UUID player, String questId) { }
+
+    private record PendingCompletion(QuestProgress questProgress, long queuedAt) { }
+
+    private record ScheduledExpiry(CompletionKey key, long expiresAt) implements Comparable<ScheduledExpiry> {
+        @Override
+        public int compareTo(@NotNull ScheduledExpiry other) {
+            return Long.compare(expiresAt, other.expiresAt);
+        }
     }
 }
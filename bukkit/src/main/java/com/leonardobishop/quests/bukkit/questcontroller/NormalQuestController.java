@@ -16,8 +16,11 @@ import com.leonardobishop.quests.bukkit.util.SoundUtils;
 import com.leonardobishop.quests.bukkit.util.chat.Chat;
 import com.leonardobishop.quests.common.enums.QuestStartResult;
 import com.leonardobishop.quests.common.player.QPlayer;
+import com.leonardobishop.quests.common.player.QuestStartCache;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.quest.Category;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
 import com.leonardobishop.quests.common.questcontroller.QuestController;
@@ -102,6 +105,7 @@ public class NormalQuestController implements QuestController {
             QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
             questProgress.setStarted(true);
             questProgress.setStartedDate(System.currentTimeMillis());
+            plugin.getQuestCompleter().scheduleExpiry(quest, questProgress);
             for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
                 taskProgress.setCompleted(false);
                 taskProgress.setProgress(null);
@@ -152,44 +156,47 @@ public class NormalQuestController implements QuestController {
 
     @Override
     public QuestStartResult canPlayerStartQuest(QPlayer qPlayer, Quest quest) {
+        QuestStartCache questStartCache = qPlayer.getQuestStartCache();
+        QuestStartResult cachedResult = questStartCache.getResult(quest);
+        if (cachedResult != null) {
+            return cachedResult;
+        }
+
+        // the state version is read first, so a change while computing the result invalidates it
+        QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
+        int stateVersion = questProgressFile.getStateVersion();
+        long now = System.currentTimeMillis();
         Player p = Bukkit.getPlayer(qPlayer.getPlayerUUID());
-        QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+
+        QuestProgress questProgress = questProgressFile.getQuestProgressOrDefault(quest);
+        long cooldown = questProgressFile.getCooldownFor(quest);
+        QuestStartResult result;
+        long validUntil = Long.MAX_VALUE;
+        Category category = quest.getCategoryId() != null ? plugin.getQuestManager().getCategoryById(quest.getCategoryId()) : null;
+        boolean permissionDependent = quest.isPermissionRequired() || (category != null && category.isPermissionRequired());
         if (!quest.isRepeatable() && questProgress.isCompletedBefore()) {
-            //if (playerUUID != null) {
-            // ???
-            //}
-            return QuestStartResult.QUEST_ALREADY_COMPLETED;
-        }
-        long cooldown = qPlayer.getQuestProgressFile().getCooldownFor(quest);
-        if (cooldown > 0) {
-            return QuestStartResult.QUEST_COOLDOWN;
-        }
-        if (!qPlayer.getQuestProgressFile().hasMetRequirements(quest)) {
-            return QuestStartResult.QUEST_LOCKED;
-        }
-        if (quest.isPermissionRequired()) {
-            if (p != null) {
-                if (!p.hasPermission("quests.quest." + quest.getId())) {
-                    return QuestStartResult.QUEST_NO_PERMISSION;
-                }
-            } else {
-                return QuestStartResult.QUEST_NO_PERMISSION;
-            }
-        }
-        if (quest.getCategoryId() != null && plugin.getQuestManager().getCategoryById(quest.getCategoryId()) != null && plugin.getQuestManager()
-                .getCategoryById(quest.getCategoryId()).isPermissionRequired()) {
-            if (p != null) {
-                if (!p.hasPermission("quests.category." + quest.getCategoryId())) {
-                    return QuestStartResult.NO_PERMISSION_FOR_CATEGORY;
+            result = QuestStartResult.QUEST_ALREADY_COMPLETED;
+        } else if (cooldown > 0) {
+            result = QuestStartResult.QUEST_COOLDOWN;
+            validUntil = now + cooldown;
+        } else if (!questProgressFile.hasMetRequirements(quest)) {
+            result = QuestStartResult.QUEST_LOCKED;
+        } else if (quest.isPermissionRequired() && (p == null || !p.hasPermission("quests.quest." + quest.getId()))) {
+            result = QuestStartResult.QUEST_NO_PERMISSION;
+        } else if (category != null && category.isPermissionRequired() && (p == null || !p.hasPermission("quests.category." + quest.getCategoryId()))) {
+            result = QuestStartResult.NO_PERMISSION_FOR_CATEGORY;
+        } else if (questProgress.isStarted() || quest.isAutoStartEnabled() || config.getBoolean("options.quest-autostart")) {
+            result = QuestStartResult.QUEST_ALREADY_STARTED;
+        } else if (quest.doesCountTowardsLimit()) {
+            // the limit may depend on permissions, and on autostart quests whose cooldowns run out
+            permissionDependent = true;
+            for (Quest autoStartQuest : autoStartQuestCache) {
+                long autoStartCooldown = questProgressFile.getCooldownFor(autoStartQuest);
+                if (autoStartCooldown > 0) {
+                    validUntil = Math.min(validUntil, now + autoStartCooldown);
                 }
-            } else {
-                return QuestStartResult.NO_PERMISSION_FOR_CATEGORY;
             }
-        }
-        if (questProgress.isStarted() || quest.isAutoStartEnabled() || config.getBoolean("options.quest-autostart")) {
-            return QuestStartResult.QUEST_ALREADY_STARTED;
-        }
-        if (!config.getBoolean("options.quest-autostart") && quest.doesCountTowardsLimit()) {
+
             Set<Quest> startedQuests = getStartedQuestsForPlayer(qPlayer);
             int questLimitCount = 0;
             for (Quest q : startedQuests) {
@@ -197,11 +204,20 @@ public class NormalQuestController implements QuestController {
                     questLimitCount++;
                 }
             }
-            if (questLimitCount >= config.getQuestLimit(p)) {
-                return QuestStartResult.QUEST_LIMIT_REACHED;
+            result = questLimitCount >= config.getQuestLimit(p) ? QuestStartResult.QUEST_LIMIT_REACHED : QuestStartResult.QUEST_SUCCESS;
+        } else {
+            result = QuestStartResult.QUEST_SUCCESS;
+        }
+
+        // results for offline players are not cached, as permissions cannot be checked
+        if (p != null) {
+            if (permissionDependent) {
+                long refreshInterval = config.getInt("options.performance-tweaking.active-task-cache-refresh-interval", 100) * 50L;
+                validUntil = Math.min(validUntil, now + refreshInterval);
             }
+            questStartCache.putResult(quest, result, stateVersion, validUntil);
         }
-        return QuestStartResult.QUEST_SUCCESS;
+        return result;
     }
 
     @Override
@@ -397,13 +413,20 @@ public class NormalQuestController implements QuestController {
     private void trackNextQuest(QPlayer qPlayer, Quest previousQuest) {
         if (config.getBoolean("options.quest-autotrack")
                 && (previousQuest == null || !(previousQuest.isRepeatable() && !previousQuest.isCooldownEnabled()))) {
-            Quest nextQuest;
-            if (qPlayer.getQuestProgressFile().getStartedQuests().size() > 0) {
+            Quest nextQuest = null;
+            if (previousQuest != null) {
+                // prefer the next quest of a chain, which completing the previous quest has just unlocked
+                for (Quest unlockedQuest : qPlayer.getQuestProgressFile().getQuestsUnlockedBy(previousQuest)) {
+                    if (qPlayer.hasStartedQuest(unlockedQuest)) {
+                        nextQuest = unlockedQuest;
+                        break;
+                    }
+                }
+            }
+            if (nextQuest == null && qPlayer.getQuestProgressFile().getStartedQuests().size() > 0) {
                 nextQuest = qPlayer.getQuestProgressFile().getStartedQuests().get(0);
-                qPlayer.trackQuest(nextQuest);
-            } else {
-                qPlayer.trackQuest(null);
             }
+            qPlayer.trackQuest(nextQuest);
         } else if (!config.getBoolean("options.quest-autotrack")) {
             qPlayer.trackQuest(null);
         }
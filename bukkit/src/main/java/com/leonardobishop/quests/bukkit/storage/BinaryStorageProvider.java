@@ -0,0 +1,531 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Stores player data in a compact binary log per player. Every save appends a record containing only the
+ * modified quest progress, with quest and task ids interned into a dictionary at the start of the record.
+ * Records are checksummed so that a torn write at the end of the log is detected and discarded. Once a log
+ * has accumulated enough records it is compacted in the background into a single record, written to a
+ * temporary file and atomically renamed over the log.
+ */
+public class BinaryStorageProvider implements StorageProvider {
+
+    private static final int MAGIC = 0x51505246; // QPRF
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 5;
+    private static final int RECORD_HEADER_LENGTH = 8;
+    private static final String EXTENSION = ".qdat";
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_DOUBLE = 3;
+    private static final byte TYPE_FLOAT = 4;
+    private static final byte TYPE_BIG_DECIMAL = 5;
+    private static final byte TYPE_STRING = 6;
+    private static final byte TYPE_BOOLEAN = 7;
+
+    private final Map<UUID, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> recordCounts = new ConcurrentHashMap<>();
+    private final Set<UUID> pendingCompactions = ConcurrentHashMap.newKeySet();
+    private final BukkitQuestsPlugin plugin;
+    private File directory;
+    private int compactionThreshold;
+
+    public BinaryStorageProvider(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    private ReentrantLock lock(UUID uuid) {
+        ReentrantLock lock = locks.computeIfAbsent(uuid, k -> new ReentrantLock());
+        lock.lock();
+        return lock;
+    }
+
+    @Override
+    public String getName() {
+        return "binary";
+    }
+
+    @Override
+    public void init() {
+        directory = new File(plugin.getDataFolder() + File.separator + "playerdata");
+        directory.mkdirs();
+        compactionThreshold = Math.max(2, plugin.getQuestsConfig().getInt("options.storage.binary-settings.compaction-threshold", 32));
+    }
+
+    @Override
+    public void shutdown() {
+        // no impl
+    }
+
+    private Path getPath(UUID uuid) {
+        return new File(directory, uuid.toString() + EXTENSION).toPath();
+    }
+
+    @Override
+    public @Nullable QuestProgressFile loadProgressFile(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        Map<String, Quest> presentQuests = new HashMap<>(plugin.getQuestManager().getQuests());
+        boolean validateQuests = plugin.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
+
+        Map<String, QuestEntry> entries;
+        ReentrantLock lock = lock(uuid);
+        try {
+            Path path = getPath(uuid);
+            if (!Files.exists(path)) {
+                plugin.getQuestsLogger().debug("Player " + uuid + " does not have a quest progress file.");
+                return new QuestProgressFile(uuid, plugin);
+            }
+
+            LogContents contents = readLog(path);
+            entries = contents.entries();
+            recordCounts.put(uuid, contents.records());
+            if (contents.truncated()) {
+                plugin.getQuestsLogger().warning("Quest progress file for player " + uuid + " ends with an incomplete record, "
+                        + "which has been discarded. This can happen if the server stopped while saving.");
+                writeCompacted(uuid, path, entries);
+            } else if (contents.records() >= compactionThreshold) {
+                scheduleCompaction(uuid);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+
+        QuestProgressFile questProgressFile = new QuestProgressFile(uuid, plugin);
+        for (Map.Entry<String, QuestEntry> questEntry : entries.entrySet()) {
+            String questId = questEntry.getKey();
+            QuestEntry entry = questEntry.getValue();
+            if (validateQuests && !presentQuests.containsKey(questId)) continue;
+
+            QuestProgress questProgress = new QuestProgress(plugin, questId, entry.completed(), entry.completedBefore(), entry.completionDate(), uuid, entry.started(), entry.startedDate());
+            for (Map.Entry<String, TaskEntry> taskEntry : entry.tasks().entrySet()) {
+                String taskId = taskEntry.getKey();
+                if (validateQuests && presentQuests.get(questId).getTaskById(taskId) == null) continue;
+
+                TaskProgress taskProgress = new TaskProgress(questProgress, taskId, taskEntry.getValue().progress(), uuid, taskEntry.getValue().completed());
+                questProgress.addTaskProgress(taskProgress);
+            }
+            questProgressFile.addQuestProgress(questProgress);
+        }
+
+        return questProgressFile;
+    }
+
+    @Override
+    public boolean saveProgressFile(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        Map<String, QuestEntry> entries = new LinkedHashMap<>();
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            if (!questProgress.isModified()) continue;
+
+            Map<String, TaskEntry> tasks = new LinkedHashMap<>();
+            for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
+                tasks.put(taskProgress.getTaskId(), new TaskEntry(taskProgress.isCompleted(), taskProgress.getProgress()));
+            }
+            entries.put(questProgress.getQuestId(), new QuestEntry(questProgress.isStarted(), questProgress.getStartedDate(),
+                    questProgress.isCompleted(), questProgress.isCompletedBefore(), questProgress.getCompletionDate(), tasks));
+        }
+
+        if (entries.isEmpty()) {
+            return true;
+        }
+
+        ReentrantLock lock = lock(uuid);
+        try {
+            byte[] record = encodeRecord(uuid, entries);
+            Path path = getPath(uuid);
+            if (!Files.exists(path)) {
+                writeAtomically(path, record);
+                recordCounts.put(uuid, 1);
+                return true;
+            }
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long previousSize = channel.size();
+                try {
+                    writeFully(channel, ByteBuffer.wrap(record));
+                    channel.force(false);
+                } catch (IOException e) {
+                    // remove the partly written record, as records appended after it could not be read
+                    try {
+                        channel.truncate(previousSize);
+                    } catch (IOException truncateException) {
+                        e.addSuppressed(truncateException);
+                    }
+                    throw e;
+                }
+            }
+
+            plugin.getQuestsLogger().debug("Appended record for player " + uuid + " to disk.");
+            int records = recordCounts.merge(uuid, 1, Integer::sum);
+            if (records >= compactionThreshold) {
+                scheduleCompaction(uuid);
+            }
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public @NotNull List<QuestProgressFile> loadAllProgressFiles() {
+        List<QuestProgressFile> files = new ArrayList<>();
+        loadAllProgressFiles(files::add);
+        return files;
+    }
+
+    @Override
+    public void loadAllProgressFiles(@NotNull Consumer<QuestProgressFile> consumer) {
+        loadAllProgressFiles(uuid -> true, consumer);
+    }
+
+    @Override
+    public void loadAllProgressFiles(@NotNull Predicate<UUID> filter, @NotNull Consumer<QuestProgressFile> consumer) {
+        Objects.requireNonNull(filter, "filter cannot be null");
+        Objects.requireNonNull(consumer, "consumer cannot be null");
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath(), "*" + EXTENSION)) {
+            for (Path path : stream) {
+                UUID uuid;
+                try {
+                    uuid = UUID.fromString(path.getFileName().toString().replace(EXTENSION, ""));
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                if (!filter.test(uuid)) {
+                    continue;
+                }
+
+                QuestProgressFile file = loadProgressFile(uuid);
+                if (file != null) {
+                    consumer.accept(file);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public int countProgressFiles() {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath(), "*" + EXTENSION)) {
+            for (Path ignored : stream) {
+                count++;
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return count;
+    }
+
+    @Override
+    public void saveAllProgressFiles(List<QuestProgressFile> files) {
+        for (QuestProgressFile file : files) {
+            saveProgressFile(file.getPlayerUUID(), file);
+        }
+    }
+
+    @Override
+    public boolean isSimilar(StorageProvider provider) {
+        return provider instanceof BinaryStorageProvider;
+    }
+
+    private void scheduleCompaction(UUID uuid) {
+        if (!pendingCompactions.add(uuid)) {
+            return;
+        }
+
+        plugin.getScheduler().doAsync(() -> {
+            ReentrantLock lock = lock(uuid);
+            try {
+                Path path = getPath(uuid);
+                if (Files.exists(path)) {
+                    writeCompacted(uuid, path, readLog(path).entries());
+                }
+            } catch (IOException e) {
+                plugin.getQuestsLogger().severe("Failed to compact quest progress file for player " + uuid + "!");
+                e.printStackTrace();
+            } finally {
+                pendingCompactions.remove(uuid);
+                lock.unlock();
+            }
+        });
+    }
+
+    private void writeCompacted(UUID uuid, Path path, Map<String, QuestEntry> entries) throws IOException {
+        // blank progress is not stored, appended blank entries only exist to supersede earlier records
+        entries.values().removeIf(BinaryStorageProvider::isBlank);
+        writeAtomically(path, encodeRecord(uuid, entries));
+        recordCounts.put(uuid, 1);
+        plugin.getQuestsLogger().debug("Compacted quest progress file for player " + uuid + ".");
+    }
+
+    private void writeAtomically(Path path, byte[] record) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(MAGIC);
+            header.put(FORMAT_VERSION);
+            header.flip();
+            writeFully(channel, header);
+            writeFully(channel, ByteBuffer.wrap(record));
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private LogContents readLog(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC) {
+            throw new IOException("File " + path + " is not a quest progress file");
+        }
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("File " + path + " has unsupported format version " + version);
+        }
+
+        Map<String, QuestEntry> entries = new LinkedHashMap<>();
+        int records = 0;
+        boolean truncated = false;
+        CRC32 crc = new CRC32();
+        while (buffer.hasRemaining()) {
+            if (buffer.remaining() < RECORD_HEADER_LENGTH) {
+                truncated = true;
+                break;
+            }
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                truncated = true;
+                break;
+            }
+
+            crc.reset();
+            crc.update(buffer.array(), buffer.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                truncated = true;
+                break;
+            }
+
+            decodeRecord(new DataInputStream(new ByteArrayInputStream(buffer.array(), buffer.position(), length)), entries);
+            buffer.position(buffer.position() + length);
+            records++;
+        }
+
+        return new LogContents(entries, records, truncated);
+    }
+
+    private byte[] encodeRecord(UUID uuid, Map<String, QuestEntry> entries) throws IOException {
+        // intern quest and task ids so each is written once per record
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Map.Entry<String, QuestEntry> questEntry : entries.entrySet()) {
+            dictionary.putIfAbsent(questEntry.getKey(), dictionary.size());
+            for (String taskId : questEntry.getValue().tasks().keySet()) {
+                dictionary.putIfAbsent(taskId, dictionary.size());
+            }
+        }
+
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeInt(dictionary.size());
+        for (String id : dictionary.keySet()) {
+            payload.writeUTF(id);
+        }
+
+        payload.writeInt(entries.size());
+        for (Map.Entry<String, QuestEntry> questEntry : entries.entrySet()) {
+            QuestEntry entry = questEntry.getValue();
+            payload.writeInt(dictionary.get(questEntry.getKey()));
+            payload.writeBoolean(entry.started());
+            payload.writeLong(entry.startedDate());
+            payload.writeBoolean(entry.completed());
+            payload.writeBoolean(entry.completedBefore());
+            payload.writeLong(entry.completionDate());
+
+            List<Map.Entry<String, TaskEntry>> tasks = new ArrayList<>(entry.tasks().size());
+            for (Map.Entry<String, TaskEntry> taskEntry : entry.tasks().entrySet()) {
+                if (isEncodable(taskEntry.getValue().progress())) {
+                    tasks.add(taskEntry);
+                } else {
+                    plugin.getQuestsLogger().warning("Cannot store progress for task '"
+                            + taskEntry.getKey() + "' in quest '" + questEntry.getKey() + "' for player " + uuid
+                            + " since type " + taskEntry.getValue().progress().getClass().getName() + " cannot be encoded!");
+                }
+            }
+
+            payload.writeInt(tasks.size());
+            for (Map.Entry<String, TaskEntry> taskEntry : tasks) {
+                payload.writeInt(dictionary.get(taskEntry.getKey()));
+                payload.writeBoolean(taskEntry.getValue().completed());
+                writeProgress(payload, taskEntry.getValue().progress());
+            }
+        }
+        payload.flush();
+
+        byte[] payloadArray = payloadBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payloadArray);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + payloadArray.length);
+        record.putInt(payloadArray.length);
+        record.putInt((int) crc.getValue());
+        record.put(payloadArray);
+        return record.array();
+    }
+
+    private static void decodeRecord(DataInputStream payload, Map<String, QuestEntry> entries) throws IOException {
+        int dictionarySize = payload.readInt();
+        String[] dictionary = new String[dictionarySize];
+        for (int i = 0; i < dictionarySize; i++) {
+            dictionary[i] = payload.readUTF();
+        }
+
+        int questCount = payload.readInt();
+        for (int i = 0; i < questCount; i++) {
+            String questId = dictionary[payload.readInt()];
+            boolean started = payload.readBoolean();
+            long startedDate = payload.readLong();
+            boolean completed = payload.readBoolean();
+            boolean completedBefore = payload.readBoolean();
+            long completionDate = payload.readLong();
+
+            // later records only contain modified tasks, so merge them with the tasks already read
+            QuestEntry previous = entries.get(questId);
+            Map<String, TaskEntry> tasks = previous != null ? previous.tasks() : new LinkedHashMap<>();
+            int taskCount = payload.readInt();
+            for (int j = 0; j < taskCount; j++) {
+                String taskId = dictionary[payload.readInt()];
+                boolean taskCompleted = payload.readBoolean();
+                tasks.put(taskId, new TaskEntry(taskCompleted, readProgress(payload)));
+            }
+
+            entries.put(questId, new QuestEntry(started, startedDate, completed, completedBefore, completionDate, tasks));
+        }
+    }
+
+    private static boolean isBlank(QuestEntry entry) {
+        if (entry.started() || entry.startedDate() != 0 || entry.completed() || entry.completedBefore() || entry.completionDate() != 0) {
+            return false;
+        }
+        for (TaskEntry task : entry.tasks().values()) {
+            if (task.completed() || task.progress() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEncodable(Object progress) {
+        return progress == null || progress instanceof Integer || progress instanceof Long || progress instanceof Double
+                || progress instanceof Float || progress instanceof BigDecimal || progress instanceof String || progress instanceof Boolean;
+    }
+
+    private static void writeProgress(DataOutputStream out, Object progress) throws IOException {
+        if (progress == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (progress instanceof Integer value) {
+            out.writeByte(TYPE_INT);
+            out.writeInt(value);
+        } else if (progress instanceof Long value) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong(value);
+        } else if (progress instanceof Double value) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble(value);
+        } else if (progress instanceof Float value) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat(value);
+        } else if (progress instanceof BigDecimal value) {
+            out.writeByte(TYPE_BIG_DECIMAL);
+            out.writeUTF(value.toString());
+        } else if (progress instanceof String value) {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF(value);
+        } else if (progress instanceof Boolean value) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean(value);
+        } else {
+            throw new IllegalArgumentException("cannot encode progress of type " + progress.getClass().getName());
+        }
+    }
+
+    private static Object readProgress(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_INT -> in.readInt();
+            case TYPE_LONG -> in.readLong();
+            case TYPE_DOUBLE -> in.readDouble();
+            case TYPE_FLOAT -> in.readFloat();
+            case TYPE_BIG_DECIMAL -> new BigDecimal(in.readUTF());
+            case TYPE_STRING -> in.readUTF();
+            case TYPE_BOOLEAN -> in.readBoolean();
+            default -> throw new IOException("unknown progress type " + type);
+        };
+    }
+
+    private record QuestEntry(boolean started, long startedDate, boolean completed, boolean completedBefore, long completionDate, Map<String, TaskEntry> tasks) { }
+
+    private record TaskEntry(boolean completed, Object progress) { }
+
+    private record LogContents(Map<String, QuestEntry> entries, int records, boolean truncated) { }
+}
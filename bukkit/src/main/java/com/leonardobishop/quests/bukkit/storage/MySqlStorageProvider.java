@@ -1,6 +1,7 @@
 package com.leonardobishop.quests.bukkit.storage;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.scheduler.WrappedTask;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
@@ -20,15 +21,18 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 public class MySqlStorageProvider implements StorageProvider {
 
@@ -60,16 +64,31 @@ public class MySqlStorageProvider implements StorageProvider {
             "SELECT quest_id, started, started_date, completed, completed_before, completion_date FROM `{prefix}quest_progress` WHERE uuid=?;";
     private static final String SELECT_PLAYER_TASK_PROGRESS =
             "SELECT quest_id, task_id, completed, progress, data_type FROM `{prefix}task_progress` WHERE uuid=?;";
-    private static final String SELECT_UUID_LIST =
-            "SELECT DISTINCT uuid FROM `{prefix}quest_progress`;";
+    private static final String SELECT_UUID_PAGE =
+            "SELECT DISTINCT uuid FROM `{prefix}quest_progress` WHERE uuid > ? ORDER BY uuid LIMIT ?;";
+    private static final String SELECT_UUID_COUNT =
+            "SELECT COUNT(DISTINCT uuid) FROM `{prefix}quest_progress`;";
+    private static final String SELECT_QUEST_PROGRESS_RANGE =
+            "SELECT uuid, quest_id, started, started_date, completed, completed_before, completion_date FROM `{prefix}quest_progress` WHERE uuid >= ? AND uuid <= ? ORDER BY uuid;";
+    private static final String SELECT_TASK_PROGRESS_RANGE =
+            "SELECT uuid, quest_id, task_id, completed, progress, data_type FROM `{prefix}task_progress` WHERE uuid >= ? AND uuid <= ? ORDER BY uuid;";
     private static final String SELECT_KNOWN_PLAYER_QUEST_PROGRESS =
             "SELECT quest_id FROM `{prefix}quest_progress` WHERE uuid=?;";
     private static final String SELECT_KNOWN_PLAYER_TASK_PROGRESS =
             "SELECT quest_id, task_id FROM `{prefix}task_progress` WHERE uuid=?;";
     private static final String WRITE_PLAYER_QUEST_PROGRESS =
-            "INSERT INTO `{prefix}quest_progress` (uuid, quest_id, started, started_date, completed, completed_before, completion_date) VALUES (?,?,?,?,?,?,?) ON DUPLICATE KEY UPDATE started=?, started_date=?, completed=?, completed_before=?, completion_date=?";
+            "INSERT INTO `{prefix}quest_progress` (uuid, quest_id, started, started_date, completed, completed_before, completion_date) VALUES {values} " +
+                    "ON DUPLICATE KEY UPDATE started=VALUES(started), started_date=VALUES(started_date), completed=VALUES(completed), completed_before=VALUES(completed_before), completion_date=VALUES(completion_date);";
+    private static final String WRITE_PLAYER_QUEST_PROGRESS_ROW = "(?,?,?,?,?,?,?)";
     private static final String WRITE_PLAYER_TASK_PROGRESS =
-            "INSERT INTO `{prefix}task_progress` (uuid, quest_id, task_id, completed, progress, data_type) VALUES (?,?,?,?,?,?) ON DUPLICATE KEY UPDATE completed=?, progress=?, data_type=?";
+            "INSERT INTO `{prefix}task_progress` (uuid, quest_id, task_id, completed, progress, data_type) VALUES {values} " +
+                    "ON DUPLICATE KEY UPDATE completed=VALUES(completed), progress=VALUES(progress), data_type=VALUES(data_type);";
+    private static final String WRITE_PLAYER_TASK_PROGRESS_ROW = "(?,?,?,?,?,?)";
+    private static final String DELETE_PLAYER_QUEST_PROGRESS =
+            "DELETE FROM `{prefix}quest_progress` WHERE uuid=? AND quest_id=?;";
+    private static final String DELETE_PLAYER_TASK_PROGRESS =
+            "DELETE FROM `{prefix}task_progress` WHERE uuid=? AND quest_id=?;";
+    private static final Object MALFORMED_PROGRESS = new Object();
 
     private final ConfigurationSection configuration;
     private final BukkitQuestsPlugin plugin;
@@ -78,6 +97,21 @@ public class MySqlStorageProvider implements StorageProvider {
     private Function<String, String> statementProcessor;
     private boolean fault;
 
+    private int maxRowsPerStatement;
+    private int bulkLoadPageSize;
+    private boolean writeBehind;
+    private int flushThreshold;
+    private WrappedTask flushTask;
+    private final Object pendingLock = new Object();
+    private final Object flushLock = new Object();
+    private Map<QuestRowKey, QuestRow> pendingQuestRows = new LinkedHashMap<>();
+    private Map<TaskRowKey, TaskRow> pendingTaskRows = new LinkedHashMap<>();
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private volatile int lastFlushRows;
+    private volatile int largestFlushRows;
+
     public MySqlStorageProvider(BukkitQuestsPlugin plugin, ConfigurationSection configuration) {
         this.plugin = plugin;
         if (configuration == null) {
@@ -114,7 +148,7 @@ public class MySqlStorageProvider implements StorageProvider {
         config.addDataSourceProperty("prepStmtCacheSqlLimit", 2048);
         config.addDataSourceProperty("useServerPrepStmts", true);
         config.addDataSourceProperty("useLocalSessionState", true);
-        config.addDataSourceProperty("rewriteBatchedStatements", true);
+        config.addDataSourceProperty("rewriteBatchedStatements", configuration.getBoolean("batching.rewrite-batched-statements", true));
         config.addDataSourceProperty("cacheResultSetMetadata", true);
         config.addDataSourceProperty("cacheServerConfiguration", true);
         config.addDataSourceProperty("elideSetAutoCommits", true);
@@ -148,11 +182,22 @@ public class MySqlStorageProvider implements StorageProvider {
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        this.maxRowsPerStatement = Math.max(1, configuration.getInt("batching.max-rows-per-statement", 500));
+        this.bulkLoadPageSize = Math.max(1, configuration.getInt("bulk-load.page-size", 500));
+        this.writeBehind = configuration.getBoolean("write-behind.enabled", false);
+        this.flushThreshold = Math.max(1, configuration.getInt("write-behind.flush-threshold", 2000));
+        if (writeBehind) {
+            long flushInterval = Math.max(1, configuration.getLong("write-behind.flush-interval", 40));
+            this.flushTask = plugin.getScheduler().runTaskTimerAsynchronously(this::flush, flushInterval, flushInterval);
+        }
         this.fault = false;
     }
 
     @Override
     public void shutdown() {
+        if (flushTask != null) flushTask.cancel();
+        if (!fault) flush();
         if (hikari != null) hikari.close();
     }
 
@@ -162,7 +207,10 @@ public class MySqlStorageProvider implements StorageProvider {
         Objects.requireNonNull(uuid, "uuid cannot be null");
 
         if (fault) return null;
-        Map<String, Quest> presentQuests = new HashMap<>(plugin.getQuestManager().getQuests());
+        // make sure any pending writes for the player are visible
+        if (writeBehind) flush();
+
+        Map<String, Quest> presentQuests = plugin.getQuestManager().getQuests();
         boolean validateQuests = plugin.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
 
         QuestProgressFile questProgressFile = new QuestProgressFile(uuid, plugin);
@@ -197,36 +245,8 @@ public class MySqlStorageProvider implements StorageProvider {
                         boolean completed = rs.getBoolean(3);
                         String encodedProgress = rs.getString(4);
                         String type = rs.getString(5);
-                        Object progress;
-                        try {
-                            if (type == null) {
-                                progress = null;
-                            } else if (type.equals("double")) {
-                                progress = Double.valueOf(encodedProgress);
-                            } else if (type.equals("float")) {
-                                progress = Float.valueOf(encodedProgress);
-                            } else if (type.equals("int")) {
-                                progress = Integer.valueOf(encodedProgress);
-                            } else if (type.equals("BigDecimal")) {
-                                progress = new BigDecimal(encodedProgress);
-                            } else {
-                                throw new RuntimeException("unknown data type '" + type + "'");
-                            }
-                        } catch (NumberFormatException ex) {
-                            plugin.getQuestsLogger().warning("Cannot retrieve progress for task '"
-                                    + taskId + "' in quest '" + questId + "' for player " + uuid
-                                    + " since data is malformed!");
-                            continue;
-                        } catch (RuntimeException ex) {
-                            if (ex.getMessage().startsWith("unknown data type ")) {
-                                plugin.getQuestsLogger().warning("Cannot retrieve progress for task '"
-                                        + taskId + "' in quest '" + questId + "' for player " + uuid
-                                        + ": " + ex.getMessage());
-                                continue;
-                            } else {
-                                throw ex;
-                            }
-                        }
+                        Object progress = decodeProgress(uuid, questId, taskId, encodedProgress, type);
+                        if (progress == MALFORMED_PROGRESS) continue;
 
                         QuestProgress linkedQuestProgress = questProgressMap.get(questId);
                         if (linkedQuestProgress == null) continue;
@@ -249,126 +269,491 @@ public class MySqlStorageProvider implements StorageProvider {
         return questProgressFile;
     }
 
+    private @Nullable Object decodeProgress(UUID uuid, String questId, String taskId, String encodedProgress, String type) {
+        try {
+            if (type == null) {
+                return null;
+            } else if (type.equals("double")) {
+                return Double.valueOf(encodedProgress);
+            } else if (type.equals("float")) {
+                return Float.valueOf(encodedProgress);
+            } else if (type.equals("int")) {
+                return Integer.valueOf(encodedProgress);
+            } else if (type.equals("BigDecimal")) {
+                return new BigDecimal(encodedProgress);
+            } else {
+                plugin.getQuestsLogger().warning("Cannot retrieve progress for task '"
+                        + taskId + "' in quest '" + questId + "' for player " + uuid
+                        + ": unknown data type '" + type + "'");
+                return MALFORMED_PROGRESS;
+            }
+        } catch (NumberFormatException ex) {
+            plugin.getQuestsLogger().warning("Cannot retrieve progress for task '"
+                    + taskId + "' in quest '" + questId + "' for player " + uuid
+                    + " since data is malformed!");
+            return MALFORMED_PROGRESS;
+        }
+    }
+
     @Override
     public boolean saveProgressFile(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
         Objects.requireNonNull(uuid, "uuid cannot be null");
         Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
 
         if (fault) return false;
-        try (Connection connection = hikari.getConnection()) {
-            try (PreparedStatement writeQuestProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_QUEST_PROGRESS));
-                 PreparedStatement writeTaskProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_TASK_PROGRESS))) {
-
-                List<QuestProgress> questProgressValues = new ArrayList<>(questProgressFile.getAllQuestProgress());
-                for (QuestProgress questProgress : questProgressValues) {
-                    if (!questProgress.isModified()) continue;
-                    
-                    String questId = questProgress.getQuestId();
-                    writeQuestProgress.setString(1, uuid.toString());
-                    writeQuestProgress.setString(2, questProgress.getQuestId());
-                    writeQuestProgress.setBoolean(3, questProgress.isStarted());
-                    writeQuestProgress.setLong(4, questProgress.getStartedDate());
-                    writeQuestProgress.setBoolean(5, questProgress.isCompleted());
-                    writeQuestProgress.setBoolean(6, questProgress.isCompletedBefore());
-                    writeQuestProgress.setLong(7, questProgress.getCompletionDate());
-                    writeQuestProgress.setBoolean(8, questProgress.isStarted());
-                    writeQuestProgress.setLong(9, questProgress.getStartedDate());
-                    writeQuestProgress.setBoolean(10, questProgress.isCompleted());
-                    writeQuestProgress.setBoolean(11, questProgress.isCompletedBefore());
-                    writeQuestProgress.setLong(12, questProgress.getCompletionDate());
-                    writeQuestProgress.addBatch();
-
-                    for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
-                        String taskId = taskProgress.getTaskId();
-
-                        String encodedProgress;
-                        Object progress = taskProgress.getProgress();
-                        String type;
-                        if (progress == null) {
-                            type = null;
-                            encodedProgress = null;
-                        } else if (progress instanceof Double) {
-                            type = "double";
-                            encodedProgress = String.valueOf(progress);
-                        } else if (progress instanceof Integer) {
-                            type = "int";
-                            encodedProgress = String.valueOf(progress);
-                        } else if (progress instanceof Float) {
-                            type = "float";
-                            encodedProgress = String.valueOf(progress);
-                        } else if (progress instanceof BigDecimal) {
-                            type = "BigDecimal";
-                            encodedProgress = String.valueOf(progress);
-                        } else {
-                            plugin.getQuestsLogger().warning("Cannot store progress for task '"
-                                    + taskId + "' in quest '" + questId + "' for player " + uuid
-                                    + " since type " + progress.getClass().getName() + " cannot be encoded!");
+
+        List<QuestRow> questRows = new ArrayList<>();
+        List<TaskRow> taskRows = new ArrayList<>();
+        collectRows(uuid, questProgressFile, questRows, taskRows);
+        if (questRows.isEmpty()) {
+            return true;
+        }
+
+        if (writeBehind) {
+            enqueue(questRows, taskRows);
+            return true;
+        }
+
+        return writeRows(questRows, taskRows);
+    }
+
+    private void collectRows(UUID uuid, QuestProgressFile questProgressFile, List<QuestRow> questRows, List<TaskRow> taskRows) {
+        String uuidString = uuid.toString();
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            if (!questProgress.isModified()) continue;
+
+            String questId = questProgress.getQuestId();
+            if (!questProgress.hasNonDefaultValues()) {
+                // blank progress is not stored, so its rows are deleted rather than written
+                questRows.add(QuestRow.deletion(uuidString, questId));
+                continue;
+            }
+            questRows.add(new QuestRow(uuidString, questId, questProgress.isStarted(), questProgress.getStartedDate(),
+                    questProgress.isCompleted(), questProgress.isCompletedBefore(), questProgress.getCompletionDate(), false, true));
+
+            for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
+                String taskId = taskProgress.getTaskId();
+
+                String encodedProgress;
+                Object progress = taskProgress.getProgress();
+                String type;
+                if (progress == null) {
+                    type = null;
+                    encodedProgress = null;
+                } else if (progress instanceof Double) {
+                    type = "double";
+                    encodedProgress = String.valueOf(progress);
+                } else if (progress instanceof Integer) {
+                    type = "int";
+                    encodedProgress = String.valueOf(progress);
+                } else if (progress instanceof Float) {
+                    type = "float";
+                    encodedProgress = String.valueOf(progress);
+                } else if (progress instanceof BigDecimal) {
+                    type = "BigDecimal";
+                    encodedProgress = String.valueOf(progress);
+                } else {
+                    plugin.getQuestsLogger().warning("Cannot store progress for task '"
+                            + taskId + "' in quest '" + questId + "' for player " + uuid
+                            + " since type " + progress.getClass().getName() + " cannot be encoded!");
+                    continue;
+                }
+                taskRows.add(new TaskRow(uuidString, questId, taskId, taskProgress.isCompleted(), encodedProgress, type));
+            }
+        }
+    }
+
+    private void enqueue(List<QuestRow> questRows, List<TaskRow> taskRows) {
+        boolean flushNow;
+        synchronized (pendingLock) {
+            for (QuestRow row : questRows) {
+                QuestRow previous = pendingQuestRows.put(row.key(), row);
+                if (row.delete()) {
+                    // the deletion supersedes any task rows queued before it
+                    pendingTaskRows.keySet().removeIf(key -> key.uuid().equals(row.uuid()) && key.questId().equals(row.questId()));
+                } else if (previous != null && previous.delete()) {
+                    // a queued deletion must still happen before the row is written
+                    pendingQuestRows.put(row.key(), row.withDelete());
+                }
+            }
+            for (TaskRow row : taskRows) {
+                pendingTaskRows.put(row.key(), row);
+            }
+            flushNow = pendingQuestRows.size() + pendingTaskRows.size() >= flushThreshold;
+        }
+
+        if (flushNow) {
+            plugin.getScheduler().doAsync(this::flush);
+        }
+    }
+
+    /**
+     * Write all rows queued by the write-behind pipeline to the database. Rows which fail to be written
+     * are queued again, unless they have since been superseded.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<QuestRowKey, QuestRow> questRows;
+            Map<TaskRowKey, TaskRow> taskRows;
+            synchronized (pendingLock) {
+                if (pendingQuestRows.isEmpty() && pendingTaskRows.isEmpty()) {
+                    return;
+                }
+                questRows = pendingQuestRows;
+                taskRows = pendingTaskRows;
+                pendingQuestRows = new LinkedHashMap<>();
+                pendingTaskRows = new LinkedHashMap<>();
+            }
+
+            if (!writeRows(new ArrayList<>(questRows.values()), new ArrayList<>(taskRows.values()))) {
+                plugin.getQuestsLogger().warning("Failed to write " + (questRows.size() + taskRows.size()) + " queued rows to the database, they will be retried.");
+                synchronized (pendingLock) {
+                    Set<QuestRowKey> deletedSince = new HashSet<>();
+                    for (Map.Entry<QuestRowKey, QuestRow> entry : questRows.entrySet()) {
+                        QuestRow newer = pendingQuestRows.putIfAbsent(entry.getKey(), entry.getValue());
+                        if (newer != null && newer.delete()) {
+                            deletedSince.add(entry.getKey());
+                        } else if (newer != null && entry.getValue().delete()) {
+                            pendingQuestRows.put(entry.getKey(), newer.withDelete());
+                        }
+                    }
+                    for (Map.Entry<TaskRowKey, TaskRow> entry : taskRows.entrySet()) {
+                        TaskRowKey key = entry.getKey();
+                        // task rows of quests deleted since are superseded
+                        if (deletedSince.contains(new QuestRowKey(key.uuid(), key.questId()))) {
                             continue;
                         }
-                        writeTaskProgress.setString(1, uuid.toString());
-                        writeTaskProgress.setString(2, questId);
-                        writeTaskProgress.setString(3, taskProgress.getTaskId());
-                        writeTaskProgress.setBoolean(4, taskProgress.isCompleted());
-                        writeTaskProgress.setString(5, encodedProgress);
-                        writeTaskProgress.setString(6, type);
-                        writeTaskProgress.setBoolean(7, taskProgress.isCompleted());
-                        writeTaskProgress.setString(8, encodedProgress);
-                        writeTaskProgress.setString(9, type);
-                        writeTaskProgress.addBatch();
+                        pendingTaskRows.putIfAbsent(key, entry.getValue());
                     }
                 }
+            }
+        }
+    }
 
-                writeQuestProgress.executeBatch();
-                writeTaskProgress.executeBatch();
+    private boolean writeRows(List<QuestRow> questRows, List<TaskRow> taskRows) {
+        long start = System.currentTimeMillis();
+        try (Connection connection = hikari.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                List<QuestRow> deletedRows = new ArrayList<>();
+                List<QuestRow> writtenRows = new ArrayList<>(questRows.size());
+                for (QuestRow row : questRows) {
+                    if (row.delete()) deletedRows.add(row);
+                    if (row.write()) writtenRows.add(row);
+                }
+                if (!deletedRows.isEmpty()) {
+                    deleteQuestRows(connection, deletedRows);
+                }
+                for (int i = 0; i < writtenRows.size(); i += maxRowsPerStatement) {
+                    writeQuestRows(connection, writtenRows.subList(i, Math.min(writtenRows.size(), i + maxRowsPerStatement)));
+                }
+                for (int i = 0; i < taskRows.size(); i += maxRowsPerStatement) {
+                    writeTaskRows(connection, taskRows.subList(i, Math.min(taskRows.size(), i + maxRowsPerStatement)));
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
             }
-            return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
+
+        int rows = questRows.size() + taskRows.size();
+        flushes.incrementAndGet();
+        flushedRows.addAndGet(rows);
+        lastFlushRows = rows;
+        if (rows > largestFlushRows) {
+            largestFlushRows = rows;
+        }
+        plugin.getQuestsLogger().debug("Wrote " + questRows.size() + " quest rows and " + taskRows.size() + " task rows in " + (System.currentTimeMillis() - start) + "ms.");
+        return true;
+    }
+
+    private void deleteQuestRows(Connection connection, List<QuestRow> rows) throws SQLException {
+        try (PreparedStatement questStatement = connection.prepareStatement(this.statementProcessor.apply(DELETE_PLAYER_QUEST_PROGRESS));
+             PreparedStatement taskStatement = connection.prepareStatement(this.statementProcessor.apply(DELETE_PLAYER_TASK_PROGRESS))) {
+            for (QuestRow row : rows) {
+                questStatement.setString(1, row.uuid());
+                questStatement.setString(2, row.questId());
+                questStatement.addBatch();
+                taskStatement.setString(1, row.uuid());
+                taskStatement.setString(2, row.questId());
+                taskStatement.addBatch();
+            }
+            questStatement.executeBatch();
+            taskStatement.executeBatch();
+        }
+    }
+
+    private void writeQuestRows(Connection connection, List<QuestRow> rows) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(buildMultiRowStatement(WRITE_PLAYER_QUEST_PROGRESS, WRITE_PLAYER_QUEST_PROGRESS_ROW, rows.size()))) {
+            int index = 1;
+            for (QuestRow row : rows) {
+                statement.setString(index++, row.uuid());
+                statement.setString(index++, row.questId());
+                statement.setBoolean(index++, row.started());
+                statement.setLong(index++, row.startedDate());
+                statement.setBoolean(index++, row.completed());
+                statement.setBoolean(index++, row.completedBefore());
+                statement.setLong(index++, row.completionDate());
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private void writeTaskRows(Connection connection, List<TaskRow> rows) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(buildMultiRowStatement(WRITE_PLAYER_TASK_PROGRESS, WRITE_PLAYER_TASK_PROGRESS_ROW, rows.size()))) {
+            int index = 1;
+            for (TaskRow row : rows) {
+                statement.setString(index++, row.uuid());
+                statement.setString(index++, row.questId());
+                statement.setString(index++, row.taskId());
+                statement.setBoolean(index++, row.completed());
+                statement.setString(index++, row.progress());
+                statement.setString(index++, row.dataType());
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private String buildMultiRowStatement(String statement, String row, int rows) {
+        StringBuilder values = new StringBuilder(rows * (row.length() + 1));
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) values.append(',');
+            values.append(row);
+        }
+        return this.statementProcessor.apply(statement).replace("{values}", values);
+    }
+
+    /**
+     * Get whether saves are queued and written by the write-behind pipeline.
+     *
+     * @return true if write-behind is enabled
+     */
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Get the number of rows queued by the write-behind pipeline which have not been written yet.
+     *
+     * @return number of pending rows
+     */
+    public int getPendingRows() {
+        synchronized (pendingLock) {
+            return pendingQuestRows.size() + pendingTaskRows.size();
+        }
+    }
+
+    /**
+     * Get the number of transactions used to write rows (i.e. flushes of the write-behind pipeline,
+     * or individual saves if it is disabled).
+     *
+     * @return number of flushes
+     */
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    public long getFlushedRows() {
+        return flushedRows.get();
+    }
+
+    public int getLastFlushRows() {
+        return lastFlushRows;
+    }
+
+    public int getLargestFlushRows() {
+        return largestFlushRows;
     }
 
     @Override
     public @NotNull List<QuestProgressFile> loadAllProgressFiles() {
-        if (fault) return Collections.emptyList();
+        List<QuestProgressFile> files = new ArrayList<>();
+        loadAllProgressFiles(files::add);
+        return files;
+    }
 
-        Set<UUID> uuids = new HashSet<>();
+    @Override
+    public void loadAllProgressFiles(@NotNull Consumer<QuestProgressFile> consumer) {
+        loadAllProgressFiles(uuid -> true, consumer);
+    }
 
-        try (Connection connection = hikari.getConnection()) {
-            try (PreparedStatement ps = connection.prepareStatement(this.statementProcessor.apply(SELECT_UUID_LIST))) {
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        String uuidString = rs.getString(1);
-                        try {
-                            UUID uuid = UUID.fromString(uuidString);
-                            uuids.add(uuid);
-                        } catch (IllegalArgumentException ignored) { }
+    /**
+     * Load all QuestProgressFiles a page of players at a time. Each page is read from both progress tables
+     * by a range of UUIDs, continuing after the last UUID of the previous page, and merged player by player.
+     * The connection is released before the files of a page are passed to the consumer, so a consumer which
+     * blocks does not hold a result set open on the database.
+     *
+     * @param filter the filter to test each UUID against
+     * @param consumer the consumer to pass each loaded file to
+     */
+    @Override
+    public void loadAllProgressFiles(@NotNull Predicate<UUID> filter, @NotNull Consumer<QuestProgressFile> consumer) {
+        Objects.requireNonNull(filter, "filter cannot be null");
+        Objects.requireNonNull(consumer, "consumer cannot be null");
+
+        if (fault) return;
+        if (writeBehind) flush();
+
+        Map<String, Quest> presentQuests = plugin.getQuestManager().getQuests();
+        boolean validateQuests = plugin.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
+
+        String lastUuid = "";
+        while (true) {
+            List<QuestProgressFile> files;
+            try (Connection connection = hikari.getConnection()) {
+                List<String> uuids = new ArrayList<>(bulkLoadPageSize);
+                try (PreparedStatement ps = connection.prepareStatement(this.statementProcessor.apply(SELECT_UUID_PAGE))) {
+                    ps.setString(1, lastUuid);
+                    ps.setInt(2, bulkLoadPageSize);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            uuids.add(rs.getString(1));
+                        }
                     }
                 }
+                if (uuids.isEmpty()) {
+                    return;
+                }
+
+                String firstUuid = uuids.get(0);
+                lastUuid = uuids.get(uuids.size() - 1);
+                files = loadPage(connection, firstUuid, lastUuid, filter, presentQuests, validateQuests);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return;
+            }
+
+            for (QuestProgressFile file : files) {
+                consumer.accept(file);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return Collections.emptyList();
         }
+    }
 
+    private List<QuestProgressFile> loadPage(Connection connection, String firstUuid, String lastUuid, Predicate<UUID> filter,
+                                             Map<String, Quest> presentQuests, boolean validateQuests) throws SQLException {
         List<QuestProgressFile> files = new ArrayList<>();
-        for (UUID uuid : uuids) {
-            QuestProgressFile file = loadProgressFile(uuid);
-            if (file != null) {
-                files.add(file);
+        try (PreparedStatement questStatement = prepareRangeStatement(connection, SELECT_QUEST_PROGRESS_RANGE, firstUuid, lastUuid);
+             PreparedStatement taskStatement = prepareRangeStatement(connection, SELECT_TASK_PROGRESS_RANGE, firstUuid, lastUuid);
+             ResultSet questRs = questStatement.executeQuery();
+             ResultSet taskRs = taskStatement.executeQuery()) {
+            boolean hasQuestRow = questRs.next();
+            boolean hasTaskRow = taskRs.next();
+
+            while (hasQuestRow) {
+                String uuidString = questRs.getString(1);
+                UUID uuid;
+                try {
+                    uuid = UUID.fromString(uuidString);
+                } catch (IllegalArgumentException ignored) {
+                    uuid = null;
+                }
+                if (uuid != null && !filter.test(uuid)) {
+                    uuid = null;
+                }
+
+                Map<String, QuestProgress> questProgressMap = new HashMap<>();
+                do {
+                    if (uuid != null) {
+                        String questId = questRs.getString(2);
+                        if (!validateQuests || presentQuests.containsKey(questId)) {
+                            questProgressMap.put(questId, new QuestProgress(plugin, questId, questRs.getBoolean(5),
+                                    questRs.getBoolean(6), questRs.getLong(7), uuid, questRs.getBoolean(3), questRs.getLong(4)));
+                        }
+                    }
+                    hasQuestRow = questRs.next();
+                } while (hasQuestRow && uuidString.equals(questRs.getString(1)));
+
+                // skip task rows of players without quest rows, then consume those of this player
+                while (hasTaskRow && taskRs.getString(1).compareToIgnoreCase(uuidString) < 0) {
+                    hasTaskRow = taskRs.next();
+                }
+                while (hasTaskRow && taskRs.getString(1).equals(uuidString)) {
+                    QuestProgress linkedQuestProgress = uuid == null ? null : questProgressMap.get(taskRs.getString(2));
+                    if (linkedQuestProgress != null) {
+                        String questId = linkedQuestProgress.getQuestId();
+                        String taskId = taskRs.getString(3);
+                        if (!validateQuests || presentQuests.get(questId).getTaskById(taskId) != null) {
+                            Object progress = decodeProgress(uuid, questId, taskId, taskRs.getString(5), taskRs.getString(6));
+                            if (progress != MALFORMED_PROGRESS) {
+                                linkedQuestProgress.addTaskProgress(new TaskProgress(linkedQuestProgress, taskId, progress, uuid, taskRs.getBoolean(4)));
+                            }
+                        }
+                    }
+                    hasTaskRow = taskRs.next();
+                }
+
+                if (uuid == null) continue;
+
+                QuestProgressFile questProgressFile = new QuestProgressFile(uuid, plugin);
+                for (QuestProgress questProgress : questProgressMap.values()) {
+                    questProgressFile.addQuestProgress(questProgress);
+                }
+                files.add(questProgressFile);
             }
         }
-
         return files;
     }
 
+    @Override
+    public int countProgressFiles() {
+        if (fault) return -1;
+
+        try (Connection connection = hikari.getConnection();
+             PreparedStatement ps = connection.prepareStatement(this.statementProcessor.apply(SELECT_UUID_COUNT));
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : -1;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    private PreparedStatement prepareRangeStatement(Connection connection, String statement, String firstUuid, String lastUuid) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(this.statementProcessor.apply(statement));
+        ps.setString(1, firstUuid);
+        ps.setString(2, lastUuid);
+        return ps;
+    }
+
     @Override
     public void saveAllProgressFiles(List<QuestProgressFile> files) {
-        if (fault) return;
+        trySaveAllProgressFiles(files);
+    }
 
+    @Override
+    public @NotNull List<UUID> trySaveAllProgressFiles(List<QuestProgressFile> files) {
+        List<UUID> saved = new ArrayList<>(files.size());
+        if (fault) return saved;
+
+        // write rows from many players together rather than a transaction per player
+        List<QuestRow> questRows = new ArrayList<>();
+        List<TaskRow> taskRows = new ArrayList<>();
+        List<UUID> pending = new ArrayList<>();
         for (QuestProgressFile file : files) {
-            saveProgressFile(file.getPlayerUUID(), file);
+            collectRows(file.getPlayerUUID(), file, questRows, taskRows);
+            pending.add(file.getPlayerUUID());
+            if (questRows.size() + taskRows.size() >= flushThreshold) {
+                // the rows are written in one transaction, so the files they belong to are saved or not as a whole
+                if (writeRows(questRows, taskRows)) {
+                    saved.addAll(pending);
+                }
+                questRows.clear();
+                taskRows.clear();
+                pending.clear();
+            }
         }
+
+        if (questRows.isEmpty() || writeRows(questRows, taskRows)) {
+            saved.addAll(pending);
+        }
+        return saved;
     }
 
     @Override
@@ -388,6 +773,35 @@ public class MySqlStorageProvider implements StorageProvider {
         return address.equalsIgnoreCase(otherAddress) && database.equalsIgnoreCase(otherDatabase);
     }
 
+    private record QuestRowKey(String uuid, String questId) { }
+
+    private record TaskRowKey(String uuid, String questId, String taskId) { }
+
+    /**
+     * A quest progress row to write. Rows with {@code delete} set remove the existing quest and task rows
+     * first, rows without {@code write} set are only deleted.
+     */
+    private record QuestRow(String uuid, String questId, boolean started, long startedDate, boolean completed, boolean completedBefore, long completionDate,
+                            boolean delete, boolean write) {
+        static QuestRow deletion(String uuid, String questId) {
+            return new QuestRow(uuid, questId, false, 0, false, false, 0, true, false);
+        }
+
+        QuestRow withDelete() {
+            return new QuestRow(uuid, questId, started, startedDate, completed, completedBefore, completionDate, true, write);
+        }
+
+        QuestRowKey key() {
+            return new QuestRowKey(uuid, questId);
+        }
+    }
+
+    private record TaskRow(String uuid, String questId, String taskId, boolean completed, String progress, String dataType) {
+        TaskRowKey key() {
+            return new TaskRowKey(uuid, questId, taskId);
+        }
+    }
+
     private class DatabaseMigrator {
         private static final String GET_STARTED_DATE_COLUMN =
                 "SHOW COLUMNS from `{prefix}quest_progress` LIKE 'started_date';";
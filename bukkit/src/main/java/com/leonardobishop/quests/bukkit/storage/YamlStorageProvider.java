@@ -12,6 +12,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
 import java.nio.file.Files;
@@ -26,6 +27,8 @@ import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class YamlStorageProvider implements StorageProvider {
 
@@ -139,6 +142,11 @@ public class YamlStorageProvider implements StorageProvider {
             YamlConfiguration data = YamlConfiguration.loadConfiguration(file);
             for (QuestProgress questProgress : questProgressValues) {
                 if (!questProgress.isModified()) continue;
+                if (!questProgress.hasNonDefaultValues()) {
+                    // blank progress is not stored, so it is removed rather than written
+                    data.set("quest-progress." + questProgress.getQuestId(), null);
+                    continue;
+                }
                 data.set("quest-progress." + questProgress.getQuestId() + ".started", questProgress.isStarted());
                 data.set("quest-progress." + questProgress.getQuestId() + ".started-date", questProgress.getStartedDate());
                 data.set("quest-progress." + questProgress.getQuestId() + ".completed", questProgress.isCompleted());
@@ -167,6 +175,19 @@ public class YamlStorageProvider implements StorageProvider {
 
     public @NotNull List<QuestProgressFile> loadAllProgressFiles() {
         List<QuestProgressFile> files = new ArrayList<>();
+        loadAllProgressFiles(files::add);
+        return files;
+    }
+
+    @Override
+    public void loadAllProgressFiles(@NotNull Consumer<QuestProgressFile> consumer) {
+        loadAllProgressFiles(uuid -> true, consumer);
+    }
+
+    @Override
+    public void loadAllProgressFiles(@NotNull Predicate<UUID> filter, @NotNull Consumer<QuestProgressFile> consumer) {
+        Objects.requireNonNull(filter, "filter cannot be null");
+        Objects.requireNonNull(consumer, "consumer cannot be null");
 
         File directory = new File(plugin.getDataFolder() + File.separator + "playerdata");
         FileVisitor<Path> fileVisitor = new SimpleFileVisitor<Path>() {
@@ -179,10 +200,13 @@ public class YamlStorageProvider implements StorageProvider {
                     } catch (IllegalArgumentException e) {
                         return FileVisitResult.CONTINUE;
                     }
+                    if (!filter.test(uuid)) {
+                        return FileVisitResult.CONTINUE;
+                    }
 
                     QuestProgressFile file = loadProgressFile(uuid);
                     if (file != null) {
-                        files.add(file);
+                        consumer.accept(file);
                     }
                 }
                 return FileVisitResult.CONTINUE;
@@ -194,8 +218,20 @@ public class YamlStorageProvider implements StorageProvider {
         } catch (IOException e) {
             e.printStackTrace();
         }
+    }
 
-        return files;
+    @Override
+    public int countProgressFiles() {
+        File directory = new File(plugin.getDataFolder() + File.separator + "playerdata");
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath(), "*.yml")) {
+            for (Path ignored : stream) {
+                count++;
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return count;
     }
 
     @Override
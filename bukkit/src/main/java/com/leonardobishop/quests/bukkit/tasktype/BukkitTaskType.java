@@ -1,10 +1,14 @@
 package com.leonardobishop.quests.bukkit.tasktype;
 
+import com.leonardobishop.quests.common.player.QPlayerPreferences;
 import com.leonardobishop.quests.common.tasktype.TaskType;
+import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.UUID;
+import java.util.function.Supplier;
 
 public abstract class BukkitTaskType extends TaskType implements Listener {
 
@@ -22,8 +26,42 @@ public abstract class BukkitTaskType extends TaskType implements Listener {
         super(type);
     }
 
-    public final void debug(@NotNull String message, String questId, String taskId, @NotNull UUID player) {
+    public final void debug(@NotNull String message, @Nullable String questId, String taskId, @NotNull UUID player) {
+        if (questId == null || !QPlayerPreferences.hasActiveDebuggers(questId)) {
+            return;
+        }
+
         taskTypeManager.sendDebug(message, super.getType(), questId, taskId, player);
     }
 
+    /**
+     * Send a debug message which is only built if somebody is debugging the quest.
+     *
+     * @param message the message supplier
+     * @param questId the quest id, or null to not send the message
+     * @param taskId the task id
+     * @param player the player associated with the message
+     */
+    public final void debug(@NotNull Supplier<String> message, @Nullable String questId, String taskId, @NotNull UUID player) {
+        if (questId == null || !QPlayerPreferences.hasActiveDebuggers(questId)) {
+            return;
+        }
+
+        taskTypeManager.sendDebug(message.get(), super.getType(), questId, taskId, player);
+    }
+
+    /**
+     * Buffer an event handler to be run again once the quest progress of a player has loaded. Task types
+     * should call this when the quest player for an event is not available yet. The handler runs later, so it
+     * should capture any block or item state it needs (e.g. as a {@link org.bukkit.block.BlockState} snapshot
+     * or a cloned {@link org.bukkit.inventory.ItemStack}) instead of reading it from the world again.
+     *
+     * @param player the player
+     * @param handler the handler to run again
+     * @return true if the handler was buffered, false if the player is not being loaded
+     */
+    public final boolean bufferUntilLoaded(@NotNull Player player, @NotNull Runnable handler) {
+        return taskTypeManager.getEarlyProgressBuffer().buffer(player.getUniqueId(), handler);
+    }
+
 }
@@ -38,6 +38,10 @@ public class BukkitTaskTypeManager extends TaskTypeManager {
         return false;
     }
 
+    public EarlyProgressBuffer getEarlyProgressBuffer() {
+        return plugin.getEarlyProgressBuffer();
+    }
+
     public void sendDebug(@NotNull String message, @NotNull String taskType, @NotNull String questId, @NotNull String taskId, @NotNull UUID associatedPlayer) {
         String chatHeader = null;
         for (QPlayer qPlayer : plugin.getPlayerManager().getQPlayers()) {
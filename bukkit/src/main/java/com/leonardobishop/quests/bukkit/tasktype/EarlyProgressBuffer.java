@@ -0,0 +1,124 @@
+package com.leonardobishop.quests.bukkit.tasktype;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers the progress events of players who have joined but whose quest progress is still being loaded.
+ * Task types which cannot find the quest player for an event hand their handler to
+ * {@link BukkitTaskType#bufferUntilLoaded(Player, Runnable)}, and the handlers are run again, in order,
+ * once the player has loaded.
+ * <p>
+ * Handlers capture the block and item state they need when the event happens (such as a block state
+ * snapshot or a cloned item), so a replay sees the world as it was at the time of the event. Lookups made
+ * by the handler itself, such as whether a block was placed by a player, still run at the time of the replay.
+ */
+public class EarlyProgressBuffer {
+
+    private final BukkitQuestsPlugin plugin;
+    private final Map<UUID, List<Runnable>> buffers = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+    private volatile int limit;
+
+    public EarlyProgressBuffer(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+        this.configure();
+    }
+
+    /**
+     * Apply the buffer settings from the config.
+     */
+    public void configure() {
+        this.enabled = plugin.getQuestsConfig().getString("options.storage.synchronisation.early-progress", "buffer").equalsIgnoreCase("buffer");
+        this.limit = plugin.getQuestsConfig().getInt("options.storage.synchronisation.early-progress-limit", 256);
+    }
+
+    /**
+     * Start buffering the progress events of a player who is being loaded.
+     *
+     * @param uuid the uuid of the player
+     */
+    public void open(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        if (enabled) {
+            buffers.putIfAbsent(uuid, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Buffer a handler if the player is being loaded.
+     *
+     * @param uuid the uuid of the player
+     * @param handler the handler to run once the player has loaded
+     * @return true if the handler was buffered, false if the player is not being loaded or the buffer is full
+     */
+    public boolean buffer(@NotNull UUID uuid, @NotNull Runnable handler) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(handler, "handler cannot be null");
+
+        List<Runnable> buffer = buffers.get(uuid);
+        if (buffer == null) {
+            return false;
+        }
+        synchronized (buffer) {
+            if (buffer.size() >= limit) {
+                plugin.getQuestsLogger().debug("Progress buffer of player " + uuid + " is full, dropping event.");
+                return false;
+            }
+            buffer.add(handler);
+        }
+        return true;
+    }
+
+    /**
+     * Stop buffering the progress events of a player and run the buffered handlers. This must be called
+     * on the thread owning the player.
+     *
+     * @param player the player
+     */
+    public void replay(@NotNull Player player) {
+        Objects.requireNonNull(player, "player cannot be null");
+
+        List<Runnable> buffer = buffers.remove(player.getUniqueId());
+        if (buffer == null) {
+            return;
+        }
+        List<Runnable> handlers;
+        synchronized (buffer) {
+            handlers = new ArrayList<>(buffer);
+        }
+        if (handlers.isEmpty()) {
+            return;
+        }
+
+        plugin.getQuestsLogger().debug("Replaying " + handlers.size() + " buffered events for player " + player.getUniqueId() + ".");
+        for (Runnable handler : handlers) {
+            try {
+                handler.run();
+            } catch (Exception e) {
+                plugin.getQuestsLogger().warning("A buffered event for player " + player.getName() + " could not be replayed:");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Stop buffering the progress events of a player, discarding the buffered handlers.
+     *
+     * @param uuid the uuid of the player
+     */
+    public void discard(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        buffers.remove(uuid);
+    }
+}
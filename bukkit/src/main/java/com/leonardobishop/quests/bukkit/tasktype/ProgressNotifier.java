@@ -0,0 +1,290 @@
+package com.leonardobishop.quests.bukkit.tasktype;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.menu.itemstack.QItemStack;
+import com.leonardobishop.quests.bukkit.util.TaskUtils;
+import com.leonardobishop.quests.bukkit.util.chat.Chat;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.Task;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+
+/**
+ * Sends the action bar and boss bar progress notifications of tasks. Notifications are coalesced per player
+ * and per task over a configurable number of ticks, so that a player progressing a task many times within
+ * that window is only sent the latest state once.
+ * <p>
+ * The title of each task is resolved and parsed once per quest, rather than for every notification.
+ */
+public class ProgressNotifier {
+
+    private final BukkitQuestsPlugin plugin;
+    private final Map<UUID, Map<TaskKey, Notification>> pending = new ConcurrentHashMap<>();
+    private final Map<String, QuestTitles> titles = new ConcurrentHashMap<>();
+    private volatile boolean actionBarProgress;
+    private volatile boolean actionBarComplete;
+    private volatile boolean bossBarProgress;
+    private volatile boolean bossBarComplete;
+    private volatile int bossBarTime;
+    private volatile boolean useProgressAsFallback;
+    private volatile boolean usePlaceholderAPI;
+    private volatile long interval;
+
+    public ProgressNotifier(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+        this.configure();
+    }
+
+    /**
+     * Apply the notification settings from the config, and discard all parsed titles.
+     */
+    public void configure() {
+        this.actionBarProgress = plugin.getConfig().getBoolean("options.actionbar.progress", false);
+        this.actionBarComplete = plugin.getConfig().getBoolean("options.actionbar.complete", false);
+        this.bossBarProgress = plugin.getConfig().getBoolean("options.bossbar.progress", false);
+        this.bossBarComplete = plugin.getConfig().getBoolean("options.bossbar.complete", false);
+        this.bossBarTime = plugin.getConfig().getInt("options.bossbar.time", 5);
+        this.useProgressAsFallback = plugin.getQuestsConfig().getBoolean("options.use-progress-as-fallback", true);
+        this.usePlaceholderAPI = plugin.getQuestsConfig().getBoolean("options.progress-use-placeholderapi", false);
+        this.interval = Math.max(0, plugin.getConfig().getLong("options.performance-tweaking.progress-notification-interval", 1));
+        this.titles.clear();
+    }
+
+    /**
+     * Queue a progress notification for a task. If a notification for the same task is already queued,
+     * it is replaced, and the progress of the task is read when the notification is sent.
+     *
+     * @param player the player
+     * @param pendingTask the task which progressed
+     * @param amount the amount required to complete the task, used for the boss bar progress
+     */
+    public void queue(@NotNull Player player, @NotNull TaskUtils.PendingTask pendingTask, @NotNull Number amount) {
+        Objects.requireNonNull(player, "player cannot be null");
+        Objects.requireNonNull(pendingTask, "pendingTask cannot be null");
+        Objects.requireNonNull(amount, "amount cannot be null");
+
+        boolean completed = pendingTask.taskProgress().isCompleted();
+        if (!actionBarProgress && !bossBarProgress && !(completed && (actionBarComplete || bossBarComplete))) {
+            return;
+        }
+
+        Notification notification = new Notification(pendingTask, amount);
+        if (interval == 0) {
+            send(player, notification);
+            return;
+        }
+
+        TaskKey key = new TaskKey(pendingTask.quest().getId(), pendingTask.task().getId());
+        // the batch is only changed within compute and removed by flush, so no notification can be lost in between
+        pending.compute(player.getUniqueId(), (uuid, batch) -> {
+            if (batch == null) {
+                batch = new LinkedHashMap<>();
+                plugin.getScheduler().runTaskLaterAtEntity(player, () -> flush(player), interval);
+            }
+            batch.put(key, notification);
+            return batch;
+        });
+    }
+
+    /**
+     * Discard all queued notifications of a player.
+     *
+     * @param uuid the uuid of the player
+     */
+    public void discard(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        pending.remove(uuid);
+    }
+
+    private void flush(Player player) {
+        Map<TaskKey, Notification> batch = pending.remove(player.getUniqueId());
+        if (batch == null || !player.isOnline()) {
+            return;
+        }
+
+        for (Notification notification : batch.values()) {
+            send(player, notification);
+        }
+    }
+
+    private void send(Player player, Notification notification) {
+        TaskUtils.PendingTask pendingTask = notification.pendingTask();
+        Quest quest = pendingTask.quest();
+        Task task = pendingTask.task();
+        TaskProgress taskProgress = pendingTask.taskProgress();
+
+        boolean completed = taskProgress.isCompleted();
+        boolean useActionBar = actionBarProgress || (completed && actionBarComplete);
+        boolean useBossBar = bossBarProgress || (completed && bossBarComplete);
+        if (!useActionBar && !useBossBar) {
+            return;
+        }
+
+        TitleTemplate template = getTitle(quest, task);
+        if (template == null) {
+            return; // no valid title format found
+        }
+
+        String title = template.render(plugin, player, pendingTask.questProgress(), taskProgress, usePlaceholderAPI);
+
+        if (useActionBar) {
+            plugin.getActionBarHandle().sendActionBar(player, title);
+        }
+
+        if (useBossBar) {
+            sendBossBar(player, quest, taskProgress, title, notification.amount());
+        }
+    }
+
+    private void sendBossBar(Player player, Quest quest, TaskProgress taskProgress, String title, Number amount) {
+        Double bossBarProgress = null;
+
+        if (!taskProgress.isCompleted()) {
+            switch (taskProgress.getProgressType()) {
+                case INTEGER -> bossBarProgress = (double) taskProgress.getIntegerProgress();
+                case LONG -> bossBarProgress = (double) taskProgress.getLongProgress();
+                case DOUBLE -> bossBarProgress = taskProgress.getDoubleProgress();
+                case OTHER -> {
+                    if (taskProgress.getProgress() instanceof Number number) {
+                        bossBarProgress = number.doubleValue();
+                    }
+                }
+            }
+
+            if (bossBarProgress != null) { // if has value
+                bossBarProgress /= amount.doubleValue(); // calculate progress
+            }
+        }
+
+        if (bossBarProgress != null) {
+            float bossBarFloatProgress = (float) Math.min(1.0d, Math.max(0.0d, bossBarProgress));
+            plugin.getBossBarHandle().sendBossBar(player, quest.getId(), title, bossBarTime, bossBarFloatProgress);
+        } else {
+            plugin.getBossBarHandle().sendBossBar(player, quest.getId(), title, bossBarTime);
+        }
+    }
+
+    private @Nullable TitleTemplate getTitle(Quest quest, Task task) {
+        QuestTitles questTitles = titles.get(quest.getId());
+        // quests are replaced on reload, so titles parsed for a previous instance are stale
+        if (questTitles == null || questTitles.quest() != quest) {
+            questTitles = new QuestTitles(quest, new ConcurrentHashMap<>());
+            titles.put(quest.getId(), questTitles);
+        }
+
+        TitleTemplate template = questTitles.templates().computeIfAbsent(task.getId(), id -> TitleTemplate.parse(findTitle(quest, task), usePlaceholderAPI));
+        return template == TitleTemplate.NONE ? null : template;
+    }
+
+    private @Nullable String findTitle(Quest quest, Task task) {
+        String title = quest.getProgressPlaceholders().get(task.getId()); // custom title
+        if (title != null) {
+            return title;
+        }
+
+        title = quest.getProgressPlaceholders().get(task.getType()); // one title for all tasks of the same type
+        if (title != null) {
+            return title;
+        }
+
+        title = quest.getProgressPlaceholders().get("*"); // one title for all tasks
+        if (title != null) {
+            return title;
+        }
+
+        if (!useProgressAsFallback) {
+            return null;
+        }
+
+        return quest.getPlaceholders().get("progress"); // fallback title
+    }
+
+    private record TaskKey(String questId, String taskId) { }
+
+    private record Notification(TaskUtils.PendingTask pendingTask, Number amount) { }
+
+    private record QuestTitles(Quest quest, Map<String, TitleTemplate> templates) { }
+
+    /**
+     * A progress title split into literal text and task placeholders, such as {@code {this:progress}}.
+     */
+    private static final class TitleTemplate {
+
+        // marks tasks without a title, as a map cannot hold null
+        private static final TitleTemplate NONE = new TitleTemplate(List.of(), null);
+
+        private final List<Object> parts;
+        // the rendered title if it does not depend on any progress or PlaceholderAPI, otherwise null
+        private final String constant;
+
+        private TitleTemplate(List<Object> parts, String constant) {
+            this.parts = parts;
+            this.constant = constant;
+        }
+
+        private static TitleTemplate parse(@Nullable String title, boolean usePlaceholderAPI) {
+            if (title == null) {
+                return NONE;
+            }
+
+            List<Object> parts = new ArrayList<>();
+            Matcher matcher = QItemStack.taskPlaceholderPattern.matcher(title);
+            int last = 0;
+            while (matcher.find()) {
+                if (matcher.start() > last) {
+                    parts.add(title.substring(last, matcher.start()));
+                }
+                parts.add(new Placeholder(matcher.group(1), matcher.group(2), matcher.group()));
+                last = matcher.end();
+            }
+            if (last < title.length()) {
+                parts.add(title.substring(last));
+            }
+
+            boolean constant = !usePlaceholderAPI && parts.stream().noneMatch(part -> part instanceof Placeholder);
+            return new TitleTemplate(List.copyOf(parts), constant ? Chat.legacyColor(title) : null);
+        }
+
+        private String render(BukkitQuestsPlugin plugin, Player player, QuestProgress questProgress, TaskProgress taskProgress, boolean usePlaceholderAPI) {
+            if (constant != null) {
+                return constant;
+            }
+
+            StringBuilder builder = new StringBuilder();
+            for (Object part : parts) {
+                if (part instanceof Placeholder placeholder) {
+                    TaskProgress matchedTaskProgress = placeholder.taskId().equals("this")
+                            ? taskProgress
+                            : questProgress.getTaskProgress(placeholder.taskId());
+                    String replacement = matchedTaskProgress == null
+                            ? null
+                            : QItemStack.formatTaskPlaceholder(matchedTaskProgress, placeholder.placeholder());
+                    builder.append(replacement != null ? replacement : placeholder.text());
+                } else {
+                    builder.append((String) part);
+                }
+            }
+
+            String title = builder.toString();
+            if (usePlaceholderAPI) {
+                title = plugin.getPlaceholderAPIProcessor().apply(player, title);
+            }
+            return Chat.legacyColor(title);
+        }
+    }
+
+    private record Placeholder(String taskId, String placeholder, String text) { }
+}
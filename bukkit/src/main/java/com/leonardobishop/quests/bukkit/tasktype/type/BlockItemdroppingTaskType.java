@@ -50,16 +50,21 @@ public final class BlockItemdroppingTaskType extends BukkitTaskType {
             return;
         }
 
+        // the dropped items are usually picked up before a buffered replay, so read them now
+        List<ItemStack> items = event.getItems().stream().map(Item::getItemStack).toList();
+
+        handle(player, event.getBlockState(), items);
+    }
+
+    private void handle(Player player, BlockState state, List<ItemStack> items) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> handle(player, state, items));
             return;
         }
 
-        BlockState state = event.getBlockState();
-
-        List<Item> drops = event.getItems();
-        for (Item drop : drops) {
-            handle(player, qPlayer, state, drop.getItemStack());
+        for (ItemStack item : items) {
+            handle(player, qPlayer, state, item);
         }
     }
 
@@ -77,7 +82,7 @@ public final class BlockItemdroppingTaskType extends BukkitTaskType {
                     continue;
                 }
 
-                super.debug("Specific item is required; dropped item is of type '" + item.getType() + "'", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Specific item is required; dropped item is of type '" + item.getType() + "'", quest.getId(), task.getId(), player.getUniqueId());
 
                 QuestItem qi;
                 if ((qi = fixedQuestItemCache.get(quest.getId(), task.getId())) == null) {
@@ -101,7 +106,7 @@ public final class BlockItemdroppingTaskType extends BukkitTaskType {
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
 
@@ -9,10 +9,13 @@ import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
 import io.papermc.paper.event.block.PlayerShearBlockEvent;
+import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
+import org.jetbrains.annotations.Nullable;
 
 public final class BlockshearingTaskType extends BukkitTaskType {
 
@@ -34,27 +37,40 @@ public final class BlockshearingTaskType extends BukkitTaskType {
             return;
         }
 
+        handle(player, event.getBlock(), null);
+    }
+
+    /**
+     * @param state a snapshot of the block taken when the event was fired, or null to read the live block
+     */
+    private void handle(Player player, Block block, @Nullable BlockState state) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            // shearing changes the block, so snapshot it now
+            BlockState snapshot = state != null ? state : block.getState();
+            super.bufferUntilLoaded(player, () -> handle(player, block, snapshot));
             return;
         }
 
-        Block block = event.getBlock();
+        Material type = state != null ? state.getType() : block.getType();
 
         for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player sheared a block, current block is " + block.getType(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player sheared a block, current block is " + type, quest.getId(), task.getId(), player.getUniqueId());
 
-            if (!TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId())) {
+            boolean blockMatches = state != null
+                    ? TaskUtils.matchBlock(this, pendingTask, state, player.getUniqueId())
+                    : TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId());
+            if (!blockMatches) {
                 super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
             if (progress >= amount) {
@@ -89,6 +89,7 @@ public final class BreedingTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> handle(player, entity));
             return;
         }
 
@@ -108,7 +109,7 @@ public final class BreedingTaskType extends BukkitTaskType {
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress, eventAmount);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
             if (progress >= amount) {
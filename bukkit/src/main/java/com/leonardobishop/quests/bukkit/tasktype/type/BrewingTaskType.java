@@ -119,7 +119,7 @@ public final class BrewingTaskType extends BukkitTaskType {
 
             int amount = (int) task.getConfigValue("amount");
 
-            if ((int) taskProgress.getProgress() >= amount) {
+            if (taskProgress.getIntegerProgress() >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 taskProgress.setProgress(amount);
                 taskProgress.setCompleted(true);
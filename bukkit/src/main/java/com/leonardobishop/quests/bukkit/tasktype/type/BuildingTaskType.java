@@ -2,22 +2,27 @@ package com.leonardobishop.quests.bukkit.tasktype.type;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
+import com.leonardobishop.quests.bukkit.util.TaskIndex;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.bukkit.util.constraint.TaskConstraintSet;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.jetbrains.annotations.Nullable;
 
 public final class BuildingTaskType extends BukkitTaskType {
 
     private final BukkitQuestsPlugin plugin;
+    private TaskIndex<Material> blockIndex;
 
     public BuildingTaskType(BukkitQuestsPlugin plugin) {
         super("blockplace", TaskUtils.TASK_ATTRIBUTION_STRING, "Place a set amount of a block.", "blockplacecertain");
@@ -31,6 +36,11 @@ public final class BuildingTaskType extends BukkitTaskType {
         super.addConfigValidator(TaskUtils.useBooleanConfigValidator(this, "allow-negative-progress"));
     }
 
+    @Override
+    public void onReady() {
+        blockIndex = TaskUtils.buildBlockIndex(this, "block", "blocks");
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockPlace(BlockPlaceEvent event) {
         Player player = event.getPlayer();
@@ -38,27 +48,40 @@ public final class BuildingTaskType extends BukkitTaskType {
             return;
         }
 
+        handlePlace(player, event.getBlock(), null);
+    }
+
+    /**
+     * @param state a snapshot of the block taken when the event was fired, or null to read the live block
+     */
+    private void handlePlace(Player player, Block block, @Nullable BlockState state) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            // the block may have been changed by the time this runs again, so snapshot it now
+            BlockState snapshot = state != null ? state : block.getState();
+            super.bufferUntilLoaded(player, () -> handlePlace(player, block, snapshot));
             return;
         }
 
-        Block block = event.getBlock();
+        Material type = state != null ? state.getType() : block.getType();
 
-        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL)) {
+        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL, blockIndex, type)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player placed block " + block.getType(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player placed block " + type, quest.getId(), task.getId(), player.getUniqueId());
 
-            if (!TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId())) {
+            boolean blockMatches = state != null
+                    ? TaskUtils.matchBlock(this, pendingTask, state, player.getUniqueId())
+                    : TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId());
+            if (!blockMatches) {
                 super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
             if (progress >= amount) {
@@ -78,19 +101,29 @@ public final class BuildingTaskType extends BukkitTaskType {
             return;
         }
 
+        handleBreak(player, event.getBlock(), null);
+    }
+
+    /**
+     * @param state a snapshot of the block taken when the event was fired, or null to read the live block
+     */
+    private void handleBreak(Player player, Block block, @Nullable BlockState state) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            // the block may have been changed by the time this runs again, so snapshot it now
+            BlockState snapshot = state != null ? state : block.getState();
+            super.bufferUntilLoaded(player, () -> handleBreak(player, block, snapshot));
             return;
         }
 
-        Block block = event.getBlock();
+        Material type = state != null ? state.getType() : block.getType();
 
-        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL)) {
+        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL, blockIndex, type)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player mined block " + block.getType(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player mined block " + type, quest.getId(), task.getId(), player.getUniqueId());
 
             boolean reverseIfBroken = TaskUtils.getConfigBoolean(task, "reverse-if-broken");
             if (!reverseIfBroken) {
@@ -99,7 +132,10 @@ public final class BuildingTaskType extends BukkitTaskType {
 
             super.debug("reverse-if-broken is enabled, checking block", quest.getId(), task.getId(), player.getUniqueId());
 
-            if (!TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId())) {
+            boolean blockMatches = state != null
+                    ? TaskUtils.matchBlock(this, pendingTask, state, player.getUniqueId())
+                    : TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId());
+            if (!blockMatches) {
                 super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
@@ -112,7 +148,7 @@ public final class BuildingTaskType extends BukkitTaskType {
             }
 
             int progress = TaskUtils.decrementIntegerTaskProgress(taskProgress);
-            super.debug("Decrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Decrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
             TaskUtils.sendTrackAdvancement(player, quest, task, pendingTask, amount);
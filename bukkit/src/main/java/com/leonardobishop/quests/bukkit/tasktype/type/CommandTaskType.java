@@ -34,6 +34,7 @@ public final class CommandTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> onPlayerCommandPreprocess(event));
             return;
         }
 
@@ -45,13 +45,18 @@ public final class CompostingTaskType extends BukkitTaskType {
             return;
         }
 
+        handle(player, event.getItem());
+    }
+
+    private void handle(Player player, ItemStack item) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            // the composted item is taken from the player's hand, so snapshot it now
+            ItemStack itemSnapshot = item.clone();
+            super.bufferUntilLoaded(player, () -> handle(player, itemSnapshot));
             return;
         }
 
-        ItemStack item = event.getItem();
-
         for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
@@ -65,7 +70,7 @@ public final class CompostingTaskType extends BukkitTaskType {
                     qi = fetchedItem;
                 }
 
-                super.debug("Player composted item of type " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Player composted item of type " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
 
                 boolean exactMatch = TaskUtils.getConfigBoolean(task, "exact-match", true);
                 if (!qi.compareItemStack(item, exactMatch)) {
@@ -75,7 +80,7 @@ public final class CompostingTaskType extends BukkitTaskType {
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
 
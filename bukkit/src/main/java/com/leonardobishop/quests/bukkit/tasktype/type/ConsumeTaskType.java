@@ -47,6 +47,7 @@ public final class ConsumeTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> onPlayerItemConsume(event));
             return;
         }
 
@@ -65,7 +66,7 @@ public final class ConsumeTaskType extends BukkitTaskType {
                     qi = fetchedItem;
                 }
 
-                super.debug("Player consumed item of type " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Player consumed item of type " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
 
                 boolean exactMatch = TaskUtils.getConfigBoolean(task, "exact-match", true);
                 if (!qi.compareItemStack(item, exactMatch)) {
@@ -75,7 +76,7 @@ public final class ConsumeTaskType extends BukkitTaskType {
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
 
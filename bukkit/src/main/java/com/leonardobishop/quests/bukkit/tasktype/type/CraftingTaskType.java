@@ -55,11 +55,6 @@ public final class CraftingTaskType extends BukkitTaskType {
             return;
         }
 
-        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
-        if (qPlayer == null) {
-            return;
-        }
-
         ItemStack item = event.getCurrentItem();
 
         int eventAmount = item.getAmount();
@@ -81,6 +76,18 @@ public final class CraftingTaskType extends BukkitTaskType {
             }
         }
 
+        handle(player, item, eventAmount);
+    }
+
+    private void handle(Player player, ItemStack item, int eventAmount) {
+        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
+        if (qPlayer == null) {
+            // the result slot is emptied once the craft goes through, so snapshot the item now
+            ItemStack itemSnapshot = item.clone();
+            super.bufferUntilLoaded(player, () -> handle(player, itemSnapshot, eventAmount));
+            return;
+        }
+
         for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
@@ -108,7 +115,7 @@ public final class CraftingTaskType extends BukkitTaskType {
 
             int amount = (int) task.getConfigValue("amount");
 
-            if ((int) taskProgress.getProgress() >= amount) {
+            if (taskProgress.getIntegerProgress() >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 taskProgress.setProgress(amount);
                 taskProgress.setCompleted(true);
@@ -41,6 +41,7 @@ public final class DealDamageTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> onDamage(event));
             return;
         }
 
@@ -52,11 +53,11 @@ public final class DealDamageTaskType extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player damaged " + entity.getType() + " for " + damage, quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player damaged " + entity.getType() + " for " + damage, quest.getId(), task.getId(), player.getUniqueId());
 
             boolean allowOnlyCreatures = TaskUtils.getConfigBoolean(task, "allow-only-creatures", true);
             if (allowOnlyCreatures && !(entity instanceof Creature)) {
-                super.debug(entity.getType() + " is not a creature but allow-only-creatures is true, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> entity.getType() + " is not a creature but allow-only-creatures is true, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
@@ -64,7 +65,7 @@ public final class DealDamageTaskType extends BukkitTaskType {
             double progress = Math.min(amount, TaskUtils.getDecimalTaskProgress(taskProgress) + damage);
 
             taskProgress.setProgress(progress);
-            super.debug("Updating task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (progress >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -74,7 +74,7 @@ public final class DistancefromTaskType extends BukkitTaskType {
             String worldString = (String) task.getConfigValue("world");
             World world = Bukkit.getWorld(worldString);
             if (!player.getWorld().equals(world)) {
-                super.debug("World " + worldString + " does not exist or isn't the player world, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "World " + worldString + " does not exist or isn't the player world, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
@@ -87,7 +87,7 @@ public final class DistancefromTaskType extends BukkitTaskType {
             Location location = new Location(world, x, y, z);
             double playerDistanceSquared = player.getLocation().distanceSquared(location);
 
-            super.debug("Player is " + playerDistanceSquared + "m squared away", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player is " + playerDistanceSquared + "m squared away", quest.getId(), task.getId(), player.getUniqueId());
 
             if (playerDistanceSquared > distanceSquared) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -8,6 +8,7 @@ import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import org.bukkit.Material;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -15,6 +16,7 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.enchantment.EnchantItemEvent;
 
 import java.util.List;
+import java.util.Map;
 
 public final class EnchantingTaskType extends BukkitTaskType {
 
@@ -37,8 +39,15 @@ public final class EnchantingTaskType extends BukkitTaskType {
 
         Player player = e.getEnchanter();
 
+        // the enchanted item stays in the table and may be changed or taken out before a buffered
+        // replay, so read its type now
+        handle(player, e.getItem().getType(), e.getEnchantsToAdd());
+    }
+
+    private void handle(Player player, Material itemType, Map<Enchantment, Integer> enchantsToAdd) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> handle(player, itemType, enchantsToAdd));
             return;
         }
 
@@ -51,7 +60,7 @@ public final class EnchantingTaskType extends BukkitTaskType {
 
             if (task.hasConfigKey("item")) {
                 QuestItem qi = TaskUtils.getConfigQuestItem(task, "item", "data");
-                if (!qi.getItemStack().getType().equals(e.getItem().getType())) {
+                if (!qi.getItemStack().getType().equals(itemType)) {
                     super.debug("Item does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                     continue;
                 }
@@ -70,27 +79,27 @@ public final class EnchantingTaskType extends BukkitTaskType {
                 for (String enchantment : enchantments) {
                     Enchantment enchantmentObject = Enchantment.getByName(enchantment);
                     if (enchantmentObject == null) {
-                        super.debug("Enchantment '" + enchantment + "' does not exist, skipping...", quest.getId(), task.getId(), player.getUniqueId());
+                        super.debug(() -> "Enchantment '" + enchantment + "' does not exist, skipping...", quest.getId(), task.getId(), player.getUniqueId());
                         continue;
                     }
-                    if (e.getEnchantsToAdd().containsKey(enchantmentObject)) {
-                        super.debug("Enchantments to add contains enchantment '" + enchantment + "'", quest.getId(), task.getId(), player.getUniqueId());
+                    if (enchantsToAdd.containsKey(enchantmentObject)) {
+                        super.debug(() -> "Enchantments to add contains enchantment '" + enchantment + "'", quest.getId(), task.getId(), player.getUniqueId());
                         if (task.hasConfigKey("min-level")) {
                             int level = (int) task.getConfigValue("min-level");
-                            super.debug("Minimum level of " + level + " is specified", quest.getId(), task.getId(), player.getUniqueId());
-                            if (e.getEnchantsToAdd().get(enchantmentObject) >= level) {
+                            super.debug(() -> "Minimum level of " + level + " is specified", quest.getId(), task.getId(), player.getUniqueId());
+                            if (enchantsToAdd.get(enchantmentObject) >= level) {
                                 hasEnchantment = true;
                                 super.debug("Item has minimum required level", quest.getId(), task.getId(), player.getUniqueId());
                                 break;
                             } else {
-                                super.debug("Item does not have minimum level (level = " + e.getEnchantsToAdd().get(enchantmentObject) + ")", quest.getId(), task.getId(), player.getUniqueId());
+                                super.debug(() -> "Item does not have minimum level (level = " + enchantsToAdd.get(enchantmentObject) + ")", quest.getId(), task.getId(), player.getUniqueId());
                             }
                         } else {
                             hasEnchantment = true;
                             break;
                         }
                     } else {
-                        super.debug("Enchantments to add does not contains enchantment '" + enchantment + "'", quest.getId(), task.getId(), player.getUniqueId());
+                        super.debug(() -> "Enchantments to add does not contains enchantment '" + enchantment + "'", quest.getId(), task.getId(), player.getUniqueId());
                     }
                 }
             }
@@ -103,7 +112,7 @@ public final class EnchantingTaskType extends BukkitTaskType {
             int enchantsNeeded = (int) task.getConfigValue("amount");
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (progress >= enchantsNeeded) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
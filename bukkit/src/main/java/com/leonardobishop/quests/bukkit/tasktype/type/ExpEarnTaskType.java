@@ -32,6 +32,7 @@ public final class ExpEarnTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(e.getPlayer().getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> onExpEarn(e));
             return;
         }
 
@@ -42,12 +43,12 @@ public final class ExpEarnTaskType extends BukkitTaskType {
 
             int amountEarned = e.getAmount();
 
-            super.debug("Player earned " + amountEarned + " XP", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player earned " + amountEarned + " XP", quest.getId(), task.getId(), player.getUniqueId());
 
             int expNeeded = (int) task.getConfigValue("amount");
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress, amountEarned);
-            super.debug("Updating task progress (now " + (progress) + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + (progress) + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (progress >= expNeeded) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -11,6 +11,7 @@ import com.leonardobishop.quests.common.quest.Task;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
 import org.bukkit.block.data.Ageable;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
@@ -18,6 +19,7 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -91,23 +93,33 @@ public final class FarmingTaskType extends BukkitTaskType {
     }
 
     private void handle(Player player, List<Block> blocks, String mode, boolean performAgeCheck) {
+        handle(player, blocks, null, mode, performAgeCheck);
+    }
+
+    /**
+     * @param states snapshots of the blocks taken when the event was fired, or null to read the live blocks
+     */
+    private void handle(Player player, List<Block> blocks, @Nullable List<BlockState> states, String mode, boolean performAgeCheck) {
         if (player.hasMetadata("NPC")) {
             return;
         }
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            // the crops are broken or reset by the time this runs again, so snapshot them now
+            List<BlockState> snapshots = states != null ? states : blocks.stream().map(Block::getState).toList();
+            super.bufferUntilLoaded(player, () -> handle(player, blocks, snapshots, mode, performAgeCheck));
             return;
         }
 
-        for (Block block : blocks) {
-            handle(player, qPlayer, block, mode, performAgeCheck);
+        for (int i = 0; i < blocks.size(); i++) {
+            handle(player, qPlayer, blocks.get(i), states != null ? states.get(i) : null, mode, performAgeCheck);
         }
     }
 
-    private void handle(Player player, QPlayer qPlayer, Block block, String mode, boolean performAgeCheck) {
+    private void handle(Player player, QPlayer qPlayer, Block block, @Nullable BlockState state, String mode, boolean performAgeCheck) {
         if (performAgeCheck) {
-            BlockData blockData = block.getBlockData();
+            BlockData blockData = state != null ? state.getBlockData() : block.getBlockData();
             if (!(blockData instanceof Ageable crop && crop.getAge() == crop.getMaximumAge() || plugin.getVersionSpecificHandler().isCaveVinesPlantWithBerries(blockData))) {
                 return;
             }
@@ -118,20 +130,23 @@ public final class FarmingTaskType extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player farmed a crop " + block.getType() + " (mode = " + mode + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player farmed a crop " + (state != null ? state.getType() : block.getType()) + " (mode = " + mode + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             String requiredMode = (String) task.getConfigValue("mode");
             if (requiredMode != null && !mode.equals(requiredMode)) {
                 super.debug("Mode does not match the required mode, continuing...", quest.getId(), task.getId(), player.getUniqueId());
             }
 
-            if (!TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId())) {
+            boolean blockMatches = state != null
+                    ? TaskUtils.matchBlock(this, pendingTask, state, player.getUniqueId())
+                    : TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId());
+            if (!blockMatches) {
                 super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
             if (progress >= amount) {
@@ -57,13 +57,17 @@ public final class FishingTaskType extends BukkitTaskType {
             return;
         }
 
+        // the caught item is usually picked up before a buffered replay, so read it now
+        handle(player, caught.getItemStack());
+    }
+
+    private void handle(Player player, ItemStack item) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> handle(player, item));
             return;
         }
 
-        ItemStack item = caught.getItemStack();
-
         for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
@@ -77,7 +81,7 @@ public final class FishingTaskType extends BukkitTaskType {
                     qi = fetchedItem;
                 }
 
-                super.debug("Player fished item of type " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Player fished item of type " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
 
                 boolean exactMatch = TaskUtils.getConfigBoolean(task, "exact-match", true);
                 if (!qi.compareItemStack(item, exactMatch)) {
@@ -87,7 +91,7 @@ public final class FishingTaskType extends BukkitTaskType {
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
 
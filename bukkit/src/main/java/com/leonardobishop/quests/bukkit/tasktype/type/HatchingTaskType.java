@@ -47,6 +47,7 @@ public final class HatchingTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> onThrownEggHatch(event));
             return;
         }
 
@@ -57,7 +58,7 @@ public final class HatchingTaskType extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player hatched " + hatchingType, quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player hatched " + hatchingType, quest.getId(), task.getId(), player.getUniqueId());
 
             if (!TaskUtils.matchEntity(this, pendingTask, hatchingType, player.getUniqueId())) {
                 super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
@@ -65,7 +66,7 @@ public final class HatchingTaskType extends BukkitTaskType {
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress, numHatches);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
 
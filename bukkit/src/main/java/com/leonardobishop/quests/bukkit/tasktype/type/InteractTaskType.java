@@ -12,11 +12,13 @@ import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
 public final class InteractTaskType extends BukkitTaskType {
 
@@ -47,14 +49,23 @@ public final class InteractTaskType extends BukkitTaskType {
             return;
         }
 
+        handle(player, event.getClickedBlock(), null, event.getItem());
+    }
+
+    /**
+     * @param state a snapshot of the block taken when the event was fired, or null to read the live block
+     */
+    private void handle(Player player, @Nullable Block block, @Nullable BlockState state, @Nullable ItemStack item) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            // the block and the held item may have been changed by the time this runs again,
+            // so snapshot both now
+            BlockState snapshot = state != null ? state : block != null ? block.getState() : null;
+            ItemStack itemSnapshot = item != null ? item.clone() : null;
+            super.bufferUntilLoaded(player, () -> handle(player, block, snapshot, itemSnapshot));
             return;
         }
 
-        Block block = event.getClickedBlock();
-        ItemStack item = event.getItem();
-
         for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
@@ -62,7 +73,10 @@ public final class InteractTaskType extends BukkitTaskType {
 
             super.debug("Player interacted", quest.getId(), task.getId(), player.getUniqueId());
 
-            if (!TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId())) {
+            boolean blockMatches = state != null
+                    ? TaskUtils.matchBlock(this, pendingTask, state, player.getUniqueId())
+                    : TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId());
+            if (!blockMatches) {
                 super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
@@ -73,7 +87,7 @@ public final class InteractTaskType extends BukkitTaskType {
                     continue;
                 }
 
-                super.debug("Specific item is required; player held item is of type '" + item.getType() + "'", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Specific item is required; player held item is of type '" + item.getType() + "'", quest.getId(), task.getId(), player.getUniqueId());
 
                 QuestItem qi;
                 if ((qi = fixedQuestItemCache.get(quest.getId(), task.getId())) == null) {
@@ -92,7 +106,7 @@ public final class InteractTaskType extends BukkitTaskType {
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
 
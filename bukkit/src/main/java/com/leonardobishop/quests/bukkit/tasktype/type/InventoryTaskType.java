@@ -124,7 +124,7 @@ public final class InventoryTaskType extends BukkitTaskType {
 
             boolean exactMatch = TaskUtils.getConfigBoolean(task, "exact-match", true);
             int[] amountPerSlot = TaskUtils.getAmountsPerSlot(player, qi, exactMatch);
-            super.debug("Player has " + amountPerSlot[36] + " of the required item", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player has " + amountPerSlot[36] + " of the required item", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
 
@@ -139,7 +139,7 @@ public final class InventoryTaskType extends BukkitTaskType {
                 // We must ALWAYS remove items if partial completion is allowed
                 // https://github.com/LMBishop/Quests/issues/375
                 TaskUtils.removeItemsInSlots(player, amountPerSlot, total);
-                super.debug("Removing " + total + " items from inventory", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Removing " + total + " items from inventory", quest.getId(), task.getId(), player.getUniqueId());
 
                 progress += total;
                 taskProgress.setProgress(progress);
@@ -152,7 +152,7 @@ public final class InventoryTaskType extends BukkitTaskType {
             } else {
                 int progress = Math.min(amountPerSlot[36], amount);
                 taskProgress.setProgress(progress);
-                super.debug("Updating task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Updating task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
                 if (progress >= amount) {
                     taskProgress.setCompleted(true);
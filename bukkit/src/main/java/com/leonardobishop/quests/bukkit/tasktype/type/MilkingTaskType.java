@@ -56,6 +56,7 @@ public final class MilkingTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> onPlayerInteractEntity(event));
             return;
         }
 
@@ -64,7 +65,7 @@ public final class MilkingTaskType extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player milked " + entity.getType(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player milked " + entity.getType(), quest.getId(), task.getId(), player.getUniqueId());
 
             if (!TaskUtils.matchEntity(this, pendingTask, entity, player.getUniqueId())) {
                 super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
@@ -77,7 +78,7 @@ public final class MilkingTaskType extends BukkitTaskType {
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
 
@@ -7,13 +7,16 @@ import com.leonardobishop.quests.bukkit.hook.coreprotect.AbstractCoreProtectHook
 import com.leonardobishop.quests.bukkit.hook.playerblocktracker.AbstractPlayerBlockTrackerHook;
 import com.leonardobishop.quests.bukkit.item.QuestItem;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
+import com.leonardobishop.quests.bukkit.util.TaskIndex;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.bukkit.util.constraint.TaskConstraintSet;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -21,11 +24,13 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
 public final class MiningTaskType extends BukkitTaskType {
 
     private final BukkitQuestsPlugin plugin;
     private final Table<String, String, QuestItem> fixedQuestItemCache = HashBasedTable.create();
+    private TaskIndex<Material> blockIndex;
 
     public MiningTaskType(BukkitQuestsPlugin plugin) {
         super("blockbreak", TaskUtils.TASK_ATTRIBUTION_STRING, "Break a set amount of a block.", "blockbreakcertain");
@@ -47,6 +52,7 @@ public final class MiningTaskType extends BukkitTaskType {
     @Override
     public void onReady() {
         fixedQuestItemCache.clear();
+        blockIndex = TaskUtils.buildBlockIndex(this, "block", "blocks");
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -56,21 +62,35 @@ public final class MiningTaskType extends BukkitTaskType {
             return;
         }
 
+        Block block = event.getBlock();
+        ItemStack item = plugin.getVersionSpecificHandler().getItemInMainHand(player);
+
+        handleBreak(player, block, null, item);
+    }
+
+    /**
+     * @param state a snapshot of the block taken when the event was fired, or null to read the live block
+     */
+    private void handleBreak(Player player, Block block, @Nullable BlockState state, @Nullable ItemStack item) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            // the block is gone and the held item may have changed by the time this runs again,
+            // so snapshot both now
+            BlockState snapshot = state != null ? state : block.getState();
+            ItemStack itemSnapshot = item != null ? item.clone() : null;
+            super.bufferUntilLoaded(player, () -> handleBreak(player, block, snapshot, itemSnapshot));
             return;
         }
 
-        Block block = event.getBlock();
-        ItemStack item = plugin.getVersionSpecificHandler().getItemInMainHand(player);
+        Material type = state != null ? state.getType() : block.getType();
         boolean silkTouchPresent = item != null && item.getEnchantmentLevel(Enchantment.SILK_TOUCH) > 0;
 
-        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL)) {
+        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL, blockIndex, type)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player mined block " + block.getType(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player mined block " + type, quest.getId(), task.getId(), player.getUniqueId());
 
             boolean allowSilkTouch = TaskUtils.getConfigBoolean(task, "allow-silk-touch", true);
             if (!allowSilkTouch && silkTouchPresent) {
@@ -80,7 +100,10 @@ public final class MiningTaskType extends BukkitTaskType {
 
             super.debug("allow-silk-touch is disabled, checking block", quest.getId(), task.getId(), player.getUniqueId());
 
-            if (!TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId())) {
+            boolean blockMatches = state != null
+                    ? TaskUtils.matchBlock(this, pendingTask, state, player.getUniqueId())
+                    : TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId());
+            if (!blockMatches) {
                 super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
@@ -91,7 +114,7 @@ public final class MiningTaskType extends BukkitTaskType {
                     continue;
                 }
 
-                super.debug("Specific item is required; player held item is of type '" + item.getType() + "'", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Specific item is required; player held item is of type '" + item.getType() + "'", quest.getId(), task.getId(), player.getUniqueId());
 
                 QuestItem qi;
                 if ((qi = fixedQuestItemCache.get(quest.getId(), task.getId())) == null) {
@@ -130,7 +153,7 @@ public final class MiningTaskType extends BukkitTaskType {
 
             Runnable increment = () -> {
                 int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-                super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
                 int amount = (int) task.getConfigValue("amount");
                 if (progress >= amount) {
@@ -158,7 +181,7 @@ public final class MiningTaskType extends BukkitTaskType {
                             increment.run();
                         }
                     }).exceptionally(throwable -> {
-                        super.debug("CoreProtect lookup failed: " + throwable.getMessage(), quest.getId(), task.getId(), player.getUniqueId());
+                        super.debug(() -> "CoreProtect lookup failed: " + throwable.getMessage(), quest.getId(), task.getId(), player.getUniqueId());
                         throwable.printStackTrace();
                         return null;
                     });
@@ -181,19 +204,29 @@ public final class MiningTaskType extends BukkitTaskType {
             return;
         }
 
+        handlePlace(player, event.getBlock(), null);
+    }
+
+    /**
+     * @param state a snapshot of the block taken when the event was fired, or null to read the live block
+     */
+    private void handlePlace(Player player, Block block, @Nullable BlockState state) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            // the block may have been changed by the time this runs again, so snapshot it now
+            BlockState snapshot = state != null ? state : block.getState();
+            super.bufferUntilLoaded(player, () -> handlePlace(player, block, snapshot));
             return;
         }
 
-        Block block = event.getBlock();
+        Material type = state != null ? state.getType() : block.getType();
 
-        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL)) {
+        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL, blockIndex, type)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player placed block " + block.getType(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player placed block " + type, quest.getId(), task.getId(), player.getUniqueId());
 
             boolean reverseIfPlaced = TaskUtils.getConfigBoolean(task, "reverse-if-placed");
             if (!reverseIfPlaced) {
@@ -202,7 +235,10 @@ public final class MiningTaskType extends BukkitTaskType {
 
             super.debug("reverse-if-placed is enabled, checking block", quest.getId(), task.getId(), player.getUniqueId());
 
-            if (!TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId())) {
+            boolean blockMatches = state != null
+                    ? TaskUtils.matchBlock(this, pendingTask, state, player.getUniqueId())
+                    : TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId());
+            if (!blockMatches) {
                 super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
@@ -215,7 +251,7 @@ public final class MiningTaskType extends BukkitTaskType {
             }
 
             int progress = TaskUtils.decrementIntegerTaskProgress(taskProgress);
-            super.debug("Decrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Decrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
             TaskUtils.sendTrackAdvancement(player, quest, task, pendingTask, amount);
@@ -43,7 +43,7 @@ public final class PermissionTaskType extends BukkitTaskType {
 
                         String permission = (String) task.getConfigValue("permission");
                         if (permission != null) {
-                            PermissionTaskType.super.debug("Checking permission '" + permission + "'", quest.getId(), task.getId(), player.getUniqueId());
+                            PermissionTaskType.super.debug(() -> "Checking permission '" + permission + "'", quest.getId(), task.getId(), player.getUniqueId());
                             if (player.hasPermission(permission)) {
                                 PermissionTaskType.super.debug("Player has permission", quest.getId(), task.getId(), player.getUniqueId());
                                 PermissionTaskType.super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
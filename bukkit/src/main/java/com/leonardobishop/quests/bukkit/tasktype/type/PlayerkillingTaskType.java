@@ -40,6 +40,7 @@ public final class PlayerkillingTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(killer.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(killer, () -> onMobKill(event));
             return;
         }
 
@@ -51,7 +52,7 @@ public final class PlayerkillingTaskType extends BukkitTaskType {
             int playerKillsNeeded = (int) task.getConfigValue("amount");
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), killer.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), killer.getUniqueId());
 
             if (progress >= playerKillsNeeded) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), killer.getUniqueId());
@@ -87,7 +87,7 @@ public final class PlaytimeTaskType extends BukkitTaskType {
 
             int minutes = (int) task.getConfigValue("minutes");
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (progress >= minutes) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
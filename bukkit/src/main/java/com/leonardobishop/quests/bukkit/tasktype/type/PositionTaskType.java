@@ -62,10 +62,10 @@ public final class PositionTaskType extends BukkitTaskType {
             if (worldString != null) {
                 World world = Bukkit.getWorld(worldString);
                 if (world == null) {
-                    super.debug("World " + worldString + " does not exist, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                    super.debug(() -> "World " + worldString + " does not exist, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                     continue;
                 } else if (!to.getWorld().equals(world)) {
-                    super.debug("Specific world is required, but the actual world " + to.getWorld().getName() + " does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                    super.debug(() -> "Specific world is required, but the actual world " + to.getWorld().getName() + " does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                     continue;
                 }
             }
@@ -78,7 +78,7 @@ public final class PositionTaskType extends BukkitTaskType {
             double distanceSquared = distanceSquared(location, to); // use own distanceSquared method to skip world validation
             Integer padding = (Integer) task.getConfigValue("distance-padding");
 
-            super.debug("Player is " + distanceSquared + " meters squared away (padding = " + padding + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player is " + distanceSquared + " meters squared away (padding = " + padding + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (padding != null && (distanceSquared <= padding * padding)) {
                 super.debug("Player is within distance padding", quest.getId(), task.getId(), player.getUniqueId());
@@ -41,6 +41,7 @@ public final class ReplenishingTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> onLootableInventoryReplenish(event));
             return;
         }
 
@@ -58,13 +59,13 @@ public final class ReplenishingTaskType extends BukkitTaskType {
             TaskProgress taskProgress = pendingTask.taskProgress();
 
             if (block != null) {
-                super.debug("Player replenished a block, current block is " + block.getType(), quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Player replenished a block, current block is " + block.getType(), quest.getId(), task.getId(), player.getUniqueId());
                 if (!TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId())) {
                     super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
                     continue;
                 }
             } else if (entity != null) {
-                super.debug("Player replenished an entity, current entity is " + entity.getType(), quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Player replenished an entity, current entity is " + entity.getType(), quest.getId(), task.getId(), player.getUniqueId());
                 if (!TaskUtils.matchEntity(this, pendingTask, entity, player.getUniqueId())) {
                     super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
                     continue;
@@ -74,7 +75,7 @@ public final class ReplenishingTaskType extends BukkitTaskType {
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
             if (progress >= amount) {
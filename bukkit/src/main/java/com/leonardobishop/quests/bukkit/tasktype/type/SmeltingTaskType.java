@@ -85,13 +85,18 @@ public final class SmeltingTaskType extends BukkitTaskType {
             }
         }
 
+        handle(player, item, eventAmount, event.getInventory().getType());
+    }
+
+    private void handle(Player player, ItemStack item, int eventAmount, InventoryType inventoryType) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            // the result slot is emptied once the click goes through, so snapshot the item now
+            ItemStack itemSnapshot = item.clone();
+            super.bufferUntilLoaded(player, () -> handle(player, itemSnapshot, eventAmount, inventoryType));
             return;
         }
 
-        final InventoryType inventoryType = event.getInventory().getType();
-
         for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
@@ -99,7 +104,7 @@ public final class SmeltingTaskType extends BukkitTaskType {
 
             final String mode = (String) task.getConfigValue("mode");
             if (mode != null && !inventoryType.name().equalsIgnoreCase(mode)) {
-                super.debug("Specific mode is required, but the actual mode '" + inventoryType + "' does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Specific mode is required, but the actual mode '" + inventoryType + "' does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
@@ -125,7 +130,7 @@ public final class SmeltingTaskType extends BukkitTaskType {
 
             int amount = (int) task.getConfigValue("amount");
 
-            if ((int) taskProgress.getProgress() >= amount) {
+            if (taskProgress.getIntegerProgress() >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 taskProgress.setProgress(amount);
                 taskProgress.setCompleted(true);
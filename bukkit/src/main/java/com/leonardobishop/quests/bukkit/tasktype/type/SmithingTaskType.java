@@ -19,6 +19,7 @@ import org.bukkit.event.inventory.ClickType;
 import org.bukkit.event.inventory.InventoryAction;
 import org.bukkit.event.inventory.SmithItemEvent;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 
@@ -68,11 +69,6 @@ public final class SmithingTaskType extends BukkitTaskType {
             return;
         }
 
-        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
-        if (qPlayer == null) {
-            return;
-        }
-
         ItemStack item = event.getCurrentItem();
 
         int eventAmount = item.getAmount();
@@ -87,6 +83,18 @@ public final class SmithingTaskType extends BukkitTaskType {
 
         final String recipeType = plugin.getVersionSpecificHandler().getSmithMode(event);
 
+        handle(player, item, eventAmount, recipeType);
+    }
+
+    private void handle(Player player, ItemStack item, int eventAmount, @Nullable String recipeType) {
+        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
+        if (qPlayer == null) {
+            // the result slot is emptied once the smith goes through, so snapshot the item now
+            ItemStack itemSnapshot = item.clone();
+            super.bufferUntilLoaded(player, () -> handle(player, itemSnapshot, eventAmount, recipeType));
+            return;
+        }
+
         for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskConstraintSet.ALL)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
@@ -97,7 +105,7 @@ public final class SmithingTaskType extends BukkitTaskType {
                 final String mode = (String) task.getConfigValue("mode");
 
                 if (!recipeType.equals(mode) && !"any".equals(mode)) {
-                    super.debug("Specific mode is required, but the actual mode '" + recipeType + "' does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                    super.debug(() -> "Specific mode is required, but the actual mode '" + recipeType + "' does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                     continue;
                 }
             }
@@ -124,7 +132,7 @@ public final class SmithingTaskType extends BukkitTaskType {
 
             int amount = (int) task.getConfigValue("amount");
 
-            if ((int) taskProgress.getProgress() >= amount) {
+            if (taskProgress.getIntegerProgress() >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 taskProgress.setProgress(amount);
                 taskProgress.setCompleted(true);
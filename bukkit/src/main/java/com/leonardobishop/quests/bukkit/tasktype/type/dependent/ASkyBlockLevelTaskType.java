@@ -39,12 +39,12 @@ public final class ASkyBlockLevelTaskType extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player island level updated to " + event.getLongLevel(), quest.getId(), task.getId(), event.getPlayer());
+            super.debug(() -> "Player island level updated to " + event.getLongLevel(), quest.getId(), task.getId(), event.getPlayer());
 
             long islandLevelNeeded = (long) (int) task.getConfigValue("level");
 
             taskProgress.setProgress(event.getLongLevel());
-            super.debug("Updating task progress (now " + event.getLongLevel() + ")", quest.getId(), task.getId(), event.getPlayer());
+            super.debug(() -> "Updating task progress (now " + event.getLongLevel() + ")", quest.getId(), task.getId(), event.getPlayer());
 
             if ((int) taskProgress.getProgress() >= islandLevelNeeded) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -61,10 +61,10 @@ public final class BentoBoxLevelTaskType extends BukkitTaskType {
                     long islandLevelNeeded = (long) (int) task.getConfigValue("level");
                     long newLevel = (long) event.getKeyValues().get("level");
 
-                    super.debug("Player island level updated to " + newLevel, quest.getId(), task.getId(), member);
+                    super.debug(() -> "Player island level updated to " + newLevel, quest.getId(), task.getId(), member);
 
                     taskProgress.setProgress(newLevel);
-                    super.debug("Updating task progress (now " + newLevel + ")", quest.getId(), task.getId(), player.getUniqueId());
+                    super.debug(() -> "Updating task progress (now " + newLevel + ")", quest.getId(), task.getId(), player.getUniqueId());
 
                     if (newLevel >= islandLevelNeeded) {
                         super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
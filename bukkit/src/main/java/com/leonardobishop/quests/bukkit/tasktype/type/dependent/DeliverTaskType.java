@@ -72,7 +72,7 @@ public abstract class DeliverTaskType<T> extends BukkitTaskType {
             T configNPCId = getNPCId(task);
             if (configNPCId != null) {
                 if (!npcId.equals(configNPCId)) {
-                    super.debug("NPC id " + npcId + " does not match required id, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                    super.debug(() -> "NPC id " + npcId + " does not match required id, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                     continue;
                 }
             } else {
@@ -107,7 +107,7 @@ public abstract class DeliverTaskType<T> extends BukkitTaskType {
 
             boolean exactMatch = TaskUtils.getConfigBoolean(task, "exact-match", true);
             int[] amountPerSlot = TaskUtils.getAmountsPerSlot(player, qi, exactMatch);
-            super.debug("Player has " + amountPerSlot[36] + " of the required item", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player has " + amountPerSlot[36] + " of the required item", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
 
@@ -122,7 +122,7 @@ public abstract class DeliverTaskType<T> extends BukkitTaskType {
                 // We must ALWAYS remove items if partial completion is allowed
                 // https://github.com/LMBishop/Quests/issues/375
                 TaskUtils.removeItemsInSlots(player, amountPerSlot, total);
-                super.debug("Removing " + total + " items from inventory", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Removing " + total + " items from inventory", quest.getId(), task.getId(), player.getUniqueId());
 
                 progress += total;
                 taskProgress.setProgress(progress);
@@ -135,7 +135,7 @@ public abstract class DeliverTaskType<T> extends BukkitTaskType {
             } else {
                 int progress = Math.min(amountPerSlot[36], amount);
                 taskProgress.setProgress(progress);
-                super.debug("Updating task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Updating task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
                 if (progress >= amount) {
                     taskProgress.setCompleted(true);
@@ -53,10 +53,10 @@ public final class EssentialsBalanceTaskType extends BukkitTaskType {
         TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
 
         BigDecimal balance = ess.getUser(player).getMoney();
-        super.debug("Player balance updated to " + balance, quest.getId(), task.getId(), player.getUniqueId());
+        super.debug(() -> "Player balance updated to " + balance, quest.getId(), task.getId(), player.getUniqueId());
 
         taskProgress.setProgress(balance);
-        super.debug("Updating task progress (now " + balance + ")", quest.getId(), task.getId(), player.getUniqueId());
+        super.debug(() -> "Updating task progress (now " + balance + ")", quest.getId(), task.getId(), player.getUniqueId());
 
         int earningsNeeded = (int) task.getConfigValue("amount");
         BigDecimal amount = BigDecimal.valueOf(earningsNeeded);
@@ -84,10 +84,10 @@ public final class EssentialsBalanceTaskType extends BukkitTaskType {
             TaskProgress taskProgress = pendingTask.taskProgress();
 
             BigDecimal balance = event.getNewBalance();
-            super.debug("Player balance updated to " + balance, quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player balance updated to " + balance, quest.getId(), task.getId(), player.getUniqueId());
 
             taskProgress.setProgress(balance);
-            super.debug("Updating task progress (now " + balance + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + balance + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int earningsNeeded = (int) task.getConfigValue("amount");
             BigDecimal amount = BigDecimal.valueOf(earningsNeeded);
@@ -35,6 +35,7 @@ public final class EssentialsMoneyEarnTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> onUserBalanceUpdate(event));
             return;
         }
 
@@ -44,7 +45,7 @@ public final class EssentialsMoneyEarnTaskType extends BukkitTaskType {
             TaskProgress taskProgress = pendingTask.taskProgress();
 
             BigDecimal balance = event.getNewBalance();
-            super.debug("Player balance updated to " + balance, quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player balance updated to " + balance, quest.getId(), task.getId(), player.getUniqueId());
 
             Object progress = taskProgress.getProgress();
             BigDecimal current;
@@ -61,7 +62,7 @@ public final class EssentialsMoneyEarnTaskType extends BukkitTaskType {
             BigDecimal newProgress = current.add(difference);
 
             taskProgress.setProgress(newProgress);
-            super.debug("Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int earningsNeeded = (int) task.getConfigValue("amount");
             BigDecimal amount = BigDecimal.valueOf(earningsNeeded);
@@ -105,6 +105,7 @@ public final class FabledSkyBlockLevelTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> handle(player, level));
             return;
         }
 
@@ -113,10 +114,10 @@ public final class FabledSkyBlockLevelTaskType extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player island level updated to " + level, quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player island level updated to " + level, quest.getId(), task.getId(), player.getUniqueId());
 
             taskProgress.setProgress(level);
-            super.debug("Updating task progress (now " + level + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + level + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int islandLevelNeeded = (int) task.getConfigValue("level");
             if (level >= islandLevelNeeded) {
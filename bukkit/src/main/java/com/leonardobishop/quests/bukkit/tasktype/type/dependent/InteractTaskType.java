@@ -48,7 +48,7 @@ public abstract class InteractTaskType<T> extends BukkitTaskType {
             T configNPCId = getNPCId(task);
             if (configNPCId != null) {
                 if (!npcId.equals(configNPCId)) {
-                    super.debug("NPC id " + npcId + " does not match required id, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                    super.debug(() -> "NPC id " + npcId + " does not match required id, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                     continue;
                 }
             } else {
@@ -57,10 +57,10 @@ public final class IridiumSkyblockValueTaskType extends BukkitTaskType {
 
                 int islandValueNeeded = (int) task.getConfigValue("value");
 
-                super.debug("Player island level updated to " + event.getIslandWorth(), quest.getId(), task.getId(), uuid);
+                super.debug(() -> "Player island level updated to " + event.getIslandWorth(), quest.getId(), task.getId(), uuid);
 
                 taskProgress.setProgress(event.getIslandWorth());
-                super.debug("Updating task progress (now " + event.getIslandWorth() + ")", quest.getId(), task.getId(), uuid);
+                super.debug(() -> "Updating task progress (now " + event.getIslandWorth() + ")", quest.getId(), task.getId(), uuid);
 
                 if (((double) taskProgress.getProgress()) >= islandValueNeeded) {
                     super.debug("Marking task as complete", quest.getId(), task.getId(), uuid);
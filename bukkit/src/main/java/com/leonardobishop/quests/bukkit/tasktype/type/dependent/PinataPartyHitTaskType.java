@@ -34,6 +34,7 @@ public final class PinataPartyHitTaskType extends BukkitTaskType {
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> onPinataHit(event));
             return;
         }
 
@@ -45,7 +46,7 @@ public final class PinataPartyHitTaskType extends BukkitTaskType {
             super.debug("Player hit pinata", quest.getId(), task.getId(), player.getUniqueId());
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
 
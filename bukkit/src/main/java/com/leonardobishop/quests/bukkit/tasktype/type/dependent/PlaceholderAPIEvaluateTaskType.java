@@ -128,13 +128,13 @@ public final class PlaceholderAPIEvaluateTaskType extends BukkitTaskType {
                 operator = null;
             }
 
-            super.debug("Operator = " + operator, quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Operator = " + operator, quest.getId(), task.getId(), player.getUniqueId());
 
             boolean async = TaskUtils.getConfigBoolean(task, "async", false);
             CompletableFuture<String> future = evaluate(player, placeholder, async);
 
             future.thenAccept(evaluatedString -> {
-                super.debug("Evaluation = '" + evaluatedString + "'", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Evaluation = '" + evaluatedString + "'", quest.getId(), task.getId(), player.getUniqueId());
 
                 if (operator != null) {
                     double evaluates;
@@ -47,14 +47,14 @@ public final class PlayerPointsEarnTaskType extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player points changed: " + change, quest.getId(), task.getId(), playerId);
+            super.debug(() -> "Player points changed: " + change, quest.getId(), task.getId(), playerId);
 
             int amount = (int) task.getConfigValue("amount");
 
             int progress = TaskUtils.getIntegerTaskProgress(taskProgress);
             int newProgress = change != 0 ? progress + change : 0;
             taskProgress.setProgress(newProgress);
-            super.debug("Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), playerId);
+            super.debug(() -> "Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), playerId);
 
             if (newProgress >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), playerId);
@@ -67,6 +67,7 @@ public abstract class ShopGUIPlusInteractionTaskType extends BukkitTaskType {
         Player player = result.getPlayer();
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(player, () -> onShopPostTransaction(event));
             return;
         }
 
@@ -95,7 +96,7 @@ public abstract class ShopGUIPlusInteractionTaskType extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player traded item (shop = " + shopId + ", item id = " + itemId + ", action = " + result.getShopAction().toString() + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player traded item (shop = " + shopId + ", item id = " + itemId + ", action = " + result.getShopAction().toString() + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             String taskShopId = (String) task.getConfigValue("shop-id");
             if (taskShopId == null || !taskShopId.equals(shopId)) {
@@ -115,7 +116,7 @@ public abstract class ShopGUIPlusInteractionTaskType extends BukkitTaskType {
             int newProgress = progress + amountBought;
             taskProgress.setProgress(newProgress);
 
-            super.debug("Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (newProgress >= amountNeeded) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -53,7 +53,7 @@ public final class SuperiorSkyblockLevelType extends BukkitTaskType {
                 BigDecimal bd = new BigDecimal(islandLevelNeeded);
 
                 taskProgress.setProgress(event.getNewLevel().doubleValue());
-                super.debug("Updating task progress (now " + event.getNewLevel().doubleValue() + ")", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Updating task progress (now " + event.getNewLevel().doubleValue() + ")", quest.getId(), task.getId(), player.getUniqueId());
 
                 if (event.getNewLevel().compareTo(bd) > 0) {
                     super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -28,6 +28,7 @@ public final class uSkyBlockLevelTaskType extends BukkitTaskType {
     public void onIslandLevel(uSkyBlockScoreChangedEvent event) {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(event.getPlayer().getUniqueId());
         if (qPlayer == null) {
+            super.bufferUntilLoaded(event.getPlayer(), () -> onIslandLevel(event));
             return;
         }
 
@@ -38,12 +39,12 @@ public final class uSkyBlockLevelTaskType extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player island level updated to " + event.getScore().getScore(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player island level updated to " + event.getScore().getScore(), quest.getId(), task.getId(), player.getUniqueId());
 
             long islandLevelNeeded = (long) (int) task.getConfigValue("level");
 
             taskProgress.setProgress(event.getScore().getScore());
-            super.debug("Updating task progress (now " + event.getScore().getScore() + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + event.getScore().getScore() + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (event.getScore().getScore() >= islandLevelNeeded) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
@@ -123,13 +124,14 @@ public class CommandUtils {
             Messages.COMMAND_QUEST_ADMIN_PLAYERNOTFOUND.send(sender, "{player}", name);
             return null;
         }
-        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(uuid);
-        if (qPlayer == null) {
+        QPlayer qPlayer = null;
+        CompletableFuture<QPlayer> future = plugin.getPlayerManager().getOrLoadPlayer(uuid);
+        if (!future.isDone()) {
             Messages.COMMAND_QUEST_ADMIN_LOADDATA.send(sender, "{player}", username);
-            try {
-                qPlayer = plugin.getPlayerManager().loadPlayer(uuid).get();
-            } catch (InterruptedException | ExecutionException ignored) {}
         }
+        try {
+            qPlayer = future.get();
+        } catch (InterruptedException | ExecutionException ignored) {}
         if (qPlayer == null) {
             Messages.COMMAND_QUEST_ADMIN_NODATA.send(sender, "{player}", username);
             return null;
@@ -149,37 +151,29 @@ public class CommandUtils {
             return;
         }
 
-        {
-            QPlayer qPlayer = plugin.getPlayerManager().getPlayer(uuid);
-            if (qPlayer != null) {
-                callback.accept(qPlayer);
-                return;
-            }
+        // online and cached offline players are available straight away
+        CompletableFuture<QPlayer> future = plugin.getPlayerManager().getOrLoadPlayer(uuid);
+        QPlayer cached = future.getNow(null);
+        if (cached != null) {
+            callback.accept(cached);
+            return;
         }
 
-        if (plugin.getPlayerManager().getPlayer(uuid) == null) {
-            Messages.COMMAND_QUEST_ADMIN_LOADDATA.send(sender, "{player}", username);
-            plugin.getPlayerManager().loadPlayer(uuid).thenAccept((qPlayer -> {
-                if (qPlayer == null) {
-                    Messages.COMMAND_QUEST_ADMIN_NODATA.send(sender, "{player}", username);
-                    return;
-                }
+        Messages.COMMAND_QUEST_ADMIN_LOADDATA.send(sender, "{player}", username);
+        future.thenAccept((qPlayer -> {
+            if (qPlayer == null) {
+                Messages.COMMAND_QUEST_ADMIN_NODATA.send(sender, "{player}", username);
+                return;
+            }
 
-                plugin.getScheduler().doSync(() -> callback.accept(qPlayer));
-            }));
-        }
+            plugin.getScheduler().doSync(() -> callback.accept(qPlayer));
+        }));
     }
 
     public static void doSafeSave(QPlayer qPlayer, QuestProgressFile questProgressFile, BukkitQuestsPlugin plugin) {
         if (Bukkit.getPlayer(qPlayer.getPlayerUUID()) == null) {
-            plugin.getScheduler().doAsync(() -> {
-                plugin.getPlayerManager().savePlayerSync(qPlayer.getPlayerUUID(), questProgressFile);
-                plugin.getScheduler().doSync(() -> {
-                    if (Bukkit.getPlayer(qPlayer.getPlayerUUID()) == null) {
-                        plugin.getPlayerManager().dropPlayer(qPlayer.getPlayerUUID());
-                    }
-                });
-            });
+            // the player stays in the offline player cache, so only the changes are written
+            plugin.getPlayerManager().savePlayer(qPlayer.getPlayerUUID(), questProgressFile);
         }
     }
 
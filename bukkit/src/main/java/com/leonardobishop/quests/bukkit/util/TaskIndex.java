@@ -0,0 +1,101 @@
+package com.leonardobishop.quests.bukkit.util;
+
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.TaskType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An inverted index of the tasks registered to a {@link TaskType}, keyed by the
+ * value an event is matched against (such as a block material or entity type).
+ * Looking up a key returns only the tasks which name that key, together with the
+ * tasks which do not filter by it at all, in quest registration order.
+ * <p>
+ * Task types should build their index in {@link TaskType#onReady()}.
+ *
+ * @param <K> the key type
+ */
+public final class TaskIndex<K extends Enum<K>> {
+
+    private final Map<K, List<IndexedTask>> indexed;
+    private final List<IndexedTask> unfiltered;
+
+    private TaskIndex(Map<K, List<IndexedTask>> indexed, List<IndexedTask> unfiltered) {
+        this.indexed = indexed;
+        this.unfiltered = unfiltered;
+    }
+
+    /**
+     * Build an index of all tasks of a task type.
+     *
+     * @param keyClass the key type
+     * @param type the task type to index
+     * @param keyFunction function returning the keys a task can match, or null if it can match any key
+     * @return task index
+     */
+    public static <K extends Enum<K>> @NotNull TaskIndex<K> build(@NotNull Class<K> keyClass, @NotNull TaskType type, @NotNull Function<Task, Collection<K>> keyFunction) {
+        Objects.requireNonNull(keyClass, "keyClass cannot be null");
+        Objects.requireNonNull(type, "type cannot be null");
+        Objects.requireNonNull(keyFunction, "keyFunction cannot be null");
+
+        Map<K, List<IndexedTask>> indexed = new EnumMap<>(keyClass);
+        List<IndexedTask> unfiltered = new ArrayList<>();
+
+        for (Quest quest : type.getRegisteredQuests()) {
+            for (Task task : quest.getTasksOfType(type.getType())) {
+                IndexedTask indexedTask = new IndexedTask(quest, task);
+                Collection<K> keys = keyFunction.apply(task);
+
+                if (keys == null) {
+                    unfiltered.add(indexedTask);
+                    for (List<IndexedTask> tasks : indexed.values()) {
+                        tasks.add(indexedTask);
+                    }
+                    continue;
+                }
+
+                for (K key : keys) {
+                    // keep registration order by seeding new keys with the unfiltered tasks seen so far
+                    indexed.computeIfAbsent(key, k -> new ArrayList<>(unfiltered)).add(indexedTask);
+                }
+            }
+        }
+
+        indexed.replaceAll((key, tasks) -> List.copyOf(tasks));
+        return new TaskIndex<>(indexed, List.copyOf(unfiltered));
+    }
+
+    /**
+     * Get the tasks which can possibly match a key.
+     *
+     * @param key the key
+     * @return immutable list of candidate tasks, grouped by quest
+     */
+    public @NotNull List<IndexedTask> getCandidates(@Nullable K key) {
+        if (key == null) {
+            return unfiltered;
+        }
+
+        List<IndexedTask> tasks = indexed.get(key);
+        return tasks != null ? tasks : unfiltered;
+    }
+
+    /**
+     * @return immutable map of keys to candidate tasks
+     */
+    public @NotNull Map<K, List<IndexedTask>> getIndexedTasks() {
+        return Collections.unmodifiableMap(indexed);
+    }
+
+    public record IndexedTask(Quest quest, Task task) { }
+}
@@ -3,13 +3,17 @@ package com.leonardobishop.quests.bukkit.util;
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.item.ParsedQuestItem;
 import com.leonardobishop.quests.bukkit.item.QuestItem;
-import com.leonardobishop.quests.bukkit.menu.itemstack.QItemStack;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
+import com.leonardobishop.quests.bukkit.tasktype.ProgressNotifier;
 import com.leonardobishop.quests.bukkit.util.chat.Chat;
 import com.leonardobishop.quests.bukkit.util.constraint.TaskConstraint;
 import com.leonardobishop.quests.bukkit.util.constraint.TaskConstraintSet;
+import com.leonardobishop.quests.bukkit.util.matcher.BlockMatcher;
+import com.leonardobishop.quests.bukkit.util.matcher.EnumMatcher;
+import com.leonardobishop.quests.bukkit.util.matcher.StringMatcher;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.config.ConfigProblemDescriptions;
+import com.leonardobishop.quests.common.player.ActiveTaskCache;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
@@ -34,7 +38,10 @@ import org.jetbrains.annotations.Nullable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @SuppressWarnings("deprecation")
@@ -116,163 +123,107 @@ public class TaskUtils {
     }
 
     public static double getDecimalTaskProgress(TaskProgress taskProgress) {
-        double progress;
-        if (taskProgress.getProgress() == null || !(taskProgress.getProgress() instanceof Double)) {
-            progress = 0.0;
-        } else {
-            progress = (double) taskProgress.getProgress();
-        }
-        return progress;
+        return taskProgress.getDoubleProgress();
     }
 
     public static int getIntegerTaskProgress(TaskProgress taskProgress) {
-        int progress;
-        if (taskProgress.getProgress() == null || !(taskProgress.getProgress() instanceof Integer)) {
-            progress = 0;
-        } else {
-            progress = (int) taskProgress.getProgress();
-        }
-        return progress;
+        return taskProgress.getIntegerProgress();
     }
 
     public static int incrementIntegerTaskProgress(TaskProgress taskProgress) {
-        int progress = getIntegerTaskProgress(taskProgress);
-        taskProgress.setProgress(++progress);
-        return progress;
+        return taskProgress.incrementIntegerProgress(1);
     }
 
     public static int incrementIntegerTaskProgress(TaskProgress taskProgress, int amount) {
-        int progress = getIntegerTaskProgress(taskProgress) + amount;
-        taskProgress.setProgress(progress);
-        return progress;
+        return taskProgress.incrementIntegerProgress(amount);
     }
 
     public static int decrementIntegerTaskProgress(TaskProgress taskProgress) {
-        int progress = getIntegerTaskProgress(taskProgress);
-        taskProgress.setProgress(--progress);
-        return progress;
+        return taskProgress.incrementIntegerProgress(-1);
     }
 
-	public static void sendTrackAdvancement(Player player, Quest quest, Task task, PendingTask pendingTask, Number amount) {
-        TaskProgress taskProgress = pendingTask.taskProgress();
-
-        boolean useActionBar = plugin.getConfig().getBoolean("options.actionbar.progress", false)
-                || (taskProgress.isCompleted() && plugin.getConfig().getBoolean("options.actionbar.complete", false));
-        boolean useBossBar = plugin.getConfig().getBoolean("options.bossbar.progress", false)
-                || (taskProgress.isCompleted() && plugin.getConfig().getBoolean("options.bossbar.complete", false));
-        if (!useActionBar && !useBossBar) {
-            return;
-        }
-
-        String title;
-
-        titleSearch:
-        {
-            title = quest.getProgressPlaceholders().get(task.getId()); // custom title
-            if (title != null) {
-                break titleSearch;
-            }
-
-            title = quest.getProgressPlaceholders().get(task.getType()); // one title for all tasks of the same type
-            if (title != null) {
-                break titleSearch;
-            }
-
-            title = quest.getProgressPlaceholders().get("*"); // one title for all tasks
-            if (title != null) {
-                break titleSearch;
-            }
-
-            boolean useProgressAsFallback = plugin.getQuestsConfig().getBoolean("options.use-progress-as-fallback", true);
-            if (!useProgressAsFallback) {
-                return;
-            }
-
-            title = quest.getPlaceholders().get("progress"); // fallback title
-            if (title != null) {
-                break titleSearch;
-            }
+    /**
+     * Send the action bar and boss bar progress notifications of a task, if enabled. Notifications sent for
+     * the same task in quick succession are coalesced, see {@link ProgressNotifier}.
+     *
+     * @param player the player
+     * @param quest the quest of the task
+     * @param task the task which progressed
+     * @param pendingTask the pending task
+     * @param amount the amount required to complete the task
+     */
+    public static void sendTrackAdvancement(Player player, Quest quest, Task task, PendingTask pendingTask, Number amount) {
+        plugin.getProgressNotifier().queue(player, pendingTask, amount);
+    }
 
-            return; // no valid title format found
-        }
+    public static List<PendingTask> getApplicableTasks(Player player, QPlayer qPlayer, TaskType type) {
+        return getApplicableTasks(player, qPlayer, type, TaskConstraintSet.NONE);
+    }
 
-        QuestProgress questProgress = pendingTask.questProgress();
-        title = QItemStack.processPlaceholders(title, questProgress, taskProgress);
+    public static List<PendingTask> getApplicableTasks(Player player, QPlayer qPlayer, TaskType type, TaskConstraintSet constraintSet) {
+        List<PendingTask> tasks = new ArrayList<>();
 
-        boolean usePlaceholderAPI = plugin.getQuestsConfig().getBoolean("options.progress-use-placeholderapi", false);
-        if (usePlaceholderAPI) {
-            title = plugin.getPlaceholderAPIProcessor().apply(player, title);
+        for (ActiveTaskCache.ActiveTask activeTask : qPlayer.getActiveTaskCache().getActiveTasks(type)) {
+            addApplicableTask(tasks, player, activeTask.quest(), activeTask.task(), activeTask.questProgress(), activeTask.taskProgress(), constraintSet);
         }
 
-        title = Chat.legacyColor(title);
+        return tasks;
+    }
 
-        if (useActionBar) {
-            sendTrackAdvancementActionBar(player, title);
+    /**
+     * Get the applicable tasks for a player, only considering the tasks which can possibly match a key.
+     * Falls back to all active tasks if the index has not been built yet.
+     *
+     * @param index the task index of the task type, or null
+     * @param key the key of the event, such as the block material
+     * @return list of pending tasks
+     */
+    public static <K extends Enum<K>> List<PendingTask> getApplicableTasks(Player player, QPlayer qPlayer, TaskType type, TaskConstraintSet constraintSet, @Nullable TaskIndex<K> index, @Nullable K key) {
+        if (index == null) {
+            return getApplicableTasks(player, qPlayer, type, constraintSet);
         }
 
-        if (useBossBar) {
-            sendTrackAdvancementBossBar(player, quest, task, taskProgress, title, amount);
+        List<TaskIndex.IndexedTask> candidates = index.getCandidates(key);
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
         }
-    }
 
-    private static void sendTrackAdvancementActionBar(Player player, String title) {
-        plugin.getActionBarHandle().sendActionBar(player, title);
-    }
-
-    private static void sendTrackAdvancementBossBar(Player player, Quest quest, Task task, TaskProgress taskProgress, String title, Number amount) {
-        Double bossBarProgress = null;
-
-        if (!taskProgress.isCompleted()) {
-            Object progress = taskProgress.getProgress();
-            if (progress instanceof Number number) {
-                bossBarProgress = number.doubleValue();
+        ActiveTaskCache activeTaskCache = qPlayer.getActiveTaskCache();
+        List<PendingTask> tasks = new ArrayList<>();
+        Quest lastQuest = null;
+        QuestProgress questProgress = null;
+
+        // candidates are grouped by quest, so only check each quest once
+        for (TaskIndex.IndexedTask candidate : candidates) {
+            Quest quest = candidate.quest();
+            if (quest != lastQuest) {
+                lastQuest = quest;
+                questProgress = activeTaskCache.getStartedQuestProgress(type, quest);
             }
 
-            if (bossBarProgress != null) { // if has value
-                bossBarProgress /= amount.doubleValue(); // calculate progress
+            if (questProgress == null) {
+                continue;
             }
-        }
-
-        int bossBarTime = plugin.getConfig().getInt("options.bossbar.time", 5);
 
-        if (bossBarProgress != null) {
-            float bossBarFloatProgress = (float) Math.min(1.0d, Math.max(0.0d, bossBarProgress));
-            plugin.getBossBarHandle().sendBossBar(player, quest.getId(), title, bossBarTime, bossBarFloatProgress);
-        } else {
-            plugin.getBossBarHandle().sendBossBar(player, quest.getId(), title, bossBarTime);
+            Task task = candidate.task();
+            addApplicableTask(tasks, player, quest, task, questProgress, questProgress.getTaskProgress(task), constraintSet);
         }
-    }
 
-    public static List<PendingTask> getApplicableTasks(Player player, QPlayer qPlayer, TaskType type) {
-        return getApplicableTasks(player, qPlayer, type, TaskConstraintSet.NONE);
+        return tasks;
     }
 
-    public static List<PendingTask> getApplicableTasks(Player player, QPlayer qPlayer, TaskType type, TaskConstraintSet constraintSet) {
-        List<PendingTask> tasks = new ArrayList<>();
-
-        for (Quest quest : type.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-
-                for (Task task : quest.getTasksOfType(type.getType())) {
-                    if (constraintSet.contains(TaskConstraint.WORLD)) {
-                        if (!TaskUtils.validateWorld(player, task)) {
-                            continue;
-                        }
-                    }
-
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
-
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
+    private static void addApplicableTask(List<PendingTask> tasks, Player player, Quest quest, Task task, QuestProgress questProgress, TaskProgress taskProgress, TaskConstraintSet constraintSet) {
+        if (taskProgress.isCompleted()) {
+            return;
+        }
 
-                    tasks.add(new PendingTask(quest, task, questProgress, taskProgress));
-                }
+        if (constraintSet.contains(TaskConstraint.WORLD)) {
+            if (!TaskUtils.validateWorld(player, task)) {
+                return;
             }
         }
 
-        return tasks;
+        tasks.add(new PendingTask(quest, task, questProgress, taskProgress));
     }
 
     public record PendingTask(Quest quest, Task task, QuestProgress questProgress, TaskProgress taskProgress) { }
@@ -282,7 +233,17 @@ public class TaskUtils {
     }
 
     public static boolean matchBlock(@NotNull BukkitTaskType type, @NotNull PendingTask pendingTask, @Nullable Block block, @NotNull UUID player, @NotNull String stringKey, @NotNull String listKey) {
-        return matchBlock(type, pendingTask, block != null ? block.getState() : null, player, stringKey, listKey);
+        BlockMatcher matcher = getBlockMatcher(pendingTask.task, stringKey, listKey);
+        if (matcher.isAny()) {
+            return true;
+        } else if (matcher.isEmpty()) {
+            return block == null;
+        } else if (block == null) {
+            return false;
+        }
+
+        // do not take a block state snapshot here as it is not needed to get the type
+        return matchBlock(type, pendingTask, matcher, block.getType(), block, null, player);
     }
 
     public static boolean matchBlock(@NotNull BukkitTaskType type, @NotNull PendingTask pendingTask, @Nullable BlockState state, @NotNull UUID player) {
@@ -290,61 +251,89 @@ public class TaskUtils {
     }
 
     public static boolean matchBlock(@NotNull BukkitTaskType type, @NotNull PendingTask pendingTask, @Nullable BlockState state, @NotNull UUID player, @NotNull String stringKey, @NotNull String listKey) {
-        Task task = pendingTask.task;
-
-        List<String> checkBlocks = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey(stringKey) ? stringKey : listKey);
-        if (checkBlocks == null) {
+        BlockMatcher matcher = getBlockMatcher(pendingTask.task, stringKey, listKey);
+        if (matcher.isAny()) {
             return true;
-        } else if (checkBlocks.isEmpty()) {
+        } else if (matcher.isEmpty()) {
             return state == null;
+        } else if (state == null) {
+            return false;
         }
 
-        Object configData = task.getConfigValue("data");
+        return matchBlock(type, pendingTask, matcher, state.getType(), null, state, player);
+    }
 
-        Material blockMaterial = state.getType();
-        // do not set block data here as it will initialize Legacy Material Support
-        Byte blockData = null;
+    private static boolean matchBlock(@NotNull BukkitTaskType type, @NotNull PendingTask pendingTask, @NotNull BlockMatcher matcher, @NotNull Material blockMaterial, @Nullable Block block, @Nullable BlockState state, @NotNull UUID player) {
+        Task task = pendingTask.task;
 
-        Material material;
-        int comparableData;
+        if (matcher.matchesModern(blockMaterial)) {
+            type.debug("Block match (modern)", pendingTask.quest.getId(), task.getId(), player);
+            return true;
+        }
 
-        for (String materialName : checkBlocks) {
-            String[] parts = materialName.split(":", 2);
-            if (parts.length == 2) {
-                comparableData = Integer.parseInt(parts[1]);
-            } else if (configData != null) {
-                comparableData = (int) configData;
-            } else {
-                comparableData = 0;
+        // do not get block data unless needed as it will initialize Legacy Material Support
+        if (matcher.requiresLegacyData(blockMaterial)) {
+            byte blockData = block != null ? block.getData() : state.getRawData();
+            if (matcher.matchesLegacy(blockMaterial, blockData)) {
+                type.debug("Block match (legacy)", pendingTask.quest.getId(), task.getId(), player);
+                return true;
             }
 
-            material = Material.getMaterial(parts[0]);
-
-            type.debug("Checking against block " + material + ":" + comparableData, pendingTask.quest.getId(), task.getId(), player);
+            type.debug("Block mismatch (legacy)", pendingTask.quest.getId(), task.getId(), player);
+            return false;
+        }
 
-            if (material == blockMaterial) {
-                if (parts.length == 1 && configData == null) {
-                    type.debug("Block match (modern)", pendingTask.quest.getId(), task.getId(), player);
-                    return true;
-                }
+        type.debug("Block mismatch (modern)", pendingTask.quest.getId(), task.getId(), player);
+        return false;
+    }
 
-                // delay legacy material support initialization
-                if (blockData == null) {
-                    blockData = state.getRawData();
-                }
+    /**
+     * Get the compiled block matcher of a task, parsing the task configuration if it has not been compiled yet.
+     *
+     * @param task the task
+     * @param stringKey key of the single value
+     * @param listKey key of the list value
+     * @return block matcher
+     */
+    public static @NotNull BlockMatcher getBlockMatcher(@NotNull Task task, @NotNull String stringKey, @NotNull String listKey) {
+        String compiledKey = getCompiledMatcherKey("block", stringKey, listKey);
+        BlockMatcher matcher = task.getCompiledValue(compiledKey, BlockMatcher.class);
+        if (matcher == null) {
+            List<String> checkBlocks = TaskUtils.getConfigStringList(task, task.hasConfigKey(stringKey) ? stringKey : listKey);
+            matcher = BlockMatcher.compile(checkBlocks, task.getConfigValue("data"));
+            task.setCompiledValue(compiledKey, matcher);
+        }
+        return matcher;
+    }
 
-                if (blockData == comparableData) {
-                    type.debug("Block match (legacy)", pendingTask.quest.getId(), task.getId(), player);
-                    return true;
-                }
+    /**
+     * Get the key a compiled matcher is stored under in a task. Matchers of different kinds, or for
+     * different enum types, may be compiled from the same config keys, so all of these are included.
+     */
+    private static @NotNull String getCompiledMatcherKey(@NotNull String kind, @NotNull String stringKey, @NotNull String listKey) {
+        return kind + ":" + stringKey + ":" + listKey;
+    }
 
-                type.debug("Block mismatch (legacy)", pendingTask.quest.getId(), task.getId(), player);
-            } else {
-                type.debug("Block mismatch (modern)", pendingTask.quest.getId(), task.getId(), player);
+    /**
+     * Build a task index of a task type keyed by the blocks each task can match.
+     *
+     * @param type the task type
+     * @param stringKey key of the single value
+     * @param listKey key of the list value
+     * @return task index
+     */
+    public static @NotNull TaskIndex<Material> buildBlockIndex(@NotNull TaskType type, @NotNull String stringKey, @NotNull String listKey) {
+        return TaskIndex.build(Material.class, type, task -> {
+            BlockMatcher matcher = getBlockMatcher(task, stringKey, listKey);
+            if (matcher.isAny()) {
+                return null;
             }
-        }
 
-        return false;
+            Set<Material> materials = EnumSet.noneOf(Material.class);
+            materials.addAll(matcher.getMaterials());
+            materials.addAll(matcher.getLegacyMaterials());
+            return materials;
+        });
     }
 
     public static boolean matchColorable(@NotNull BukkitTaskType type, @NotNull PendingTask pendingTask, @NotNull Colorable colorable, @NotNull UUID player) {
@@ -356,32 +345,19 @@ public class TaskUtils {
 
         DyeColor colorableColor = colorable.getColor();
 
-        List<String> checkColors = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey(stringKey) ? stringKey : listKey);
-        if (checkColors == null) {
+        EnumMatcher<DyeColor> matcher = getEnumMatcher(task, DyeColor.class, stringKey, listKey);
+        if (matcher.isAny()) {
             return true;
-        } else if (checkColors.isEmpty()) {
+        } else if (matcher.isEmpty()) {
             return colorableColor == null;
         }
 
-        if (colorableColor == null) {
-            return false;
-        }
-
-        DyeColor color;
-
-        for (String colorName : checkColors) {
-            color = DyeColor.valueOf(colorName);
-
-            type.debug("Checking against color " + color, pendingTask.quest.getId(), task.getId(), player);
-
-            if (color == colorableColor) {
-                type.debug("Color match", pendingTask.quest.getId(), task.getId(), player);
-                return true;
-            } else {
-                type.debug("Color mismatch", pendingTask.quest.getId(), task.getId(), player);
-            }
+        if (matcher.matches(colorableColor)) {
+            type.debug("Color match", pendingTask.quest.getId(), task.getId(), player);
+            return true;
         }
 
+        type.debug("Color mismatch", pendingTask.quest.getId(), task.getId(), player);
         return false;
     }
 
@@ -400,31 +376,35 @@ public class TaskUtils {
     public static boolean matchEntity(@NotNull BukkitTaskType type, @NotNull PendingTask pendingTask, @NotNull EntityType entityType, @NotNull UUID player, @NotNull String stringKey, @NotNull String listKey) {
         Task task = pendingTask.task;
 
-        List<String> checkMobs = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey(stringKey) ? stringKey : listKey);
-        if (checkMobs == null) {
+        EnumMatcher<EntityType> matcher = getEnumMatcher(task, EntityType.class, stringKey, listKey);
+        if (matcher.isAny()) {
             return true;
-        } else if (checkMobs.isEmpty()) {
-            return false;
         }
 
-        EntityType mob;
-
-        for (String mobName : checkMobs) {
-            mob = EntityType.valueOf(mobName);
-
-            type.debug("Checking against mob " + mob, pendingTask.quest.getId(), task.getId(), player);
-
-            if (mob == entityType) {
-                type.debug("Mob match", pendingTask.quest.getId(), task.getId(), player);
-                return true;
-            } else {
-                type.debug("Mob mismatch", pendingTask.quest.getId(), task.getId(), player);
-            }
+        if (matcher.matches(entityType)) {
+            type.debug("Mob match", pendingTask.quest.getId(), task.getId(), player);
+            return true;
         }
 
+        type.debug("Mob mismatch", pendingTask.quest.getId(), task.getId(), player);
         return false;
     }
 
+    /**
+     * Build a task index of a task type keyed by the entity types each task can match.
+     *
+     * @param type the task type
+     * @param stringKey key of the single value
+     * @param listKey key of the list value
+     * @return task index
+     */
+    public static @NotNull TaskIndex<EntityType> buildEntityIndex(@NotNull TaskType type, @NotNull String stringKey, @NotNull String listKey) {
+        return TaskIndex.build(EntityType.class, type, task -> {
+            EnumMatcher<EntityType> matcher = getEnumMatcher(task, EntityType.class, stringKey, listKey);
+            return matcher.isAny() ? null : matcher.getValues();
+        });
+    }
+
     private static Method getEntitySpawnReasonMethod;
 
     static {
@@ -442,10 +422,10 @@ public class TaskUtils {
     public static boolean matchSpawnReason(@NotNull BukkitTaskType type, @NotNull PendingTask pendingTask, @NotNull Entity entity, @NotNull UUID player, @NotNull String stringKey, @NotNull String listKey) {
         Task task = pendingTask.task;
 
-        List<String> checkSpawnReasons = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey(stringKey) ? stringKey : listKey);
-        if (checkSpawnReasons == null) {
+        EnumMatcher<CreatureSpawnEvent.SpawnReason> matcher = getEnumMatcher(task, CreatureSpawnEvent.SpawnReason.class, stringKey, listKey);
+        if (matcher.isAny()) {
             return true;
-        } else if (checkSpawnReasons.isEmpty()) {
+        } else if (matcher.isEmpty()) {
             return false;
         }
 
@@ -464,31 +444,43 @@ public class TaskUtils {
             return false;
         }
 
-        CreatureSpawnEvent.SpawnReason reason;
-
-        for (String spawnReasonName : checkSpawnReasons) {
-            reason = CreatureSpawnEvent.SpawnReason.valueOf(spawnReasonName);
-
-            type.debug("Checking against spawn reason " + reason, pendingTask.quest.getId(), task.getId(), player);
-
-            if (reason == spawnReason) {
-                type.debug("Spawn reason match", pendingTask.quest.getId(), task.getId(), player);
-                return true;
-            } else {
-                type.debug("Spawn reason mismatch", pendingTask.quest.getId(), task.getId(), player);
-            }
+        if (matcher.matches(spawnReason)) {
+            type.debug("Spawn reason match", pendingTask.quest.getId(), task.getId(), player);
+            return true;
         }
 
+        type.debug("Spawn reason mismatch", pendingTask.quest.getId(), task.getId(), player);
         return false;
     }
 
+    /**
+     * Get the compiled enum matcher of a task, parsing the task configuration if it has not been compiled yet.
+     *
+     * @param task the task
+     * @param enumClass the enum type
+     * @param stringKey key of the single value
+     * @param listKey key of the list value
+     * @return enum matcher
+     */
+    public static <E extends Enum<E>> @NotNull EnumMatcher<E> getEnumMatcher(@NotNull Task task, @NotNull Class<E> enumClass, @NotNull String stringKey, @NotNull String listKey) {
+        String compiledKey = getCompiledMatcherKey("enum:" + enumClass.getName(), stringKey, listKey);
+        EnumMatcher<?> compiled = task.getCompiledValue(compiledKey, EnumMatcher.class);
+        EnumMatcher<E> matcher = compiled != null ? compiled.cast(enumClass) : null;
+        if (matcher == null) {
+            List<String> checkValues = TaskUtils.getConfigStringList(task, task.hasConfigKey(stringKey) ? stringKey : listKey);
+            matcher = EnumMatcher.compile(enumClass, checkValues);
+            task.setCompiledValue(compiledKey, matcher);
+        }
+        return matcher;
+    }
+
     public static boolean matchString(@NotNull BukkitTaskType type, @NotNull PendingTask pendingTask, @Nullable String string, @NotNull UUID player, final @NotNull String stringKey, final @NotNull String listKey, boolean legacyColor, boolean ignoreCase) {
         Task task = pendingTask.task;
 
-        List<String> checkNames = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey(stringKey) ? stringKey : listKey);
-        if (checkNames == null) {
+        StringMatcher matcher = getStringMatcher(task, stringKey, listKey);
+        if (matcher.isAny()) {
             return true;
-        } else if (checkNames.isEmpty()) {
+        } else if (matcher.isEmpty()) {
             return string == null;
         }
 
@@ -500,20 +492,33 @@ public class TaskUtils {
             string = Chat.legacyColor(string);
         }
 
-        for (String name : checkNames) {
-            type.debug("Checking against name " + string, pendingTask.quest.getId(), task.getId(), player);
-
-            if (StringUtils.equals(string, name, ignoreCase)) {
-                type.debug("Name match", pendingTask.quest.getId(), task.getId(), player);
-                return true;
-            } else {
-                type.debug("Name mismatch", pendingTask.quest.getId(), task.getId(), player);
-            }
+        if (matcher.matches(string, ignoreCase)) {
+            type.debug("Name match", pendingTask.quest.getId(), task.getId(), player);
+            return true;
         }
 
+        type.debug("Name mismatch", pendingTask.quest.getId(), task.getId(), player);
         return false;
     }
 
+    /**
+     * Get the compiled string matcher of a task, parsing the task configuration if it has not been compiled yet.
+     *
+     * @param task the task
+     * @param stringKey key of the single value
+     * @param listKey key of the list value
+     * @return string matcher
+     */
+    public static @NotNull StringMatcher getStringMatcher(@NotNull Task task, @NotNull String stringKey, @NotNull String listKey) {
+        String compiledKey = getCompiledMatcherKey("string", stringKey, listKey);
+        StringMatcher matcher = task.getCompiledValue(compiledKey, StringMatcher.class);
+        if (matcher == null) {
+            matcher = StringMatcher.compile(TaskUtils.getConfigStringList(task, task.hasConfigKey(stringKey) ? stringKey : listKey));
+            task.setCompiledValue(compiledKey, matcher);
+        }
+        return matcher;
+    }
+
     public static int[] getAmountsPerSlot(Player player, QuestItem qi, boolean exactMatch) {
         int[] slotToAmount = new int[37];
         // idx 36 = total
@@ -0,0 +1,146 @@
+package com.leonardobishop.quests.bukkit.util.matcher;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable, pre-parsed form of a block list in a task configuration
+ * (e.g. {@code blocks: [STONE, "WOOL:14"]}).
+ */
+public final class BlockMatcher {
+
+    public static final BlockMatcher ANY = new BlockMatcher(true, false, Collections.emptySet(), Collections.emptyMap());
+    public static final BlockMatcher NONE = new BlockMatcher(false, true, Collections.emptySet(), Collections.emptyMap());
+
+    private final boolean any;
+    private final boolean empty;
+    private final Set<Material> materials;
+    private final Map<Material, BitSet> legacyData;
+
+    private BlockMatcher(boolean any, boolean empty, Set<Material> materials, Map<Material, BitSet> legacyData) {
+        this.any = any;
+        this.empty = empty;
+        this.materials = materials;
+        this.legacyData = legacyData;
+    }
+
+    /**
+     * Compile a list of materials, optionally suffixed with legacy data values. Unknown materials
+     * (e.g. ones added in a later server version) are ignored, so a list of only unknown materials
+     * compiles to a matcher which never matches.
+     *
+     * @param names list of material names, or null if the task does not filter blocks
+     * @param configData the data value used for entries without an explicit one, or null
+     * @return block matcher
+     */
+    public static @NotNull BlockMatcher compile(@Nullable List<String> names, @Nullable Object configData) {
+        if (names == null) {
+            return ANY;
+        } else if (names.isEmpty()) {
+            return NONE;
+        }
+
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+        Map<Material, BitSet> legacyData = new EnumMap<>(Material.class);
+
+        for (String name : names) {
+            String[] parts = name.split(":", 2);
+
+            Material material = Material.getMaterial(parts[0]);
+            if (material == null) {
+                continue;
+            }
+
+            int comparableData;
+            if (parts.length == 2) {
+                try {
+                    comparableData = Integer.parseInt(parts[1]);
+                } catch (NumberFormatException ignored) {
+                    continue;
+                }
+            } else if (configData instanceof Integer data) {
+                comparableData = data;
+            } else {
+                materials.add(material);
+                continue;
+            }
+
+            // data is compared against a signed byte
+            if (comparableData >= Byte.MIN_VALUE && comparableData <= Byte.MAX_VALUE) {
+                legacyData.computeIfAbsent(material, m -> new BitSet(256)).set(comparableData & 0xFF);
+            }
+        }
+
+        return new BlockMatcher(false, false, materials, legacyData);
+    }
+
+    /**
+     * @return true if no block filter is configured
+     */
+    public boolean isAny() {
+        return any;
+    }
+
+    /**
+     * @return true if an empty block list is configured, which only matches the absence of a block
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * @return the materials this matcher can match, regardless of their data
+     */
+    public @NotNull Set<Material> getMaterials() {
+        return Collections.unmodifiableSet(materials);
+    }
+
+    /**
+     * @return the materials this matcher can only match with specific legacy data
+     */
+    public @NotNull Set<Material> getLegacyMaterials() {
+        return Collections.unmodifiableSet(legacyData.keySet());
+    }
+
+    /**
+     * Check if a material matches without needing its legacy data.
+     *
+     * @param material the material
+     * @return true if matched
+     */
+    public boolean matchesModern(@NotNull Material material) {
+        return materials.contains(material);
+    }
+
+    /**
+     * Check if any legacy data values are configured for a material. Reading block data
+     * initializes Legacy Material Support, so it should only be read if this returns true.
+     *
+     * @param material the material
+     * @return true if {@link #matchesLegacy(Material, byte)} should be checked
+     */
+    public boolean requiresLegacyData(@NotNull Material material) {
+        return legacyData.containsKey(material);
+    }
+
+    /**
+     * Check if a material with specific legacy data matches.
+     *
+     * @param material the material
+     * @param data the legacy data
+     * @return true if matched
+     */
+    public boolean matchesLegacy(@NotNull Material material, byte data) {
+        BitSet dataValues = legacyData.get(material);
+        return dataValues != null && dataValues.get(data & 0xFF);
+    }
+}
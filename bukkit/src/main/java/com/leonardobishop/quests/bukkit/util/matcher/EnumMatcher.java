@@ -0,0 +1,96 @@
+package com.leonardobishop.quests.bukkit.util.matcher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable, pre-parsed form of a list of enum constant names in a task configuration
+ * (e.g. {@code mobs: [ZOMBIE, SKELETON]}).
+ *
+ * @param <E> the enum type
+ */
+public final class EnumMatcher<E extends Enum<E>> {
+
+    private final Class<E> enumClass;
+    private final boolean any;
+    private final boolean empty;
+    private final Set<E> values;
+
+    private EnumMatcher(Class<E> enumClass, boolean any, boolean empty, Set<E> values) {
+        this.enumClass = enumClass;
+        this.any = any;
+        this.empty = empty;
+        this.values = values;
+    }
+
+    /**
+     * Compile a list of enum constant names. Unknown names are ignored, as these
+     * are already reported by the config validators when quests are loaded, so a list
+     * of only unknown names compiles to a matcher which never matches.
+     *
+     * @param enumClass the enum type
+     * @param names list of names, or null if the task does not filter by this type
+     * @return enum matcher
+     */
+    public static <E extends Enum<E>> @NotNull EnumMatcher<E> compile(@NotNull Class<E> enumClass, @Nullable List<String> names) {
+        if (names == null) {
+            return new EnumMatcher<>(enumClass, true, false, Collections.emptySet());
+        } else if (names.isEmpty()) {
+            return new EnumMatcher<>(enumClass, false, true, Collections.emptySet());
+        }
+
+        Set<E> values = EnumSet.noneOf(enumClass);
+        for (String name : names) {
+            try {
+                values.add(Enum.valueOf(enumClass, name));
+            } catch (IllegalArgumentException ignored) { }
+        }
+
+        return new EnumMatcher<>(enumClass, false, false, values);
+    }
+
+    /**
+     * Cast this matcher to a specific enum type.
+     *
+     * @param enumClass the enum type
+     * @return this matcher, or null if it is of a different enum type
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Enum<T>> @Nullable EnumMatcher<T> cast(@NotNull Class<T> enumClass) {
+        return this.enumClass == enumClass ? (EnumMatcher<T>) this : null;
+    }
+
+    /**
+     * @return true if no filter is configured
+     */
+    public boolean isAny() {
+        return any;
+    }
+
+    /**
+     * @return true if an empty list is configured
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * @return the values this matcher can match
+     */
+    public @NotNull Set<E> getValues() {
+        return Collections.unmodifiableSet(values);
+    }
+
+    /**
+     * @param value the value to check
+     * @return true if matched
+     */
+    public boolean matches(@Nullable E value) {
+        return any || value != null && values.contains(value);
+    }
+}
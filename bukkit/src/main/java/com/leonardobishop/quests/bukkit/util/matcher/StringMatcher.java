@@ -0,0 +1,75 @@
+package com.leonardobishop.quests.bukkit.util.matcher;
+
+import com.leonardobishop.quests.bukkit.util.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable, pre-parsed form of a list of strings in a task configuration
+ * (e.g. {@code names: ["&cBoss"]}).
+ */
+public final class StringMatcher {
+
+    public static final StringMatcher ANY = new StringMatcher(null);
+
+    private final String[] values;
+    private final Set<String> valueSet;
+
+    private StringMatcher(String[] values) {
+        this.values = values;
+        this.valueSet = values != null ? new HashSet<>(List.of(values)) : null;
+    }
+
+    /**
+     * @param names list of strings, or null if the task does not filter by this value
+     * @return string matcher
+     */
+    public static @NotNull StringMatcher compile(@Nullable List<String> names) {
+        if (names == null) {
+            return ANY;
+        }
+
+        return new StringMatcher(names.toArray(new String[0]));
+    }
+
+    /**
+     * @return true if no filter is configured
+     */
+    public boolean isAny() {
+        return values == null;
+    }
+
+    /**
+     * @return true if an empty list is configured, which only matches the absence of a string
+     */
+    public boolean isEmpty() {
+        return values != null && values.length == 0;
+    }
+
+    /**
+     * @param string the string to check
+     * @param ignoreCase whether case should be ignored
+     * @return true if matched
+     */
+    public boolean matches(@NotNull String string, boolean ignoreCase) {
+        if (values == null) {
+            return true;
+        }
+
+        if (!ignoreCase) {
+            return valueSet.contains(string);
+        }
+
+        for (String value : values) {
+            if (StringUtils.equals(string, value, true)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
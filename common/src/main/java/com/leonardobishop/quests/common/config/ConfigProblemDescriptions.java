@@ -115,6 +115,11 @@ public enum ConfigProblemDescriptions {
                     "This may be the result of a cascading error<br>" +
                     "if '%s' failed to load, or a mis-typed ID."
     ),
+    REQUIREMENT_CYCLE("Quest '%s' can never be unlocked, as its requirements form a cycle",
+                    "The requirements of this quest lead back to itself<br>" +
+                    "(directly or through other quests), or it requires<br>" +
+                    "a quest which is part of such a cycle."
+    ),
     NOT_ACCEPTED_VALUE("Value '%s' is not in the list of accepted values for task %s", null);
 
     private final String description;
@@ -0,0 +1,148 @@
+package com.leonardobishop.quests.common.player;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.quest.Category;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.TaskType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The active task cache stores, for each {@link TaskType}, the tasks of all quests a player has effectively
+ * started, so that task types do not have to test every registered quest on every event.
+ * <p>
+ * Cached entries are rebuilt lazily whenever the state version of the players {@link QuestProgressFile} changes
+ * (i.e. a quest is started, completed, cancelled, expired or reset), when a quest cooldown runs out, or when
+ * the cache is invalidated (e.g. on reload). Since there is no way to be notified of permission changes,
+ * entries which depend on quest or category permissions are also refreshed periodically.
+ */
+public class ActiveTaskCache {
+
+    private final Quests plugin;
+    private final QPlayer qPlayer;
+    private final Map<TaskType, Entry> entries = new ConcurrentHashMap<>();
+
+    public ActiveTaskCache(Quests plugin, QPlayer qPlayer) {
+        this.plugin = plugin;
+        this.qPlayer = qPlayer;
+    }
+
+    /**
+     * Get the tasks of a specific type in quests the player has effectively started. Tasks which
+     * have been completed are included, and should be skipped by the caller.
+     *
+     * @param type the task type
+     * @return immutable list of active tasks, grouped by quest
+     */
+    public @NotNull List<ActiveTask> getActiveTasks(@NotNull TaskType type) {
+        Objects.requireNonNull(type, "type cannot be null");
+
+        return getEntry(type).tasks;
+    }
+
+    /**
+     * Get the quest progress of a quest registered to a task type, if the player has effectively started it.
+     *
+     * @param type the task type the quest is registered to
+     * @param quest the quest
+     * @return {@link QuestProgress}, or null if the quest is not started
+     */
+    public @Nullable QuestProgress getStartedQuestProgress(@NotNull TaskType type, @NotNull Quest quest) {
+        Objects.requireNonNull(type, "type cannot be null");
+        Objects.requireNonNull(quest, "quest cannot be null");
+
+        return getEntry(type).startedQuests.get(quest);
+    }
+
+    /**
+     * Invalidate all cached entries.
+     */
+    public void invalidate() {
+        entries.clear();
+    }
+
+    private Entry getEntry(TaskType type) {
+        QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
+        Entry entry = entries.get(type);
+        if (entry != null && entry.stateVersion == questProgressFile.getStateVersion()
+                && (entry.validUntil == Long.MAX_VALUE || entry.validUntil > System.currentTimeMillis())) {
+            return entry;
+        }
+
+        entry = computeEntry(type, questProgressFile);
+        entries.put(type, entry);
+        return entry;
+    }
+
+    private Entry computeEntry(TaskType type, QuestProgressFile questProgressFile) {
+        long now = System.currentTimeMillis();
+        long validUntil = Long.MAX_VALUE;
+        boolean permissionDependent = false;
+
+        List<ActiveTask> tasks = new ArrayList<>();
+        Map<Quest, QuestProgress> startedQuests = new IdentityHashMap<>();
+
+        for (Quest quest : type.getRegisteredQuests()) {
+            if (isPermissionDependent(quest)) {
+                permissionDependent = true;
+            }
+
+            if (!qPlayer.hasStartedQuest(quest)) {
+                long cooldown = questProgressFile.getCooldownFor(quest);
+                if (cooldown > 0) {
+                    validUntil = Math.min(validUntil, now + cooldown);
+                }
+                continue;
+            }
+
+            QuestProgress questProgress = questProgressFile.getQuestProgress(quest);
+            startedQuests.put(quest, questProgress);
+
+            for (Task task : quest.getTasksOfType(type.getType())) {
+                TaskProgress taskProgress = questProgress.getTaskProgress(task);
+                tasks.add(new ActiveTask(quest, task, questProgress, taskProgress));
+            }
+        }
+
+        if (permissionDependent) {
+            long refreshInterval = plugin.getQuestsConfig().getInt("options.performance-tweaking.active-task-cache-refresh-interval", 100) * 50L;
+            validUntil = Math.min(validUntil, now + refreshInterval);
+        }
+
+        // the state version is read after building, as building may generate blank quest progress
+        return new Entry(Collections.unmodifiableList(tasks), startedQuests, questProgressFile.getStateVersion(), validUntil);
+    }
+
+    private boolean isPermissionDependent(Quest quest) {
+        if (quest.isPermissionRequired()) {
+            return true;
+        }
+
+        String categoryId = quest.getCategoryId();
+        if (categoryId == null) {
+            return false;
+        }
+
+        Category category = plugin.getQuestManager().getCategoryById(categoryId);
+        return category != null && category.isPermissionRequired();
+    }
+
+    private record Entry(List<ActiveTask> tasks, Map<Quest, QuestProgress> startedQuests, int stateVersion, long validUntil) { }
+
+    /**
+     * A task of a quest which a player has effectively started.
+     */
+    public record ActiveTask(Quest quest, Task task, QuestProgress questProgress, TaskProgress taskProgress) { }
+}
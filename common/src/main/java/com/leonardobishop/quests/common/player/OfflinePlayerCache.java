@@ -0,0 +1,161 @@
+package com.leonardobishop.quests.common.player;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A bounded cache of players who are not online, such as players loaded by admin commands or through the API,
+ * or players who have recently left the server. Players are evicted in least recently used order once the cache
+ * is full, or once they have not been used for the configured time. Evicted players are passed to the
+ * write-back consumer, so that any changes made to them while cached are saved.
+ */
+public class OfflinePlayerCache {
+
+    // in access order, so the least recently used player is always first
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Consumer<QPlayer> writeBack;
+    private int maxSize;
+    private long expireAfter;
+
+    /**
+     * @param writeBack the consumer to pass evicted players to
+     * @param maxSize the maximum number of players cached
+     * @param expireAfter the time after which an unused player is evicted, in milliseconds
+     */
+    public OfflinePlayerCache(@NotNull Consumer<QPlayer> writeBack, int maxSize, long expireAfter) {
+        this.writeBack = Objects.requireNonNull(writeBack, "writeBack cannot be null");
+        this.maxSize = Math.max(0, maxSize);
+        this.expireAfter = expireAfter;
+    }
+
+    /**
+     * Change the size and expiry of this cache, evicting players as needed.
+     *
+     * @param maxSize the maximum number of players cached
+     * @param expireAfter the time after which an unused player is evicted, in milliseconds
+     */
+    public synchronized void configure(int maxSize, long expireAfter) {
+        this.maxSize = Math.max(0, maxSize);
+        this.expireAfter = expireAfter;
+        evict(System.currentTimeMillis());
+    }
+
+    /**
+     * Get a cached player, marking it as recently used.
+     *
+     * @param uuid the uuid of the player
+     * @return {@link QPlayer}, or null if the player is not cached
+     */
+    public synchronized @Nullable QPlayer get(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        long now = System.currentTimeMillis();
+        evict(now);
+        Entry entry = entries.get(uuid);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastAccess = now;
+        return entry.qPlayer;
+    }
+
+    /**
+     * Cache a player, replacing any player cached with the same uuid.
+     *
+     * @param qPlayer the player
+     */
+    public synchronized void put(@NotNull QPlayer qPlayer) {
+        Objects.requireNonNull(qPlayer, "qPlayer cannot be null");
+
+        long now = System.currentTimeMillis();
+        Entry previous = entries.put(qPlayer.getPlayerUUID(), new Entry(qPlayer, now));
+        if (previous != null && previous.qPlayer != qPlayer) {
+            writeBack.accept(previous.qPlayer);
+        }
+        evict(now);
+    }
+
+    /**
+     * Remove a player from the cache. The player is not passed to the write-back consumer.
+     *
+     * @param uuid the uuid of the player
+     * @return the removed {@link QPlayer}, or null if the player was not cached
+     */
+    public synchronized @Nullable QPlayer remove(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        Entry entry = entries.remove(uuid);
+        return entry == null ? null : entry.qPlayer;
+    }
+
+    /**
+     * Evict all players which have not been used for the configured time.
+     */
+    public synchronized void cleanUp() {
+        evict(System.currentTimeMillis());
+    }
+
+    /**
+     * Get all cached players, without marking them as recently used.
+     *
+     * @return list of players
+     */
+    public synchronized @NotNull List<QPlayer> getAll() {
+        List<QPlayer> qPlayers = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            qPlayers.add(entry.qPlayer);
+        }
+        return qPlayers;
+    }
+
+    /**
+     * Remove all players from the cache. The players are not passed to the write-back consumer.
+     *
+     * @return the removed players
+     */
+    public synchronized @NotNull List<QPlayer> invalidateAll() {
+        List<QPlayer> qPlayers = getAll();
+        entries.clear();
+        return qPlayers;
+    }
+
+    /**
+     * Get the number of cached players.
+     *
+     * @return number of players
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            // entries are in access order, so nothing after an unexpired entry can have expired
+            if (entries.size() <= maxSize && now - entry.lastAccess < expireAfter) {
+                return;
+            }
+            iterator.remove();
+            writeBack.accept(entry.qPlayer);
+        }
+    }
+
+    private static final class Entry {
+        private final QPlayer qPlayer;
+        private long lastAccess;
+
+        private Entry(QPlayer qPlayer, long lastAccess) {
+            this.qPlayer = qPlayer;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
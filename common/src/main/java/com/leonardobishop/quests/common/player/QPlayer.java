@@ -22,6 +22,8 @@ public class QPlayer {
     private final UUID uuid;
     private final QPlayerPreferences playerPreferences;
     private final QuestProgressFile questProgressFile;
+    private final ActiveTaskCache activeTaskCache;
+    private final QuestStartCache questStartCache;
     private QuestController questController;
 
     public QPlayer(Quests plugin, UUID uuid, QPlayerPreferences playerPreferences, QuestProgressFile questProgressFile, QuestController questController) {
@@ -30,6 +32,8 @@ public class QPlayer {
         this.playerPreferences = playerPreferences;
         this.questProgressFile = questProgressFile;
         this.questController = questController;
+        this.activeTaskCache = new ActiveTaskCache(plugin, this);
+        this.questStartCache = new QuestStartCache(this);
     }
 
     /**
@@ -175,6 +179,26 @@ public class QPlayer {
         Objects.requireNonNull(questController, "questController cannot be null");
 
         this.questController = questController;
+        this.activeTaskCache.invalidate();
+        this.questStartCache.invalidate();
+    }
+
+    /**
+     * Get this players associated {@link ActiveTaskCache}
+     *
+     * @return the active task cache
+     */
+    public @NotNull ActiveTaskCache getActiveTaskCache() {
+        return activeTaskCache;
+    }
+
+    /**
+     * Get this players associated {@link QuestStartCache}
+     *
+     * @return the quest start cache
+     */
+    public @NotNull QuestStartCache getQuestStartCache() {
+        return questStartCache;
     }
 
     @Override //Used by java GC
@@ -18,18 +18,41 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * The QPlayerManager is responsible for keeping a reference to all players on the server and is used to
  * obtain an instance of a player, load new players and save current players.
+ * <p>
+ * Players who are not online can be obtained with {@link #getOrLoadPlayer(UUID)}, and are kept in an
+ * {@link OfflinePlayerCache} until they are unused for a while. Players who leave are only kept in the cache if
+ * it is configured to be reused when they join again. Concurrent loads of the same player share a
+ * single load, and a load always waits for any save of the same player which is still being written.
+ * Players who are about to join can be loaded ahead of time with {@link #prefetchPlayer(UUID)}.
  */
 public class QPlayerManager {
 
     private final Map<UUID, QPlayer> qPlayers = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<QPlayer>> pendingLoads = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<Void>> pendingSaves = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<QPlayer>> prefetchedPlayers = new ConcurrentHashMap<>();
+    private final OfflinePlayerCache offlinePlayers;
     private final Quests plugin;
     private final StorageProvider storageProvider;
     private QuestController activeQuestController;
+    private volatile boolean reuseOnJoin;
 
     public QPlayerManager(Quests plugin, StorageProvider storageProvider, QuestController questController) {
         this.plugin = plugin;
         this.storageProvider = storageProvider;
         this.activeQuestController = questController;
+        this.offlinePlayers = new OfflinePlayerCache(this::writeBack, 0, 0);
+        this.configureOfflinePlayerCache();
+    }
+
+    /**
+     * Apply the offline player cache settings from the config.
+     */
+    public void configureOfflinePlayerCache() {
+        int maxSize = plugin.getQuestsConfig().getInt("options.storage.offline-player-cache.max-size", 64);
+        int expireAfter = plugin.getQuestsConfig().getInt("options.storage.offline-player-cache.expire-after", 300);
+        this.reuseOnJoin = plugin.getQuestsConfig().getBoolean("options.storage.offline-player-cache.reuse-on-join", false);
+        offlinePlayers.configure(maxSize, expireAfter * 1000L);
     }
 
     /**
@@ -60,8 +83,16 @@ public class QPlayerManager {
         Objects.requireNonNull(uuid, "uuid cannot be null");
 
         plugin.getQuestsLogger().debug("Unloading and saving player " + uuid + "...");
-        CompletableFuture<Void> future = savePlayer(uuid);
-        future.thenAccept((v) -> qPlayers.remove(uuid));
+        savePlayer(uuid);
+        QPlayer qPlayer = qPlayers.remove(uuid);
+        if (qPlayer != null) {
+            qPlayer.getPlayerPreferences().clearDebug();
+            // the modified entries have been copied by the save, so the player can be moved to the offline cache now;
+            // without reuse-on-join, another server may change the stored progress, so later lookups must load it again
+            if (reuseOnJoin) {
+                offlinePlayers.put(qPlayer);
+            }
+        }
     }
 
     /**
@@ -93,16 +124,29 @@ public class QPlayerManager {
 
         CompletableFuture<Void> future = new CompletableFuture<>();
 
-        QuestProgressFile clonedProgressFile = new QuestProgressFile(originalProgressFile);
-        originalProgressFile.resetModified();
+        // only the entries modified since the last save are copied and written
+        QuestProgressFile modifiedProgressFile = originalProgressFile.snapshotModified();
+        if (modifiedProgressFile.getAllQuestProgress().isEmpty()) {
+            plugin.getQuestsLogger().debug("Player " + uuid + " has no modified quest progress to save.");
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> pendingSave = pendingSaves.merge(uuid, future, (previous, next) -> CompletableFuture.allOf(previous, next));
+        pendingSave.whenComplete((v, t) -> pendingSaves.remove(uuid, pendingSave));
         plugin.getScheduler().doAsync(() -> {
-            save(uuid, clonedProgressFile);
+            save(uuid, modifiedProgressFile);
             future.complete(null);
         });
 
         return future;
     }
 
+    private void writeBack(QPlayer qPlayer) {
+        if (qPlayer.getQuestProgressFile().getModifiedCount() > 0) {
+            plugin.getQuestsLogger().debug("Writing back offline player " + qPlayer.getPlayerUUID() + ".");
+            savePlayer(qPlayer.getPlayerUUID(), qPlayer.getQuestProgressFile());
+        }
+    }
+
     /**
      * Immediately saves the player with the {@link QuestProgressFile} associated by the {@link QPlayerManager},
      * on the same thread. The modified status of the specified progress file is not changed.
@@ -125,7 +169,10 @@ public class QPlayerManager {
      * @param questProgressFile the quest progress file to associate with and save
      */
     public void savePlayerSync(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
-        save(uuid, questProgressFile);
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        // the file may still be modified by the thread owning the player, so a consistent copy is written
+        save(uuid, new QuestProgressFile(questProgressFile));
     }
 
     private void save(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
@@ -141,7 +188,7 @@ public class QPlayerManager {
     }
 
     /**
-     * Unloads the player without saving to disk.
+     * Unloads the player without saving to disk. The player is also removed from the offline player cache.
      *
      * @param uuid the uuid of the player
      */
@@ -149,7 +196,37 @@ public class QPlayerManager {
         Objects.requireNonNull(uuid, "uuid cannot be null");
 
         plugin.getQuestsLogger().debug("Dropping player " + uuid + ".");
-        qPlayers.remove(uuid);
+        QPlayer qPlayer = qPlayers.remove(uuid);
+        if (qPlayer != null) {
+            qPlayer.getPlayerPreferences().clearDebug();
+        }
+        offlinePlayers.remove(uuid);
+    }
+
+    /**
+     * Immediately saves all players in the offline player cache, on the same thread, and empties the cache.
+     */
+    public void saveOfflinePlayersSync() {
+        for (QPlayer qPlayer : offlinePlayers.invalidateAll()) {
+            savePlayerSync(qPlayer.getPlayerUUID(), qPlayer.getQuestProgressFile());
+        }
+    }
+
+    /**
+     * Evicts players from the offline player cache which have not been used for the configured time,
+     * saving any changes made to them.
+     */
+    public void cleanUpOfflinePlayers() {
+        offlinePlayers.cleanUp();
+    }
+
+    /**
+     * Gets the cache of players who are not online.
+     *
+     * @return {@link OfflinePlayerCache}
+     */
+    public OfflinePlayerCache getOfflinePlayerCache() {
+        return offlinePlayers;
     }
 
     /**
@@ -171,19 +248,126 @@ public class QPlayerManager {
     public CompletableFuture<QPlayer> loadPlayer(UUID uuid) {
         plugin.getQuestsLogger().debug("Loading player " + uuid + "...");
 
+        CompletableFuture<QPlayer> future = prefetchedPlayers.remove(uuid);
+        if (future != null) {
+            plugin.getQuestsLogger().debug("Using prefetched quest progress file for player " + uuid + ".");
+        } else {
+            future = loadForJoin(uuid);
+        }
+
+        return future.thenApply(loaded -> {
+            if (loaded == null) {
+                return null;
+            }
+            // the same load may have been shared with a lookup of the player while offline
+            offlinePlayers.remove(uuid);
+            return qPlayers.computeIfAbsent(uuid, s -> loaded);
+        });
+    }
+
+    /**
+     * Start loading a player who is about to join, e.g. while they are logging in. The player is not added
+     * until {@link #loadPlayer(UUID)} is called once they have joined, which then uses the result of this load.
+     *
+     * @param uuid the uuid of the player
+     * @return completable future with the loaded player, or null if there was an error
+     */
+    public CompletableFuture<QPlayer> prefetchPlayer(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        plugin.getQuestsLogger().debug("Prefetching player " + uuid + "...");
+        return prefetchedPlayers.computeIfAbsent(uuid, this::loadForJoin);
+    }
+
+    /**
+     * Discard the prefetched player if they did not join, e.g. because their login was denied. The player
+     * is moved to the offline player cache.
+     *
+     * @param uuid the uuid of the player
+     */
+    public void discardPrefetchedPlayer(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        CompletableFuture<QPlayer> future = prefetchedPlayers.remove(uuid);
+        if (future != null) {
+            plugin.getQuestsLogger().debug("Discarding prefetched player " + uuid + ".");
+            future.thenAccept(qPlayer -> {
+                if (qPlayer != null && !qPlayers.containsKey(uuid)) {
+                    offlinePlayers.put(qPlayer);
+                }
+            });
+        }
+    }
+
+    private CompletableFuture<QPlayer> loadForJoin(UUID uuid) {
+        QPlayer cached = offlinePlayers.remove(uuid);
+        if (cached != null) {
+            if (reuseOnJoin) {
+                plugin.getQuestsLogger().debug("Reusing cached quest progress file for player " + uuid + ".");
+                return CompletableFuture.completedFuture(cached);
+            }
+            // changes made while the player was offline must be written before loading them again
+            writeBack(cached);
+        }
+        return load(uuid);
+    }
+
+    /**
+     * Get a player whether or not they are online. Players who are not online are taken from the offline
+     * player cache, or loaded into it if they are not cached. Changes made to players who are not online are
+     * saved when they are evicted from the cache, but should usually be saved straight away with
+     * {@link #savePlayer(UUID, QuestProgressFile)}.
+     *
+     * @param uuid the uuid of the player
+     * @return completable future with the player, or null if there was an error
+     */
+    public CompletableFuture<QPlayer> getOrLoadPlayer(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        QPlayer qPlayer = getPlayer(uuid);
+        if (qPlayer == null) {
+            qPlayer = offlinePlayers.get(uuid);
+        }
+        if (qPlayer != null) {
+            return CompletableFuture.completedFuture(qPlayer);
+        }
+
+        return load(uuid).thenApply(loaded -> {
+            if (loaded == null) {
+                return null;
+            }
+            // the player may have joined while loading
+            QPlayer online = qPlayers.get(uuid);
+            if (online != null) {
+                return online;
+            }
+            offlinePlayers.put(loaded);
+            return loaded;
+        });
+    }
+
+    private CompletableFuture<QPlayer> load(UUID uuid) {
         CompletableFuture<QPlayer> future = new CompletableFuture<>();
-        plugin.getScheduler().doAsync(() -> {
+        CompletableFuture<QPlayer> pendingLoad = pendingLoads.putIfAbsent(uuid, future);
+        if (pendingLoad != null) {
+            plugin.getQuestsLogger().debug("Player " + uuid + " is already being loaded.");
+            return pendingLoad;
+        }
+
+        // a save which is still being written must finish first, otherwise the load would read stale progress
+        CompletableFuture<Void> pendingSave = pendingSaves.getOrDefault(uuid, CompletableFuture.completedFuture(null));
+        pendingSave.whenComplete((v, t) -> plugin.getScheduler().doAsync(() -> {
+            QPlayer qPlayer = null;
             QuestProgressFile questProgressFile = storageProvider.loadProgressFile(uuid);
             if (questProgressFile == null) {
                 plugin.getQuestsLogger().debug("A problem occurred trying loading player " + uuid + "; quest progress file is null.");
-                future.complete(null);
-                return;
+            } else {
+                qPlayer = new QPlayer(plugin, uuid, new QPlayerPreferences(null), questProgressFile, activeQuestController);
+                plugin.getQuestsLogger().debug("Quest progress file loaded for player " + uuid + ".");
             }
-            QPlayer qPlayer = new QPlayer(plugin, uuid, new QPlayerPreferences(null), questProgressFile, activeQuestController);
-            qPlayers.computeIfAbsent(uuid, s -> qPlayer);
-            plugin.getQuestsLogger().debug("Quest progress file loaded for player " + uuid + ".");
+            pendingLoads.remove(uuid, future);
             future.complete(qPlayer);
-        });
+        }));
 
         return future;
     }
@@ -206,5 +390,8 @@ public class QPlayerManager {
         for (QPlayer qPlayer : qPlayers.values()) {
             qPlayer.setQuestController(activeQuestController);
         }
+        for (QPlayer qPlayer : offlinePlayers.getAll()) {
+            qPlayer.setQuestController(activeQuestController);
+        }
     }
 }
@@ -1,12 +1,19 @@
 package com.leonardobishop.quests.common.player;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class QPlayerPreferences {
 
+    // number of debug preferences set across all loaded players, in total and per quest id
+    private static final AtomicInteger activeDebuggers = new AtomicInteger();
+    private static final Map<String, AtomicInteger> activeQuestDebuggers = new ConcurrentHashMap<>();
+
     private final Map<String, DebugType> debug = new HashMap<>();
     private String trackedQuestId;
 
@@ -22,12 +29,64 @@ public class QPlayerPreferences {
         this.trackedQuestId = trackedQuestId;
     }
 
-    public DebugType getDebug(String questId) {
+    public synchronized DebugType getDebug(String questId) {
         return debug.getOrDefault(questId, debug.get("*"));
     }
 
-    public void setDebug(String questId, DebugType debugType) {
-        debug.put(questId, debugType);
+    public synchronized void setDebug(String questId, DebugType debugType) {
+        DebugType previous = debug.put(questId, debugType);
+        if (previous == null && debugType != null) {
+            updateDebuggers(questId, 1);
+        } else if (previous != null && debugType == null) {
+            updateDebuggers(questId, -1);
+        }
+    }
+
+    /**
+     * Removes all debug preferences. This should be called when the player is unloaded,
+     * so that they no longer count towards the active debuggers.
+     */
+    public synchronized void clearDebug() {
+        for (Map.Entry<String, DebugType> entry : debug.entrySet()) {
+            if (entry.getValue() != null) {
+                updateDebuggers(entry.getKey(), -1);
+            }
+        }
+        debug.clear();
+    }
+
+    private static void updateDebuggers(String questId, int delta) {
+        activeQuestDebuggers.computeIfAbsent(questId, k -> new AtomicInteger()).addAndGet(delta);
+        activeDebuggers.addAndGet(delta);
+    }
+
+    /**
+     * Gets whether any loaded player has debugging enabled for any quest.
+     * This is a single volatile read, and should be used to skip building debug messages.
+     *
+     * @return true if any player is debugging, false otherwise
+     */
+    public static boolean hasActiveDebuggers() {
+        return activeDebuggers.get() > 0;
+    }
+
+    /**
+     * Gets whether any loaded player may have debugging enabled for a specific quest.
+     *
+     * @param questId the quest id
+     * @return true if any player is debugging the quest or all quests, false otherwise
+     */
+    public static boolean hasActiveDebuggers(@NotNull String questId) {
+        if (activeDebuggers.get() == 0) {
+            return false;
+        }
+
+        return getActiveDebuggers(questId) > 0 || getActiveDebuggers("*") > 0;
+    }
+
+    private static int getActiveDebuggers(String questId) {
+        AtomicInteger counter = activeQuestDebuggers.get(questId);
+        return counter != null ? counter.get() : 0;
     }
 
     public enum DebugType {
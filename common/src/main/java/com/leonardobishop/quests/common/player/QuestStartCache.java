@@ -0,0 +1,76 @@
+package com.leonardobishop.quests.common.player;
+
+import com.leonardobishop.quests.common.enums.QuestStartResult;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.quest.Quest;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The quest start cache stores the last {@link QuestStartResult} computed by a quest controller for each quest,
+ * so that menus, placeholders and autostart checks do not have to evaluate every condition on every call.
+ * <p>
+ * Cached results are discarded whenever the state version of the players {@link QuestProgressFile} changes,
+ * once the deadline given by the controller has passed (e.g. when a cooldown runs out, or when a result
+ * depending on permissions should be refreshed), or when the cache is invalidated (e.g. on reload or when
+ * the players permissions are recalculated).
+ */
+public class QuestStartCache {
+
+    private final QPlayer qPlayer;
+    private final Map<Quest, Entry> entries = new ConcurrentHashMap<>();
+
+    public QuestStartCache(QPlayer qPlayer) {
+        this.qPlayer = qPlayer;
+    }
+
+    /**
+     * Get the cached start result of a quest, if it is still valid.
+     *
+     * @param quest the quest
+     * @return the cached {@link QuestStartResult}, or null if there is none
+     */
+    public @Nullable QuestStartResult getResult(@NotNull Quest quest) {
+        Objects.requireNonNull(quest, "quest cannot be null");
+
+        Entry entry = entries.get(quest);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.stateVersion != qPlayer.getQuestProgressFile().getStateVersion()
+                || (entry.validUntil != Long.MAX_VALUE && entry.validUntil <= System.currentTimeMillis())) {
+            entries.remove(quest, entry);
+            return null;
+        }
+        return entry.result;
+    }
+
+    /**
+     * Cache the start result of a quest.
+     *
+     * @param quest the quest
+     * @param result the computed result
+     * @param stateVersion the state version of the players {@link QuestProgressFile}, read before the result was computed
+     * @param validUntil the time at which the result must be recomputed, or {@link Long#MAX_VALUE} if it only
+     *                   depends on the players quest progress
+     */
+    public void putResult(@NotNull Quest quest, @NotNull QuestStartResult result, int stateVersion, long validUntil) {
+        Objects.requireNonNull(quest, "quest cannot be null");
+        Objects.requireNonNull(result, "result cannot be null");
+
+        entries.put(quest, new Entry(result, stateVersion, validUntil));
+    }
+
+    /**
+     * Invalidate all cached results.
+     */
+    public void invalidate() {
+        entries.clear();
+    }
+
+    private record Entry(QuestStartResult result, int stateVersion, long validUntil) { }
+}
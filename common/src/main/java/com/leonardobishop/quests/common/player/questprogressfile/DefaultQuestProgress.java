@@ -0,0 +1,151 @@
+package com.leonardobishop.quests.common.player.questprogressfile;
+
+import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.Task;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable view of blank progress in a quest, returned by {@link QuestProgressFile#getQuestProgressOrDefault(Quest)}
+ * for quests a player has never touched. One view is shared by all players, so it has no player.
+ */
+final class DefaultQuestProgress extends QuestProgress {
+
+    private static final Map<String, DefaultQuestProgress> VIEWS = new ConcurrentHashMap<>();
+
+    private final Quest quest;
+
+    private DefaultQuestProgress(Quests plugin, Quest quest) {
+        super(plugin, quest.getId(), false, false, 0, null, false, 0);
+        this.quest = quest;
+        for (Task task : quest.getTasks()) {
+            super.addTaskProgress(new DefaultTaskProgress(this, task.getId()));
+        }
+    }
+
+    /**
+     * Get the default view of a quest.
+     *
+     * @param plugin the plugin
+     * @param quest the quest
+     * @return the shared default view
+     */
+    static QuestProgress of(Quests plugin, Quest quest) {
+        DefaultQuestProgress view = VIEWS.get(quest.getId());
+        // views of quests from before a reload are replaced, as their tasks may have changed
+        if (view == null || view.quest != quest) {
+            view = new DefaultQuestProgress(plugin, quest);
+            if (quest.getOrdinal() >= 0) {
+                VIEWS.put(quest.getId(), view);
+            }
+        }
+        return view;
+    }
+
+    @Override
+    public TaskProgress getTaskProgress(String taskId) {
+        TaskProgress taskProgress = findTaskProgress(taskId);
+        return taskProgress != null ? taskProgress : new DefaultTaskProgress(this, taskId);
+    }
+
+    @Override
+    public void setCompleted(boolean completed) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setStarted(boolean started) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setStartedDate(long startedDate) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setCompletionDate(long completionDate) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setCompletedBefore(boolean completedBefore) {
+        throw unsupported();
+    }
+
+    @Override
+    public void addTaskProgress(TaskProgress taskProgress) {
+        throw unsupported();
+    }
+
+    @Override
+    public void repairTaskProgress(String taskid) {
+        throw unsupported();
+    }
+
+    @Override
+    public void queueForCompletionTest() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setModified(boolean modified) {
+        throw unsupported();
+    }
+
+    static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Default quest progress cannot be modified, use QuestProgressFile#getQuestProgress to get modifiable progress");
+    }
+
+    /**
+     * An immutable view of blank progress in a task.
+     */
+    private static final class DefaultTaskProgress extends TaskProgress {
+
+        private DefaultTaskProgress(QuestProgress linkedQuestProgress, String taskid) {
+            super(linkedQuestProgress, taskid, null, null, false);
+        }
+
+        @Override
+        public void setProgress(Object progress) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setIntegerProgress(int progress) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setLongProgress(long progress) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setDoubleProgress(double progress) {
+            throw unsupported();
+        }
+
+        @Override
+        public int incrementIntegerProgress(int amount) {
+            throw unsupported();
+        }
+
+        @Override
+        public double incrementDoubleProgress(double amount) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setCompleted(boolean complete) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setModified(boolean modified) {
+            throw unsupported();
+        }
+    }
+}
@@ -1,30 +1,56 @@
 package com.leonardobishop.quests.common.player.questprogressfile;
 
 import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.Task;
+import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Represents the progress of a player in a quest. See {@link QuestProgressFile} for the rules on
+ * accessing progress from multiple threads.
+ * <p>
+ * Task progress is kept in a small array, which is replaced whenever task progress is added or removed.
+ * Task progress generated for a registered quest is stored at the ordinal of its task, so it can usually
+ * be found without comparing ids.
+ */
 public class QuestProgress {
 
+    private static final TaskProgress[] NO_TASK_PROGRESS = new TaskProgress[0];
+
     private final Quests plugin;
 
-    private final Map<String, TaskProgress> taskProgress = new HashMap<>();
+    private volatile TaskProgress[] taskProgress = NO_TASK_PROGRESS;
     private final String questid;
+    private final int ordinal;
     private final UUID player;
 
-    private boolean started;
-    private long startedDate;
-    private boolean completed;
-    private boolean completedBefore;
-    private long completionDate;
-    private boolean modified;
+    private volatile QuestProgressFile linkedQuestProgressFile;
+    private volatile boolean started;
+    private volatile long startedDate;
+    private volatile boolean completed;
+    private volatile boolean completedBefore;
+    private volatile long completionDate;
+    private volatile boolean modified;
+    private final AtomicInteger version = new AtomicInteger();
 
     public QuestProgress(Quests plugin, String questid, boolean completed, boolean completedBefore, long completionDate, UUID player, boolean started, long startedDate) {
         this.plugin = plugin;
-        this.questid = questid;
+        if (plugin != null) {
+            // the id is replaced by the instance held by the quest manager, so ids loaded from storage are not kept once per player
+            this.ordinal = plugin.getQuestManager().getQuestOrdinal(questid);
+            this.questid = plugin.getQuestManager().getQuestIdByOrdinal(ordinal);
+        } else {
+            this.ordinal = -1;
+            this.questid = questid;
+        }
         this.completed = completed;
         this.completedBefore = completedBefore;
         this.completionDate = completionDate;
@@ -39,31 +65,64 @@ public class QuestProgress {
     }
 
     public QuestProgress(QuestProgress questProgress) {
+        this(questProgress, false);
+    }
+
+    /**
+     * Copy quest progress, optionally leaving out task progress which has not been modified.
+     *
+     * @param questProgress the quest progress to copy
+     * @param modifiedTasksOnly whether to only copy modified task progress
+     */
+    public QuestProgress(QuestProgress questProgress, boolean modifiedTasksOnly) {
         this.plugin = questProgress.plugin;
-        for (Map.Entry<String, TaskProgress> progressEntry : questProgress.taskProgress.entrySet()) {
-            taskProgress.put(progressEntry.getKey(), new TaskProgress(progressEntry.getValue()));
-        }
         this.questid = questProgress.questid;
+        this.ordinal = questProgress.ordinal;
         this.player = questProgress.player;
-        this.started = questProgress.started;
-        this.startedDate = questProgress.startedDate;
-        this.completed = questProgress.completed;
-        this.completedBefore = questProgress.completedBefore;
-        this.completionDate = questProgress.completionDate;
-        this.modified = questProgress.modified;
+        synchronized (questProgress.lock()) {
+            TaskProgress[] source = questProgress.taskProgress;
+            TaskProgress[] copy = new TaskProgress[source.length];
+            int size = 0;
+            for (TaskProgress progress : source) {
+                if (modifiedTasksOnly && !progress.isModified()) {
+                    continue;
+                }
+                copy[size++] = new TaskProgress(progress, this);
+            }
+            this.taskProgress = size == copy.length ? copy : Arrays.copyOf(copy, size);
+            this.started = questProgress.started;
+            this.startedDate = questProgress.startedDate;
+            this.completed = questProgress.completed;
+            this.completedBefore = questProgress.completedBefore;
+            this.completionDate = questProgress.completionDate;
+            this.modified = questProgress.modified;
+        }
     }
 
     public String getQuestId() {
         return questid;
     }
 
+    /**
+     * Get the ordinal of the quest this progress is for.
+     *
+     * @see com.leonardobishop.quests.common.quest.QuestManager#getQuestOrdinal(String)
+     * @return the ordinal, or -1 if this progress was created without a plugin
+     */
+    public int getQuestOrdinal() {
+        return ordinal;
+    }
+
     public boolean isCompleted() {
         return completed;
     }
 
     public void setCompleted(boolean completed) {
-        this.completed = completed;
-        this.modified = true;
+        synchronized (lock()) {
+            this.completed = completed;
+            markModified();
+            markStateChanged();
+        }
     }
 
     public boolean isStarted() {
@@ -71,8 +130,11 @@ public class QuestProgress {
     }
 
     public void setStarted(boolean started) {
-        this.started = started;
-        this.modified = true;
+        synchronized (lock()) {
+            this.started = started;
+            markModified();
+            markStateChanged();
+        }
     }
 
     public long getStartedDate() {
@@ -80,8 +142,10 @@ public class QuestProgress {
     }
 
     public void setStartedDate(long startedDate) {
-        this.startedDate = startedDate;
-        this.modified = true;
+        synchronized (lock()) {
+            this.startedDate = startedDate;
+            markModified();
+        }
     }
 
     public long getCompletionDate() {
@@ -89,8 +153,11 @@ public class QuestProgress {
     }
 
     public void setCompletionDate(long completionDate) {
-        this.completionDate = completionDate;
-        this.modified = true;
+        synchronized (lock()) {
+            this.completionDate = completionDate;
+            markModified();
+            markStateChanged();
+        }
     }
 
     public UUID getPlayer() {
@@ -102,40 +169,207 @@ public class QuestProgress {
     }
 
     public void setCompletedBefore(boolean completedBefore) {
-        this.completedBefore = completedBefore;
-        this.modified = true;
+        synchronized (lock()) {
+            this.completedBefore = completedBefore;
+            markModified();
+            markStateChanged();
+        }
     }
 
     public void addTaskProgress(TaskProgress taskProgress) {
-        this.taskProgress.put(taskProgress.getTaskId(), taskProgress);
+        synchronized (lock()) {
+            TaskProgress[] current = this.taskProgress;
+            int index = indexOf(current, taskProgress.getTaskId());
+            markChanged();
+            if (index >= 0) {
+                TaskProgress[] replaced = current.clone();
+                replaced[index] = taskProgress;
+                this.taskProgress = replaced;
+                markStateChanged();
+            } else {
+                TaskProgress[] added = Arrays.copyOf(current, current.length + 1);
+                added[current.length] = taskProgress;
+                this.taskProgress = added;
+            }
+            if (taskProgress.isModified()) {
+                journalModified();
+            }
+        }
+    }
+
+    /**
+     * Remove the progress of a task.
+     *
+     * @param taskId the id of the task
+     */
+    void removeTaskProgress(String taskId) {
+        synchronized (lock()) {
+            TaskProgress[] current = this.taskProgress;
+            int index = indexOf(current, taskId);
+            if (index < 0) {
+                return;
+            }
+            TaskProgress[] removed = new TaskProgress[current.length - 1];
+            System.arraycopy(current, 0, removed, 0, index);
+            System.arraycopy(current, index + 1, removed, index, current.length - index - 1);
+            this.taskProgress = removed;
+            markChanged();
+        }
     }
 
     public Collection<TaskProgress> getTaskProgress() {
-        return taskProgress.values();
+        return Collections.unmodifiableList(Arrays.asList(taskProgress));
     }
 
+    /**
+     * Get the task progress of this quest progress by task id.
+     *
+     * @return an immutable copy of the task progress
+     */
     public Map<String, TaskProgress> getTaskProgressMap() {
-        return taskProgress;
+        Map<String, TaskProgress> map = new LinkedHashMap<>();
+        for (TaskProgress progress : taskProgress) {
+            map.put(progress.getTaskId(), progress);
+        }
+        return Collections.unmodifiableMap(map);
     }
 
     public TaskProgress getTaskProgress(String taskId) {
-        TaskProgress tP = taskProgress.getOrDefault(taskId, null);
+        TaskProgress tP = findTaskProgress(taskId);
         if (tP == null) {
-            repairTaskProgress(taskId);
-            tP = taskProgress.getOrDefault(taskId, null);
+            synchronized (lock()) {
+                // another thread may have repaired it while waiting for the lock
+                tP = findTaskProgress(taskId);
+                if (tP == null) {
+                    repairTaskProgress(taskId);
+                    tP = findTaskProgress(taskId);
+                }
+            }
         }
         return tP;
     }
 
+    /**
+     * Get the progress of a task. This is faster than looking it up by id, as
+     * progress is usually stored at the ordinal of the task.
+     *
+     * @param task the task
+     * @return {@link TaskProgress}, repaired if it does not exist
+     */
+    public TaskProgress getTaskProgress(@NotNull Task task) {
+        TaskProgress[] current = taskProgress;
+        int ordinal = task.getOrdinal();
+        if (ordinal >= 0 && ordinal < current.length) {
+            TaskProgress tP = current[ordinal];
+            if (tP.getTaskId().equals(task.getId())) {
+                return tP;
+            }
+        }
+        return getTaskProgress(task.getId());
+    }
+
     public void repairTaskProgress(String taskid) {
         TaskProgress taskProgress = new TaskProgress(this, taskid, null, player, false, false);
         this.addTaskProgress(taskProgress);
     }
 
+    /**
+     * Get the instance of a task id held by the quest, so ids loaded from storage are not kept once per player.
+     *
+     * @param taskId the task id
+     * @return an equal task id
+     */
+    String canonicalTaskId(String taskId) {
+        if (plugin == null || taskId == null) {
+            return taskId;
+        }
+        Quest quest = plugin.getQuestManager().getQuestById(questid);
+        Task task = quest != null ? quest.getTaskById(taskId) : null;
+        return task != null ? task.getId() : taskId;
+    }
+
+    private static int indexOf(TaskProgress[] taskProgress, String taskId) {
+        for (int i = 0; i < taskProgress.length; i++) {
+            String id = taskProgress[i].getTaskId();
+            if (id == taskId || id.equals(taskId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the progress of a task without repairing it.
+     *
+     * @param taskId the id of the task
+     * @return {@link TaskProgress}, or null
+     */
+    TaskProgress findTaskProgress(String taskId) {
+        TaskProgress[] taskProgress = this.taskProgress;
+        int index = indexOf(taskProgress, taskId);
+        return index >= 0 ? taskProgress[index] : null;
+    }
+
+    void setLinkedQuestProgressFile(QuestProgressFile linkedQuestProgressFile) {
+        this.linkedQuestProgressFile = linkedQuestProgressFile;
+    }
+
+    /**
+     * Get the lock guarding this quest progress, which is the linked {@link QuestProgressFile} once
+     * it has been added to one.
+     *
+     * @return the lock
+     */
+    Object lock() {
+        QuestProgressFile linkedQuestProgressFile = this.linkedQuestProgressFile;
+        return linkedQuestProgressFile != null ? linkedQuestProgressFile : this;
+    }
+
+    private void markModified() {
+        markChanged();
+        // already modified progress has already been journaled
+        if (modified) return;
+
+        this.modified = true;
+        journalModified();
+    }
+
+    /**
+     * Record this quest progress in the change journal of the linked file, so it is included in the next save.
+     */
+    void journalModified() {
+        if (linkedQuestProgressFile != null) {
+            linkedQuestProgressFile.journalModified(this);
+        }
+    }
+
+    /**
+     * Get the version of this quest progress. The version changes whenever this progress or any of its task
+     * progress changes, and can be used to validate anything rendered from it.
+     *
+     * @return version
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Mark this quest progress, or any of its task progress, as changed.
+     */
+    void markChanged() {
+        version.incrementAndGet();
+    }
+
+    private void markStateChanged() {
+        if (linkedQuestProgressFile != null) {
+            linkedQuestProgressFile.markStateChanged();
+        }
+    }
+
     public boolean isModified() {
         if (modified) return true;
         else {
-            for (TaskProgress progress : this.taskProgress.values()) {
+            for (TaskProgress progress : this.taskProgress) {
                 if (progress.isModified()) return true;
             }
             return false;
@@ -145,8 +379,8 @@ public class QuestProgress {
     public boolean hasNonDefaultValues() {
         if (this.started || this.startedDate != 0 || this.completed || this.completedBefore || this.completionDate != 0) return true;
         else {
-            for (TaskProgress progress : this.taskProgress.values()) {
-                if (progress.getProgress() != null || progress.isCompleted()) return true;
+            for (TaskProgress progress : this.taskProgress) {
+                if (progress.getProgressType() != TaskProgress.ProgressType.NONE || progress.isCompleted()) return true;
             }
             return false;
         }
@@ -157,16 +391,23 @@ public class QuestProgress {
     }
 
     public void resetModified() {
-        this.modified = false;
-        for (TaskProgress progress : this.taskProgress.values()) {
-            progress.resetModified();
+        synchronized (lock()) {
+            this.modified = false;
+            for (TaskProgress progress : this.taskProgress) {
+                progress.resetModified();
+            }
         }
     }
 
     public void setModified(boolean modified) {
-        this.modified = modified;
-        for (TaskProgress progress : this.taskProgress.values()) {
-            progress.setModified(modified);
+        synchronized (lock()) {
+            this.modified = modified;
+            for (TaskProgress progress : this.taskProgress) {
+                progress.setModified(modified);
+            }
+            if (modified) {
+                journalModified();
+            }
         }
     }
 }
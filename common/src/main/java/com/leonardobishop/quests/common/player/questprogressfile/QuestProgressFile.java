@@ -3,53 +3,52 @@ package com.leonardobishop.quests.common.player.questprogressfile;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.plugin.Quests;
 import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.RequirementGraph;
 import com.leonardobishop.quests.common.quest.Task;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represents underlying quest progress for a player.
+ *
+ * <p>Quest progress is stored in an array indexed by quest ordinal (see
+ * {@link com.leonardobishop.quests.common.quest.QuestManager#getQuestOrdinal(String)}), so looking up the
+ * progress of a registered quest does not involve its id.</p>
+ *
+ * <p>Progress is sparse: quests a player has never made progress in have no entry, and
+ * {@link #getQuestProgressOrDefault(Quest)} returns a shared immutable view for them. An entry is only
+ * created once progress is requested for writing through {@link #getQuestProgress(Quest)}.</p>
+ *
+ * <p>Concurrency model: each file is owned by the thread currently ticking its player (the main
+ * thread, or the player's region thread on Folia), but may also be read or modified from other
+ * threads, such as the quest completer, commands and the async save. To make this safe without any
+ * global lock, every file acts as the lock for its own progress:</p>
+ * <ul>
+ *     <li>all modifications of the file, and of its {@link QuestProgress} and {@link TaskProgress},
+ *     synchronize on the file; this lock is uncontended when only the owning thread is using it;</li>
+ *     <li>individual values are volatile, and progress arrays are atomic or replaced rather than
+ *     modified, so single values may be read and progress iterated from any thread without locking;</li>
+ *     <li>anything which needs a consistent view of several values, such as
+ *     {@link #snapshotModified()} or the copy constructors, holds the lock while reading them.</li>
+ * </ul>
+ * <p>Code holding the lock of one file must never acquire the lock of another.</p>
  */
 public class QuestProgressFile {
 
-    private static final Constructor<?> optimizedMapCtor;
-
-    static {
-        Class<?> optimizedMapClazz;
-
-        try {
-            optimizedMapClazz = Class.forName("it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap");
-        } catch (ClassNotFoundException ignored) {
-            optimizedMapClazz = HashMap.class;
-        }
-
-        try {
-            optimizedMapCtor = optimizedMapClazz.getDeclaredConstructor();
-        } catch (NoSuchMethodException e) {
-            throw new IllegalStateException(e);
-        }
-    }
-
-    @SuppressWarnings("unchecked")
-    private static <K, V> Map<K, V> newOptimizedMapInstance() {
-        try {
-            return (Map<K, V>) optimizedMapCtor.newInstance();
-        } catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
-            throw new IllegalStateException(e);
-        }
-    }
-
-    private final Map<String, QuestProgress> questProgress = newOptimizedMapInstance();
+    // indexed by quest ordinal, see QuestManager#getQuestOrdinal; replaced with a larger array when needed
+    private volatile AtomicReferenceArray<QuestProgress> questProgress = new AtomicReferenceArray<>(0);
     private final UUID playerUUID;
     private final Quests plugin;
+    private final BitSet modifiedQuests = new BitSet();
+    private volatile int stateVersion;
+    private volatile CompletedQuests completedQuests;
 
     public QuestProgressFile(UUID playerUUID, Quests plugin) {
         this.playerUUID = playerUUID;
@@ -57,19 +56,44 @@ public class QuestProgressFile {
     }
 
     public QuestProgressFile(QuestProgressFile questProgressFile) {
-        for (Map.Entry<String, QuestProgress> progressEntry : questProgressFile.questProgress.entrySet()) {
-            questProgress.put(progressEntry.getKey(), new QuestProgress(progressEntry.getValue()));
+        synchronized (questProgressFile) {
+            AtomicReferenceArray<QuestProgress> source = questProgressFile.questProgress;
+            AtomicReferenceArray<QuestProgress> copy = new AtomicReferenceArray<>(source.length());
+            for (int i = 0; i < source.length(); i++) {
+                QuestProgress progress = source.get(i);
+                if (progress != null) {
+                    copy.set(i, new QuestProgress(progress));
+                }
+            }
+            this.questProgress = copy;
         }
         this.playerUUID = questProgressFile.playerUUID;
         this.plugin = questProgressFile.plugin;
     }
 
-    public void addQuestProgress(QuestProgress questProgress) {
+    public synchronized void addQuestProgress(QuestProgress questProgress) {
         //TODO don't do here
 //        if (Options.VERIFY_QUEST_EXISTS_ON_LOAD.getBooleanValue(true) && plugin.getQuestManager().getQuestById(questProgress.getQuestId()) == null) {
 //            return;
 //        }
-        this.questProgress.put(questProgress.getQuestId(), questProgress);
+        // blank progress for a quest not seen before is not stored, reads fall back to the default view
+        if (progressAt(ordinalOf(questProgress)) == null && !questProgress.isModified() && !questProgress.hasNonDefaultValues()) {
+            return;
+        }
+        storeQuestProgress(questProgress);
+    }
+
+    // must be called while holding the lock of this file
+    private void storeQuestProgress(QuestProgress questProgress) {
+        questProgress.setLinkedQuestProgressFile(this);
+        QuestProgress previous = putProgress(questProgress);
+        // blank progress for a quest not seen before does not change which quests are started
+        if (previous != null || questProgress.hasNonDefaultValues()) {
+            markStateChanged();
+        }
+        if (questProgress.isModified()) {
+            journalModified(questProgress);
+        }
     }
 
     /**
@@ -82,10 +106,10 @@ public class QuestProgressFile {
      */
     public List<Quest> getStartedQuests() {
         List<Quest> startedQuests = new ArrayList<>();
-        for (QuestProgress questProgress : questProgress.values()) {
-            Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+        for (QuestProgress questProgress : getAllQuestProgress()) {
+            Quest quest = plugin.getQuestManager().getQuestByOrdinal(ordinalOf(questProgress));
             if (quest != null && questProgress.isStarted()) {
-                startedQuests.add(plugin.getQuestManager().getQuestById(questProgress.getQuestId()));
+                startedQuests.add(quest);
             }
         }
         return startedQuests;
@@ -99,7 +123,7 @@ public class QuestProgressFile {
      */
     public List<Quest> getAllQuestsFromProgress(QuestsProgressFilter filter) {
         List<Quest> questsProgress = new ArrayList<>();
-        for (QuestProgress qProgress : questProgress.values()) {
+        for (QuestProgress qProgress : getAllQuestProgress()) {
             boolean condition = false;
             if (filter == QuestsProgressFilter.STARTED) {
                 condition = qProgress.isStarted();
@@ -111,7 +135,7 @@ public class QuestProgressFile {
                 condition = true;
             }
             if (condition) {
-                Quest quest = plugin.getQuestManager().getQuestById(qProgress.getQuestId());
+                Quest quest = plugin.getQuestManager().getQuestByOrdinal(ordinalOf(qProgress));
                 if (quest != null) {
                     questsProgress.add(quest);
                 }
@@ -145,12 +169,20 @@ public class QuestProgressFile {
     }
 
     /**
-     * Gets all the quest progress that it has ever encountered.
+     * Gets all the quest progress that it has ever encountered, in order of quest ordinal.
      *
      * @return {@code Collection<QuestProgress>} all quest progresses
      */
     public Collection<QuestProgress> getAllQuestProgress() {
-        return questProgress.values();
+        AtomicReferenceArray<QuestProgress> questProgress = this.questProgress;
+        List<QuestProgress> all = new ArrayList<>();
+        for (int i = 0; i < questProgress.length(); i++) {
+            QuestProgress progress = questProgress.get(i);
+            if (progress != null) {
+                all.add(progress);
+            }
+        }
+        return all;
     }
 
     /**
@@ -160,7 +192,7 @@ public class QuestProgressFile {
      * @return true if they have quest progress
      */
     public boolean hasQuestProgress(Quest quest) {
-        return questProgress.containsKey(quest.getId());
+        return progressAt(ordinalOf(quest)) != null;
     }
 
     /**
@@ -170,7 +202,7 @@ public class QuestProgressFile {
      * @return 0 if no cooldown remaining or the cooldown is disabled, otherwise the cooldown in milliseconds
      */
     public long getCooldownFor(Quest quest) {
-        QuestProgress questProgress = getQuestProgress(quest);
+        QuestProgress questProgress = getQuestProgressOrDefault(quest);
         if (quest.isCooldownEnabled() && questProgress.isCompleted()) {
             if (questProgress.getCompletionDate() > 0) {
                 long date = questProgress.getCompletionDate();
@@ -188,7 +220,7 @@ public class QuestProgressFile {
      * otherwise the time left in milliseconds
      */
     public long getTimeRemainingFor(Quest quest) {
-        QuestProgress questProgress = getQuestProgress(quest);
+        QuestProgress questProgress = getQuestProgressOrDefault(quest);
         if (quest.isTimeLimitEnabled() && questProgress.isStarted()) {
             return Math.max(
                     questProgress.getStartedDate()
@@ -207,12 +239,44 @@ public class QuestProgressFile {
      */
     //TODO possibly move this
     public boolean hasMetRequirements(Quest quest) {
+        RequirementGraph graph = plugin.getQuestManager().getRequirementGraph();
+        if (!graph.contains(quest)) {
+            return hasMetRequirementsById(quest);
+        }
+        return graph.isUnlocked(quest, getCompletedQuests(graph));
+    }
+
+    /**
+     * Gets the quests which directly require a specific quest and of which the player now meets all
+     * requirements, e.g. the quests unlocked by completing it.
+     *
+     * @param quest the quest which was completed
+     * @return list of unlocked quests
+     */
+    public List<Quest> getQuestsUnlockedBy(Quest quest) {
+        RequirementGraph graph = plugin.getQuestManager().getRequirementGraph();
+        if (!graph.contains(quest)) {
+            return Collections.emptyList();
+        }
+
+        long[] completedQuests = getCompletedQuests(graph);
+        List<Quest> unlockedQuests = new ArrayList<>();
+        for (Quest dependent : graph.getDependents(quest)) {
+            if (graph.isUnlocked(dependent, completedQuests)) {
+                unlockedQuests.add(dependent);
+            }
+        }
+        return unlockedQuests;
+    }
+
+    // used for quests which are not registered, such as quests from before a reload
+    private boolean hasMetRequirementsById(Quest quest) {
         for (String id : quest.getRequirements()) {
             Quest q = plugin.getQuestManager().getQuestById(id);
             if (q == null) {
                 continue;
             }
-            if (hasQuestProgress(q) && !getQuestProgress(q).isCompletedBefore()) {
+            if (hasQuestProgress(q) && !getQuestProgressOrDefault(q).isCompletedBefore()) {
                 return false;
             } else if (!hasQuestProgress(q)) {
                 return false;
@@ -221,6 +285,32 @@ public class QuestProgressFile {
         return true;
     }
 
+    /**
+     * Get the quests this player has completed before, as a bitset of indices in the given graph. The
+     * bitset is rebuilt whenever the state version of this file or the graph changes.
+     */
+    private long[] getCompletedQuests(RequirementGraph graph) {
+        CompletedQuests cached = completedQuests;
+        // the state version is read first, so a change while building the bitset invalidates it
+        int version = stateVersion;
+        if (cached != null && cached.graph == graph && cached.stateVersion == version) {
+            return cached.bits;
+        }
+
+        BitSet bits = new BitSet(graph.size());
+        for (QuestProgress progress : getAllQuestProgress()) {
+            if (progress.isCompletedBefore()) {
+                int index = graph.indexOf(progress.getQuestId());
+                if (index >= 0) {
+                    bits.set(index);
+                }
+            }
+        }
+        long[] words = bits.toLongArray();
+        completedQuests = new CompletedQuests(graph, version, words);
+        return words;
+    }
+
     /**
      * Get the {@link UUID} of the player this QuestProgressFile represents.
      *
@@ -230,6 +320,19 @@ public class QuestProgressFile {
         return playerUUID;
     }
 
+    /**
+     * Get the {@link QuestProgress} for a specified {@link Quest}, without generating one if it does not exist.
+     * Quests which the player has never made progress in share an immutable default view, so this must only
+     * be used to read progress. Use {@link #getQuestProgress(Quest)} to modify it.
+     *
+     * @param quest the quest to get progress for
+     * @return {@link QuestProgress}, or an immutable blank view if there is none
+     */
+    public QuestProgress getQuestProgressOrDefault(Quest quest) {
+        QuestProgress qProgress = progressAt(ordinalOf(quest));
+        return qProgress != null ? qProgress : DefaultQuestProgress.of(plugin, quest);
+    }
+
     /**
      * Get the {@link QuestProgress} for a specified {@link Quest}. Generates a new one if it does not exist.
      *
@@ -237,11 +340,20 @@ public class QuestProgressFile {
      * @return {@link QuestProgress} or a blank generated one if the quest does not exist
      */
     public QuestProgress getQuestProgress(Quest quest) {
-        if (questProgress.containsKey(quest.getId())) {
-            return questProgress.get(quest.getId());
+        int ordinal = ordinalOf(quest);
+        QuestProgress qProgress = progressAt(ordinal);
+        if (qProgress != null) {
+            return qProgress;
+        }
+        synchronized (this) {
+            // another thread may have generated it while waiting for the lock
+            qProgress = progressAt(ordinal);
+            if (qProgress == null) {
+                generateBlankQuestProgress(quest);
+                qProgress = progressAt(ordinal);
+            }
+            return qProgress;
         }
-        generateBlankQuestProgress(quest);
-        return getQuestProgress(quest);
     }
 
     /**
@@ -251,7 +363,7 @@ public class QuestProgressFile {
      * @return true if player has the quest started
      */
     public boolean hasQuestStarted(Quest quest) {
-        QuestProgress qProgress = questProgress.get(quest.getId());
+        QuestProgress qProgress = progressAt(ordinalOf(quest));
         return qProgress != null && qProgress.isStarted();
     }
 
@@ -277,11 +389,14 @@ public class QuestProgressFile {
             questProgress.addTaskProgress(taskProgress);
         }
 
-        addQuestProgress(questProgress);
+        synchronized (this) {
+            storeQuestProgress(questProgress);
+        }
     }
 
-    public void clear() {
-        questProgress.clear();
+    public synchronized void clear() {
+        questProgress = new AtomicReferenceArray<>(0);
+        markStateChanged();
     }
 
     /**
@@ -289,12 +404,12 @@ public class QuestProgressFile {
      * quest progress with non-default parameters back to default and only
      * set the modified flag in that case.
      */
-    public void reset() {
-        for (QuestProgress questProgress : questProgress.values()) {
+    public synchronized void reset() {
+        for (QuestProgress questProgress : getAllQuestProgress()) {
             if (!questProgress.hasNonDefaultValues()) {
                 continue;
             }
-            Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+            Quest quest = plugin.getQuestManager().getQuestByOrdinal(ordinalOf(questProgress));
             if (quest == null) {
                 continue;
             }
@@ -306,42 +421,143 @@ public class QuestProgressFile {
      * Removes any references to quests or tasks which are no longer defined in the config.
      */
     @Deprecated
-    public void clean() {
+    public synchronized void clean() {
         plugin.getQuestsLogger().debug("Cleaning file " + playerUUID + ".");
         if (!plugin.getTaskTypeManager().areRegistrationsAccepted()) {
-            ArrayList<String> invalidQuests = new ArrayList<>();
-            for (String questId : this.questProgress.keySet()) {
+            for (QuestProgress questProgress : getAllQuestProgress()) {
+                int ordinal = ordinalOf(questProgress);
                 Quest q;
-                if ((q = plugin.getQuestManager().getQuestById(questId)) == null) {
-                    invalidQuests.add(questId);
+                if ((q = plugin.getQuestManager().getQuestByOrdinal(ordinal)) == null) {
+                    this.questProgress.set(ordinal, null);
                 } else {
                     ArrayList<String> invalidTasks = new ArrayList<>();
-                    for (String taskId : this.questProgress.get(questId).getTaskProgressMap().keySet()) {
-                        if (q.getTaskById(taskId) == null) {
-                            invalidTasks.add(taskId);
+                    for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
+                        if (q.getTaskById(taskProgress.getTaskId()) == null) {
+                            invalidTasks.add(taskProgress.getTaskId());
                         }
                     }
                     for (String taskId : invalidTasks) {
-                        this.questProgress.get(questId).getTaskProgressMap().remove(taskId);
+                        questProgress.removeTaskProgress(taskId);
                     }
                 }
             }
-            for (String questId : invalidQuests) {
-                this.questProgress.remove(questId);
+            markStateChanged();
+        }
+    }
+
+    /**
+     * Get the state version of this file. The version changes whenever quest progress is added or removed,
+     * or whenever a quest is started, completed or has its completion date changed, and can be used to
+     * validate anything derived from which quests a player has started.
+     *
+     * @return state version
+     */
+    public int getStateVersion() {
+        return stateVersion;
+    }
+
+    /**
+     * Mark the started / completed state of this file as changed.
+     */
+    public synchronized void markStateChanged() {
+        stateVersion++;
+    }
+
+    /**
+     * Record quest progress as modified since the last save.
+     *
+     * @param questProgress the modified quest progress
+     */
+    synchronized void journalModified(QuestProgress questProgress) {
+        modifiedQuests.set(ordinalOf(questProgress));
+    }
+
+    /**
+     * Get the number of quests which have been modified since the last save.
+     *
+     * @return the number of modified quests
+     */
+    public synchronized int getModifiedCount() {
+        return modifiedQuests.cardinality();
+    }
+
+    /**
+     * Create a copy of this file containing only the quest progress and task progress modified since the
+     * last save, and reset the modified state of the copied entries. The cost of this is proportional
+     * to the number of changes rather than the size of the file.
+     *
+     * @return a new {@link QuestProgressFile} containing the modified entries
+     */
+    public synchronized QuestProgressFile snapshotModified() {
+        QuestProgressFile snapshot = new QuestProgressFile(playerUUID, plugin);
+        for (int ordinal = modifiedQuests.nextSetBit(0); ordinal >= 0; ordinal = modifiedQuests.nextSetBit(ordinal + 1)) {
+            QuestProgress questProgress = progressAt(ordinal);
+            if (questProgress == null) {
+                continue;
             }
+            QuestProgress copy = new QuestProgress(questProgress, true);
+            // storage providers delete blank entries, so a partial copy must only be blank if the progress is
+            if (!copy.hasNonDefaultValues() && questProgress.hasNonDefaultValues()) {
+                copy = new QuestProgress(questProgress);
+            }
+            snapshot.putProgress(copy);
+            questProgress.resetModified();
         }
+        modifiedQuests.clear();
+        return snapshot;
     }
 
-    public void resetModified() {
-        for (QuestProgress questProgress : questProgress.values()) {
+    public synchronized void resetModified() {
+        for (QuestProgress questProgress : getAllQuestProgress()) {
             questProgress.resetModified();
         }
+        modifiedQuests.clear();
     }
 
-    public void setModified(boolean modified) {
-        for (QuestProgress questProgress : questProgress.values()) {
+    public synchronized void setModified(boolean modified) {
+        for (QuestProgress questProgress : getAllQuestProgress()) {
             questProgress.setModified(modified);
         }
+        if (!modified) {
+            modifiedQuests.clear();
+        }
+    }
+
+    private int ordinalOf(Quest quest) {
+        int ordinal = quest.getOrdinal();
+        return ordinal >= 0 ? ordinal : plugin.getQuestManager().getQuestOrdinal(quest.getId());
+    }
+
+    private int ordinalOf(QuestProgress questProgress) {
+        int ordinal = questProgress.getQuestOrdinal();
+        return ordinal >= 0 ? ordinal : plugin.getQuestManager().getQuestOrdinal(questProgress.getQuestId());
+    }
+
+    private QuestProgress progressAt(int ordinal) {
+        AtomicReferenceArray<QuestProgress> questProgress = this.questProgress;
+        return ordinal < questProgress.length() ? questProgress.get(ordinal) : null;
+    }
+
+    /**
+     * Store quest progress at the ordinal of its quest, growing the array if needed. Must be called
+     * while holding the lock of this file.
+     *
+     * @return the quest progress previously stored
+     */
+    private QuestProgress putProgress(QuestProgress progress) {
+        int ordinal = ordinalOf(progress);
+        AtomicReferenceArray<QuestProgress> questProgress = this.questProgress;
+        if (ordinal >= questProgress.length()) {
+            // size for every quest known so far, so loading a file does not grow it once per quest
+            int length = Math.max(ordinal + 1, plugin.getQuestManager().getQuestOrdinalCount());
+            AtomicReferenceArray<QuestProgress> grown = new AtomicReferenceArray<>(length);
+            for (int i = 0; i < questProgress.length(); i++) {
+                grown.set(i, questProgress.get(i));
+            }
+            this.questProgress = questProgress = grown;
+        }
+        return questProgress.getAndSet(ordinal, progress);
     }
 
+    private record CompletedQuests(RequirementGraph graph, int stateVersion, long[] bits) { }
 }
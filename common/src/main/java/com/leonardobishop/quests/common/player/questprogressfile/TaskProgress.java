@@ -1,23 +1,38 @@
 package com.leonardobishop.quests.common.player.questprogressfile;
 
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
 import java.util.UUID;
 
+/**
+ * Represents the progress of a player in a task. See {@link QuestProgressFile} for the rules on
+ * accessing progress from multiple threads.
+ */
 public class TaskProgress {
 
     private final String taskid;
-    private final UUID player;
 
     private QuestProgress linkedQuestProgress;
-    private boolean modified;
-    private Object progress;
-    private boolean completed;
+    private volatile boolean modified;
+    // the progress values are always written before the type, so a reader which sees a type also sees its value
+    private volatile ProgressType progressType = ProgressType.NONE;
+    private volatile long numericProgress; // int and long progress, and the bits of double progress
+    private volatile Object progress; // any other type of progress
+    private volatile boolean completed;
 
+    /**
+     * @param linkedQuestProgress the quest progress this task progress belongs to
+     * @param taskid the id of the task
+     * @param progress the progress
+     * @param player unused, the player is taken from the linked quest progress
+     * @param completed whether the task is completed
+     */
     public TaskProgress(QuestProgress linkedQuestProgress, String taskid, Object progress, UUID player, boolean completed) {
         this.linkedQuestProgress = linkedQuestProgress;
-        this.taskid = taskid;
-        this.progress = progress;
-        this.player = player;
+        this.taskid = linkedQuestProgress != null ? linkedQuestProgress.canonicalTaskId(taskid) : taskid;
         this.completed = completed;
+        storeProgress(progress);
     }
 
     public TaskProgress(QuestProgress linkedQuestProgress, String taskid, Object progress, UUID player, boolean completed, boolean modified) {
@@ -26,29 +41,179 @@ public class TaskProgress {
     }
 
     public TaskProgress(TaskProgress taskProgress) {
+        this(taskProgress, null);
+    }
+
+    /**
+     * Copy task progress into another quest progress.
+     *
+     * @param taskProgress the task progress to copy
+     * @param linkedQuestProgress the quest progress the copy belongs to
+     */
+    TaskProgress(TaskProgress taskProgress, QuestProgress linkedQuestProgress) {
+        this.linkedQuestProgress = linkedQuestProgress;
         this.taskid = taskProgress.taskid;
-        this.player = taskProgress.player;
-        this.modified = taskProgress.modified;
-        this.progress = taskProgress.progress;
-        this.completed = taskProgress.completed;
+        synchronized (taskProgress.lock()) {
+            this.modified = taskProgress.modified;
+            this.numericProgress = taskProgress.numericProgress;
+            this.progress = taskProgress.progress;
+            this.progressType = taskProgress.progressType;
+            this.completed = taskProgress.completed;
+        }
     }
 
     public String getTaskId() {
         return taskid;
     }
 
-    public Object getProgress() {
-        return progress;
+    /**
+     * Get the progress of this task. Primitive progress is boxed on every call,
+     * so the typed accessors should be preferred where the type is known.
+     *
+     * @return the progress, or null if there is no progress
+     */
+    public @Nullable Object getProgress() {
+        return switch (progressType) {
+            case NONE -> null;
+            case INTEGER -> (int) numericProgress;
+            case LONG -> numericProgress;
+            case DOUBLE -> Double.longBitsToDouble(numericProgress);
+            case OTHER -> progress;
+        };
+    }
+
+    /**
+     * Set the progress of this task. {@link Integer}, {@link Long} and {@link Double} progress
+     * is stored unboxed.
+     *
+     * @param progress the progress, or null to clear it
+     */
+    public void setProgress(@Nullable Object progress) {
+        if (progress instanceof Integer integer) {
+            setIntegerProgress(integer);
+        } else if (progress instanceof Long longValue) {
+            setLongProgress(longValue);
+        } else if (progress instanceof Double doubleValue) {
+            setDoubleProgress(doubleValue);
+        } else {
+            synchronized (lock()) {
+                if (progress == null) {
+                    if (progressType != ProgressType.NONE) markModified();
+                } else {
+                    if (progressType != ProgressType.OTHER || this.progress != progress) markModified();
+                }
+
+                storeProgress(progress);
+            }
+        }
+    }
+
+    /**
+     * Get the type of progress stored by this task.
+     *
+     * @return the progress type
+     */
+    public @NotNull ProgressType getProgressType() {
+        return progressType;
+    }
+
+    /**
+     * Get the progress of this task as an integer.
+     *
+     * @return the progress, or 0 if the progress is not an integer
+     */
+    public int getIntegerProgress() {
+        return progressType == ProgressType.INTEGER ? (int) numericProgress : 0;
+    }
+
+    /**
+     * Get the progress of this task as a long.
+     *
+     * @return the progress, or 0 if the progress is not a long
+     */
+    public long getLongProgress() {
+        return progressType == ProgressType.LONG ? numericProgress : 0L;
+    }
+
+    /**
+     * Get the progress of this task as a double.
+     *
+     * @return the progress, or 0 if the progress is not a double
+     */
+    public double getDoubleProgress() {
+        return progressType == ProgressType.DOUBLE ? Double.longBitsToDouble(numericProgress) : 0.0;
+    }
+
+    public void setIntegerProgress(int progress) {
+        setNumericProgress(ProgressType.INTEGER, progress);
+    }
+
+    public void setLongProgress(long progress) {
+        setNumericProgress(ProgressType.LONG, progress);
     }
 
-    public void setProgress(Object progress) {
-        if (this.progress != progress) this.modified = true;
+    public void setDoubleProgress(double progress) {
+        setNumericProgress(ProgressType.DOUBLE, Double.doubleToLongBits(progress));
+    }
 
-        this.progress = progress;
+    /**
+     * Increment the integer progress of this task. Progress which is not an integer is treated as 0.
+     *
+     * @param amount the amount to increment by
+     * @return the new progress
+     */
+    public int incrementIntegerProgress(int amount) {
+        synchronized (lock()) {
+            int progress = getIntegerProgress() + amount;
+            setIntegerProgress(progress);
+            return progress;
+        }
+    }
+
+    /**
+     * Increment the double progress of this task. Progress which is not a double is treated as 0.
+     *
+     * @param amount the amount to increment by
+     * @return the new progress
+     */
+    public double incrementDoubleProgress(double amount) {
+        synchronized (lock()) {
+            double progress = getDoubleProgress() + amount;
+            setDoubleProgress(progress);
+            return progress;
+        }
+    }
+
+    private void setNumericProgress(ProgressType type, long progress) {
+        synchronized (lock()) {
+            if (progressType != type || numericProgress != progress) markModified();
+
+            this.numericProgress = progress;
+            this.progressType = type;
+        }
+    }
+
+    private void storeProgress(Object progress) {
+        if (progress == null) {
+            this.progressType = ProgressType.NONE;
+        } else if (progress instanceof Integer integer) {
+            this.numericProgress = integer;
+            this.progressType = ProgressType.INTEGER;
+        } else if (progress instanceof Long longValue) {
+            this.numericProgress = longValue;
+            this.progressType = ProgressType.LONG;
+        } else if (progress instanceof Double doubleValue) {
+            this.numericProgress = Double.doubleToLongBits(doubleValue);
+            this.progressType = ProgressType.DOUBLE;
+        } else {
+            this.progress = progress;
+            this.progressType = ProgressType.OTHER;
+        }
     }
 
     public UUID getPlayer() {
-        return player;
+        QuestProgress linkedQuestProgress = this.linkedQuestProgress;
+        return linkedQuestProgress != null ? linkedQuestProgress.getPlayer() : null;
     }
 
     public boolean isCompleted() {
@@ -56,8 +221,10 @@ public class TaskProgress {
     }
 
     public void setCompleted(boolean complete) {
-        this.completed = complete;
-        this.modified = true;
+        synchronized (lock()) {
+            this.completed = complete;
+            markModified();
+        }
 
         if (complete) {
             linkedQuestProgress.queueForCompletionTest();
@@ -73,6 +240,43 @@ public class TaskProgress {
     }
 
     public void setModified(boolean modified) {
-        this.modified = modified;
+        synchronized (lock()) {
+            if (modified) {
+                markModified();
+            } else {
+                this.modified = false;
+            }
+        }
+    }
+
+    /**
+     * Get the lock guarding this task progress, which is shared with its quest progress.
+     *
+     * @return the lock
+     */
+    private Object lock() {
+        QuestProgress linkedQuestProgress = this.linkedQuestProgress;
+        return linkedQuestProgress != null ? linkedQuestProgress.lock() : this;
+    }
+
+    private void markModified() {
+        if (linkedQuestProgress != null) {
+            linkedQuestProgress.markChanged();
+        }
+        // already modified progress has already been journaled
+        if (modified) return;
+
+        this.modified = true;
+        if (linkedQuestProgress != null) {
+            linkedQuestProgress.journalModified();
+        }
+    }
+
+    public enum ProgressType {
+        NONE,
+        INTEGER,
+        LONG,
+        DOUBLE,
+        OTHER
     }
 }
@@ -44,13 +44,25 @@ public class Category {
     }
 
     /**
-     * Register a new quest ID to this category
+     * Register a new quest ID to this category. Registering a quest ID again keeps its position.
      *
      * @param questId quest id to register
      */
     public void registerQuestId(@NotNull String questId) {
         Objects.requireNonNull(questId, "questId cannot be null");
-        registeredQuestIds.add(questId);
+        if (!registeredQuestIds.contains(questId)) {
+            registeredQuestIds.add(questId);
+        }
+    }
+
+    /**
+     * Unregister a quest ID from this category
+     *
+     * @param questId quest id to unregister
+     */
+    public void unregisterQuestId(@NotNull String questId) {
+        Objects.requireNonNull(questId, "questId cannot be null");
+        registeredQuestIds.remove(questId);
     }
 
     /**
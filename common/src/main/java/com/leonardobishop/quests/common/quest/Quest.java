@@ -7,13 +7,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 public class Quest implements Comparable<Quest> {
 
-    private final Map<String, Task> tasks = new HashMap<>();
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
     private final Map<String, List<Task>> tasksByType = new HashMap<>();
     private String id;
     private List<String> rewards;
@@ -36,6 +37,7 @@ public class Quest implements Comparable<Quest> {
     private Map<String, String> placeholders;
     private Map<String, String> progressPlaceholders;
     private String categoryid;
+    private int ordinal = -1;
 
     private Quest() { }
 
@@ -47,7 +49,8 @@ public class Quest implements Comparable<Quest> {
     public void registerTask(@NotNull Task task) {
         Objects.requireNonNull(task, "task cannot be null");
 
-        tasks.put(task.getId(), task);
+        Task previous = tasks.put(task.getId(), task);
+        task.setOrdinal(previous != null ? previous.getOrdinal() : tasks.size() - 1);
         tasksByType.compute(task.getType(), (type, list) -> {
             if (list == null) {
                 return new ArrayList<>(Collections.singletonList(task));
@@ -59,7 +62,7 @@ public class Quest implements Comparable<Quest> {
     }
 
     /**
-     * Get all tasks registered to this quest.
+     * Get all tasks registered to this quest, in order of their ordinal.
      *
      * @return immutable list containing all {@link Task}
      */
@@ -79,6 +82,20 @@ public class Quest implements Comparable<Quest> {
         return tasks.get(id);
     }
 
+    /**
+     * Get the ordinal of this quest, assigned by the {@link QuestManager} when it is registered. Ordinals
+     * are dense, start at 0 and remain the same for a quest id across reloads.
+     *
+     * @return the ordinal, or -1 if this quest has not been registered
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
     /**
      * Get a list of all task of a specific task type.
      *
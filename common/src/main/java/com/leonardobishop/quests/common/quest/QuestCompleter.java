@@ -24,4 +24,14 @@ public interface QuestCompleter {
      */
     void queueFullCheck(@NotNull QuestProgressFile questProgressFile);
 
+    /**
+     * Schedule a started quest to be expired once its time limit has passed. Quests without a
+     * time limit, or which are not started, are ignored. Does nothing by default, for
+     * implementations which find expired quests in their full checks instead.
+     *
+     * @param quest the quest to schedule
+     * @param questProgress the questprogress of the started quest
+     */
+    default void scheduleExpiry(@NotNull Quest quest, @NotNull QuestProgress questProgress) { }
+
 }
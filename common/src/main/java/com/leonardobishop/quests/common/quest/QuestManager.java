@@ -5,11 +5,13 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The quests manager stores all present Quests and Categories on the server and is used as a registry.
@@ -19,6 +21,10 @@ public class QuestManager {
     private final Quests plugin;
     private final Map<String, Quest> quests = new LinkedHashMap<>();
     private final List<Category> categories = new ArrayList<>();
+    private final Map<String, Integer> questOrdinals = new ConcurrentHashMap<>();
+    private volatile String[] questOrdinalIds = new String[0];
+    private volatile Quest[] questsByOrdinal = new Quest[0];
+    private volatile RequirementGraph requirementGraph;
 
     public QuestManager(Quests plugin) {
         this.plugin = plugin;
@@ -32,7 +38,100 @@ public class QuestManager {
     public void registerQuest(@NotNull Quest quest) {
         Objects.requireNonNull(quest, "quest cannot be null");
 
-        quests.put(quest.getId(), quest);
+        int ordinal = getQuestOrdinal(quest.getId());
+        quest.setOrdinal(ordinal);
+        synchronized (this) {
+            quests.put(quest.getId(), quest);
+            Quest[] byOrdinal = ordinal < questsByOrdinal.length ? questsByOrdinal.clone() : Arrays.copyOf(questsByOrdinal, ordinal + 1);
+            byOrdinal[ordinal] = quest;
+            questsByOrdinal = byOrdinal;
+            requirementGraph = null;
+        }
+    }
+
+    /**
+     * Unregister a quest from the quest manager. The ordinal of the quest id is kept.
+     *
+     * @param id the id of the quest to unregister
+     * @return the unregistered {@link Quest}, or null if no quest was registered with the id
+     */
+    public @Nullable Quest unregisterQuest(@NotNull String id) {
+        Objects.requireNonNull(id, "id cannot be null");
+
+        synchronized (this) {
+            Quest quest = quests.remove(id);
+            if (quest == null) {
+                return null;
+            }
+            int ordinal = quest.getOrdinal();
+            if (ordinal >= 0 && ordinal < questsByOrdinal.length && questsByOrdinal[ordinal] == quest) {
+                Quest[] byOrdinal = questsByOrdinal.clone();
+                byOrdinal[ordinal] = null;
+                questsByOrdinal = byOrdinal;
+            }
+            requirementGraph = null;
+            return quest;
+        }
+    }
+
+    /**
+     * @param ordinal ordinal to match
+     * @return {@link Quest}, or null
+     */
+    public @Nullable Quest getQuestByOrdinal(int ordinal) {
+        Quest[] byOrdinal = questsByOrdinal;
+        return ordinal >= 0 && ordinal < byOrdinal.length ? byOrdinal[ordinal] : null;
+    }
+
+    /**
+     * Get the ordinal of a quest id, assigning the next ordinal if the id has not been seen before. Ordinals
+     * are dense and never reused, so player progress can be stored in arrays indexed by them. They are not
+     * reset when quests are cleared, so progress loaded before a reload does not have to be re-indexed.
+     * Ids of quests which are not registered (e.g. from stored progress) are given an ordinal too.
+     *
+     * @param id the quest id
+     * @return the ordinal
+     */
+    public int getQuestOrdinal(@NotNull String id) {
+        Objects.requireNonNull(id, "id cannot be null");
+
+        Integer ordinal = questOrdinals.get(id);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (questOrdinals) {
+            ordinal = questOrdinals.get(id);
+            if (ordinal == null) {
+                ordinal = questOrdinalIds.length;
+                String[] ids = Arrays.copyOf(questOrdinalIds, ordinal + 1);
+                ids[ordinal] = id;
+                // the id is published before the ordinal, so anyone who can see the ordinal can also see the id
+                questOrdinalIds = ids;
+                questOrdinals.put(id, ordinal);
+            }
+            return ordinal;
+        }
+    }
+
+    /**
+     * Get the quest id an ordinal was assigned to. The returned string is the same instance for every call,
+     * and may be used in place of equal strings to avoid keeping duplicates around.
+     *
+     * @param ordinal the ordinal
+     * @return the quest id
+     * @throws IndexOutOfBoundsException if the ordinal has not been assigned
+     */
+    public @NotNull String getQuestIdByOrdinal(int ordinal) {
+        return questOrdinalIds[ordinal];
+    }
+
+    /**
+     * Get the number of quest ordinals assigned so far.
+     *
+     * @return the number of ordinals
+     */
+    public int getQuestOrdinalCount() {
+        return questOrdinalIds.length;
     }
 
     /**
@@ -53,6 +152,26 @@ public class QuestManager {
         return Collections.unmodifiableMap(quests);
     }
 
+    /**
+     * Get the requirement graph of all quests registered. The graph is built when first requested
+     * after a quest has been registered.
+     *
+     * @return {@link RequirementGraph}
+     */
+    public @NotNull RequirementGraph getRequirementGraph() {
+        RequirementGraph graph = requirementGraph;
+        if (graph == null) {
+            synchronized (this) {
+                graph = requirementGraph;
+                if (graph == null) {
+                    graph = RequirementGraph.build(quests.values(), quests::get);
+                    requirementGraph = graph;
+                }
+            }
+        }
+        return graph;
+    }
+
     /**
      * Register a category with the quest manager
      *
@@ -89,9 +208,11 @@ public class QuestManager {
     /**
      * Reset the quest manager and clears all registered quests and categories
      */
-    public void clear() {
+    public synchronized void clear() {
         quests.clear();
         categories.clear();
+        questsByOrdinal = new Quest[0];
+        requirementGraph = null;
     }
 
 }
@@ -0,0 +1,231 @@
+package com.leonardobishop.quests.common.quest;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * An immutable graph of the requirements between quests. Each quest is given an index, in topological
+ * order (every quest comes after the quests it requires), so that the set of quests a player has completed
+ * can be stored as a bitset and tested against the requirements of a quest with a few mask operations.
+ * <p>
+ * Quests whose requirements form a cycle can never be unlocked. They are placed after all other quests,
+ * and can be listed with {@link #getCyclicQuests()}.
+ */
+public final class RequirementGraph {
+
+    private static final long[] NO_REQUIREMENTS = new long[0];
+
+    private final Map<String, Integer> indices;
+    private final Quest[] quests;
+    private final long[][] requirementMasks;
+    private final List<List<Quest>> requirements;
+    private final List<List<Quest>> dependents;
+    private final List<Quest> cyclicQuests;
+
+    private RequirementGraph(Map<String, Integer> indices, Quest[] quests, long[][] requirementMasks,
+                             List<List<Quest>> requirements, List<List<Quest>> dependents, List<Quest> cyclicQuests) {
+        this.indices = indices;
+        this.quests = quests;
+        this.requirementMasks = requirementMasks;
+        this.requirements = requirements;
+        this.dependents = dependents;
+        this.cyclicQuests = cyclicQuests;
+    }
+
+    /**
+     * Build the requirement graph of a set of quests. Requirements which cannot be resolved, or
+     * resolve to a quest which is not included, are ignored.
+     *
+     * @param quests the quests to include
+     * @param resolver function resolving a quest id to a quest, returning null if there is none
+     * @return the requirement graph
+     */
+    public static @NotNull RequirementGraph build(@NotNull Collection<Quest> quests, @NotNull Function<String, Quest> resolver) {
+        Objects.requireNonNull(quests, "quests cannot be null");
+        Objects.requireNonNull(resolver, "resolver cannot be null");
+
+        Set<Quest> members = new HashSet<>(quests);
+        Map<Quest, Set<Quest>> requirementsOf = new HashMap<>();
+        Map<Quest, List<Quest>> dependentsOf = new HashMap<>();
+        for (Quest quest : quests) {
+            Set<Quest> resolved = new LinkedHashSet<>();
+            for (String id : quest.getRequirements()) {
+                Quest requirement = resolver.apply(id);
+                if (requirement != null && members.contains(requirement)) {
+                    resolved.add(requirement);
+                }
+            }
+            requirementsOf.put(quest, resolved);
+            for (Quest requirement : resolved) {
+                dependentsOf.computeIfAbsent(requirement, q -> new ArrayList<>()).add(quest);
+            }
+        }
+
+        // Kahn's algorithm, whatever is left over afterwards is part of or depends on a cycle
+        Map<Quest, Integer> remaining = new HashMap<>();
+        Deque<Quest> ready = new ArrayDeque<>();
+        for (Quest quest : quests) {
+            int count = requirementsOf.get(quest).size();
+            remaining.put(quest, count);
+            if (count == 0) {
+                ready.add(quest);
+            }
+        }
+
+        List<Quest> order = new ArrayList<>(quests.size());
+        while (!ready.isEmpty()) {
+            Quest quest = ready.poll();
+            order.add(quest);
+            for (Quest dependent : dependentsOf.getOrDefault(quest, Collections.emptyList())) {
+                if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        List<Quest> cyclicQuests = new ArrayList<>();
+        for (Quest quest : quests) {
+            if (remaining.get(quest) > 0) {
+                cyclicQuests.add(quest);
+                order.add(quest);
+            }
+        }
+
+        Map<String, Integer> indices = new HashMap<>();
+        Quest[] indexed = order.toArray(new Quest[0]);
+        for (int i = 0; i < indexed.length; i++) {
+            indices.put(indexed[i].getId(), i);
+        }
+
+        long[][] requirementMasks = new long[indexed.length][];
+        List<List<Quest>> requirements = new ArrayList<>(indexed.length);
+        List<List<Quest>> dependents = new ArrayList<>(indexed.length);
+        for (int i = 0; i < indexed.length; i++) {
+            Set<Quest> resolved = requirementsOf.get(indexed[i]);
+            BitSet mask = new BitSet(indexed.length);
+            List<Quest> known = new ArrayList<>(resolved.size());
+            for (Quest requirement : resolved) {
+                mask.set(indices.get(requirement.getId()));
+                known.add(requirement);
+            }
+            requirementMasks[i] = mask.isEmpty() ? NO_REQUIREMENTS : mask.toLongArray();
+            requirements.add(Collections.unmodifiableList(known));
+            dependents.add(Collections.unmodifiableList(new ArrayList<>(dependentsOf.getOrDefault(indexed[i], Collections.emptyList()))));
+        }
+
+        return new RequirementGraph(Collections.unmodifiableMap(indices), indexed, requirementMasks,
+                Collections.unmodifiableList(requirements), Collections.unmodifiableList(dependents),
+                Collections.unmodifiableList(cyclicQuests));
+    }
+
+    /**
+     * Get the index of a quest in this graph.
+     *
+     * @param questId the id of the quest
+     * @return the index, or -1 if the quest is not part of this graph
+     */
+    public int indexOf(@NotNull String questId) {
+        Integer index = indices.get(questId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Get whether a quest is part of this graph. Quests are compared by identity, so quests from
+     * before a reload are not part of the graph built afterwards.
+     *
+     * @param quest the quest
+     * @return true if the quest is part of this graph
+     */
+    public boolean contains(@NotNull Quest quest) {
+        int index = indexOf(quest.getId());
+        return index >= 0 && quests[index] == quest;
+    }
+
+    /**
+     * Get the number of quests in this graph.
+     *
+     * @return number of quests
+     */
+    public int size() {
+        return quests.length;
+    }
+
+    /**
+     * Get the resolved requirements of a quest.
+     *
+     * @param quest the quest, which must be part of this graph
+     * @return immutable list of required quests
+     */
+    public @NotNull List<Quest> getRequirements(@NotNull Quest quest) {
+        return requirements.get(checkedIndexOf(quest));
+    }
+
+    /**
+     * Get the quests which directly require a quest, i.e. the quests which may become unlocked once
+     * it is completed.
+     *
+     * @param quest the quest, which must be part of this graph
+     * @return immutable list of dependent quests
+     */
+    public @NotNull List<Quest> getDependents(@NotNull Quest quest) {
+        return dependents.get(checkedIndexOf(quest));
+    }
+
+    /**
+     * Get the quests which can never be unlocked, as they are part of, or require a quest which is part
+     * of, a requirement cycle.
+     *
+     * @return immutable list of quests
+     */
+    public @NotNull List<Quest> getCyclicQuests() {
+        return cyclicQuests;
+    }
+
+    /**
+     * Test whether all requirements of a quest are contained in a set of completed quests.
+     *
+     * @param quest the quest, which must be part of this graph
+     * @param completed the completed quests, as a bitset of quest indices in the form of {@link BitSet#toLongArray()}
+     * @return true if every requirement is completed
+     */
+    public boolean isUnlocked(@NotNull Quest quest, long @NotNull [] completed) {
+        long[] mask = requirementMasks[checkedIndexOf(quest)];
+        if (mask.length > completed.length) {
+            for (int i = completed.length; i < mask.length; i++) {
+                if (mask[i] != 0) {
+                    return false;
+                }
+            }
+        }
+        for (int i = 0, length = Math.min(mask.length, completed.length); i < length; i++) {
+            if ((mask[i] & ~completed[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int checkedIndexOf(Quest quest) {
+        Objects.requireNonNull(quest, "quest cannot be null");
+
+        int index = indexOf(quest.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("quest '" + quest.getId() + "' is not part of this graph");
+        }
+        return index;
+    }
+}
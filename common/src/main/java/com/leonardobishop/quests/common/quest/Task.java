@@ -7,12 +7,15 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Task {
 
     private final Map<String, Object> configValues = new HashMap<>();
+    private final Map<String, Object> compiledValues = new ConcurrentHashMap<>();
     private final String id;
     private final String type;
+    private int ordinal = -1;
 
     public Task(String id, String type) {
         this.id = id;
@@ -26,6 +29,19 @@ public class Task {
         return id;
     }
 
+    /**
+     * Get the ordinal of this task, which is its position in the tasks of its quest.
+     *
+     * @return the ordinal, or -1 if this task has not been registered to a quest
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
     /**
      * @return the configured task type for this task
      */
@@ -88,6 +104,37 @@ public class Task {
         Objects.requireNonNull(value, "value cannot be null");
 
         configValues.put(key, value);
+        compiledValues.clear();
+    }
+
+    /**
+     * Get a value derived from this tasks configuration, such as a parsed matcher.
+     * Compiled values are discarded whenever the configuration of this task changes,
+     * so that task types can parse config values once instead of on every event.
+     *
+     * @param key key of the compiled value
+     * @param type expected class of the compiled value
+     * @return compiled value, or null if not compiled yet or not of the expected type
+     */
+    public <T> @Nullable T getCompiledValue(@NotNull String key, @NotNull Class<T> type) {
+        Objects.requireNonNull(key, "key cannot be null");
+        Objects.requireNonNull(type, "type cannot be null");
+
+        Object compiled = compiledValues.get(key);
+        return type.isInstance(compiled) ? type.cast(compiled) : null;
+    }
+
+    /**
+     * Store a value derived from this tasks configuration.
+     *
+     * @param key key of the compiled value
+     * @param value compiled value
+     */
+    public void setCompiledValue(@NotNull String key, @NotNull Object value) {
+        Objects.requireNonNull(key, "key cannot be null");
+        Objects.requireNonNull(value, "value cannot be null");
+
+        compiledValues.put(key, value);
     }
 
 }
@@ -0,0 +1,267 @@
+package com.leonardobishop.quests.common.storage;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Copies every QuestProgressFile from one storage provider to another. Files are streamed from the
+ * source on the calling thread and handed, in batches, to a number of writer threads through a
+ * bounded queue; loading pauses whenever the queue is full, so memory use does not depend on the
+ * number of files.
+ *
+ * <p>The UUID of every file written is appended to a checkpoint file after each batch. If a
+ * migration is interrupted, running it again with the same checkpoint file skips the files which
+ * were already written. The first line of the checkpoint file names the source and target
+ * providers; a checkpoint written by a migration between other providers is discarded.</p>
+ */
+public class StorageMigrator {
+
+    private static final List<QuestProgressFile> END_OF_STREAM = Collections.emptyList();
+
+    private final StorageProvider fromProvider;
+    private final StorageProvider toProvider;
+    private final File checkpointFile;
+    private final Consumer<String> reporter;
+    private final int writerThreads;
+    private final int batchSize;
+    private final BlockingQueue<List<QuestProgressFile>> queue;
+    private final long reportInterval;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong lastReport = new AtomicLong();
+    private int total;
+    private long startTime;
+    private List<QuestProgressFile> batch;
+    private BufferedWriter checkpointWriter;
+
+    /**
+     * @param fromProvider the initialised provider to read files from
+     * @param toProvider the initialised provider to write files to
+     * @param checkpointFile the file to record migrated UUIDs in
+     * @param reporter the consumer to pass progress messages to
+     * @param writerThreads the number of threads writing to the target provider
+     * @param batchSize the number of files written together
+     * @param queueCapacity the number of batches which may wait to be written before loading pauses
+     * @param reportInterval the minimum time between progress messages, in milliseconds
+     */
+    public StorageMigrator(@NotNull StorageProvider fromProvider, @NotNull StorageProvider toProvider, @NotNull File checkpointFile,
+                           @NotNull Consumer<String> reporter, int writerThreads, int batchSize, int queueCapacity, long reportInterval) {
+        this.fromProvider = Objects.requireNonNull(fromProvider, "fromProvider cannot be null");
+        this.toProvider = Objects.requireNonNull(toProvider, "toProvider cannot be null");
+        this.checkpointFile = Objects.requireNonNull(checkpointFile, "checkpointFile cannot be null");
+        this.reporter = Objects.requireNonNull(reporter, "reporter cannot be null");
+        this.writerThreads = Math.max(1, writerThreads);
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.reportInterval = reportInterval;
+    }
+
+    /**
+     * Run the migration, blocking until every file has been written.
+     *
+     * @return the result of the migration
+     * @throws IOException if the checkpoint file cannot be read or written
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public @NotNull Result migrate() throws IOException, InterruptedException {
+        String header = checkpointHeader();
+        Set<UUID> migrated = readCheckpoint(header);
+        if (!migrated.isEmpty()) {
+            reporter.accept("Resuming from checkpoint, " + migrated.size() + " files were already migrated.");
+        }
+
+        total = fromProvider.countProgressFiles();
+        startTime = System.currentTimeMillis();
+        lastReport.set(startTime);
+        batch = new ArrayList<>(batchSize);
+
+        List<Thread> writers = new ArrayList<>(writerThreads);
+        boolean newCheckpoint = !checkpointFile.exists();
+        checkpointWriter = Files.newBufferedWriter(checkpointFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (newCheckpoint) {
+            checkpointWriter.write(header);
+            checkpointWriter.newLine();
+            checkpointWriter.flush();
+        }
+        try {
+            for (int i = 0; i < writerThreads; i++) {
+                Thread writer = new Thread(this::write, "Quests-Migration-Writer-" + i);
+                writer.setDaemon(true);
+                writer.start();
+                writers.add(writer);
+            }
+
+            try {
+                fromProvider.loadAllProgressFiles(uuid -> {
+                    if (migrated.remove(uuid)) {
+                        skipped.incrementAndGet();
+                        return false;
+                    }
+                    return true;
+                }, this::read);
+                if (!batch.isEmpty()) {
+                    queue.put(batch);
+                }
+            } catch (MigrationInterruptedException e) {
+                throw (InterruptedException) e.getCause();
+            } finally {
+                for (int i = 0; i < writerThreads; i++) {
+                    queue.put(END_OF_STREAM);
+                }
+                for (Thread writer : writers) {
+                    writer.join();
+                }
+            }
+        } finally {
+            checkpointWriter.close();
+        }
+
+        return new Result(written.get(), skipped.get(), failed.get(), System.currentTimeMillis() - startTime);
+    }
+
+    private void read(QuestProgressFile file) {
+        file.setModified(true);
+        batch.add(file);
+        if (batch.size() >= batchSize) {
+            try {
+                queue.put(batch);
+            } catch (InterruptedException e) {
+                throw new MigrationInterruptedException(e);
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void write() {
+        while (true) {
+            List<QuestProgressFile> files;
+            try {
+                files = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (files == END_OF_STREAM) {
+                return;
+            }
+
+            try {
+                // only files which were actually saved are checkpointed, so the others are retried when resuming
+                List<UUID> saved = toProvider.trySaveAllProgressFiles(files);
+                writeCheckpoint(saved);
+                written.addAndGet(saved.size());
+                if (saved.size() < files.size()) {
+                    failed.addAndGet(files.size() - saved.size());
+                    reporter.accept("Failed to write " + (files.size() - saved.size()) + " of a batch of " + files.size() + " files.");
+                }
+            } catch (Exception e) {
+                failed.addAndGet(files.size());
+                reporter.accept("Failed to write a batch of " + files.size() + " files: " + e.getMessage());
+                e.printStackTrace();
+            }
+            report();
+        }
+    }
+
+    private void report() {
+        long now = System.currentTimeMillis();
+        long last = lastReport.get();
+        if (now - last < reportInterval || !lastReport.compareAndSet(last, now)) {
+            return;
+        }
+
+        long done = written.get() + skipped.get();
+        long rate = written.get() * 1000 / Math.max(1, now - startTime);
+        if (total > 0) {
+            double percent = Math.min(100d, done * 100d / total);
+            reporter.accept(String.format("Migrated %d/%d files (%.1f%%), %d files/s.", done, total, percent, rate));
+        } else {
+            reporter.accept(String.format("Migrated %d files, %d files/s.", done, rate));
+        }
+    }
+
+    private String checkpointHeader() {
+        return "# " + fromProvider.getName() + " -> " + toProvider.getName();
+    }
+
+    private Set<UUID> readCheckpoint(String header) throws IOException {
+        Set<UUID> migrated = new HashSet<>();
+        if (!checkpointFile.exists()) {
+            return migrated;
+        }
+
+        List<String> lines = Files.readAllLines(checkpointFile.toPath(), StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(header)) {
+            // the UUIDs were written to a different target, so none of them can be skipped
+            reporter.accept("Discarding checkpoint " + checkpointFile.getName() + " as it is not for a migration from "
+                    + fromProvider.getName() + " to " + toProvider.getName() + ".");
+            Files.delete(checkpointFile.toPath());
+            return migrated;
+        }
+
+        for (String line : lines.subList(1, lines.size())) {
+            try {
+                migrated.add(UUID.fromString(line.trim()));
+            } catch (IllegalArgumentException ignored) { }
+        }
+        return migrated;
+    }
+
+    private void writeCheckpoint(List<UUID> uuids) throws IOException {
+        synchronized (checkpointWriter) {
+            for (UUID uuid : uuids) {
+                checkpointWriter.write(uuid.toString());
+                checkpointWriter.newLine();
+            }
+            checkpointWriter.flush();
+        }
+    }
+
+    /**
+     * The result of a migration.
+     *
+     * @param written the number of files written
+     * @param skipped the number of files skipped as they were already in the checkpoint
+     * @param failed the number of files which could not be written
+     * @param elapsed the time taken, in milliseconds
+     */
+    public record Result(long written, long skipped, long failed, long elapsed) {
+
+        /**
+         * Get the average number of files written per second.
+         *
+         * @return files per second
+         */
+        public long throughput() {
+            return written * 1000 / Math.max(1, elapsed);
+        }
+    }
+
+    private static class MigrationInterruptedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MigrationInterruptedException(InterruptedException cause) {
+            super(cause);
+        }
+    }
+}
@@ -4,8 +4,11 @@ import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFi
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * The storage provider is responsible for obtaining a QuestProgressFile for a specified UUID and for
@@ -28,7 +31,10 @@ public interface StorageProvider {
     @Nullable QuestProgressFile loadProgressFile(@NotNull UUID uuid);
 
     /**
-     * Save a QuestProgressFile to the data source with a specific UUID
+     * Save a QuestProgressFile to the data source with a specific UUID. Only modified quest progress
+     * should be written. The file may be a delta containing only the entries modified since the
+     * last save (see {@link QuestProgressFile#snapshotModified()}), in which case any entries not
+     * present must be left untouched in the data source.
      *
      * @param uuid the uuid to match the file to
      * @param questProgressFile the file to save
@@ -43,12 +49,69 @@ public interface StorageProvider {
     @NotNull List<QuestProgressFile> loadAllProgressFiles();
 
     /**
-     * Save a list of QuestProgressFiles
+     * Load all QuestProgressFiles, passing each one to the consumer as soon as it has been read.
+     * Unlike {@link #loadAllProgressFiles()}, providers implementing this should not hold every
+     * file in memory at once.
+     *
+     * @param consumer the consumer to pass each loaded file to
+     */
+    default void loadAllProgressFiles(@NotNull Consumer<QuestProgressFile> consumer) {
+        for (QuestProgressFile file : loadAllProgressFiles()) {
+            consumer.accept(file);
+        }
+    }
+
+    /**
+     * Load all QuestProgressFiles whose UUID is accepted by the filter, passing each one to the
+     * consumer as soon as it has been read. Providers should test the filter before reading a
+     * file, so that rejected files cost as little as possible.
+     *
+     * @param filter the filter to test each UUID against
+     * @param consumer the consumer to pass each loaded file to
+     */
+    default void loadAllProgressFiles(@NotNull Predicate<UUID> filter, @NotNull Consumer<QuestProgressFile> consumer) {
+        loadAllProgressFiles(file -> {
+            if (filter.test(file.getPlayerUUID())) {
+                consumer.accept(file);
+            }
+        });
+    }
+
+    /**
+     * Get the number of QuestProgressFiles which {@link #loadAllProgressFiles()} would load, if
+     * it can be determined cheaply.
+     *
+     * @return number of files, or -1 if unknown
+     */
+    default int countProgressFiles() {
+        return -1;
+    }
+
+    /**
+     * Save a list of QuestProgressFiles. This may be called concurrently from multiple threads,
+     * with each call given a separate batch of files.
      *
      * @param files the list of QuestProgressFile to save
      **/
     void saveAllProgressFiles(List<QuestProgressFile> files);
 
+    /**
+     * Save a list of QuestProgressFiles, reporting which of them were saved. Like
+     * {@link #saveAllProgressFiles(List)}, this may be called concurrently from multiple threads.
+     *
+     * @param files the list of QuestProgressFile to save
+     * @return the UUIDs of the files which were saved successfully
+     **/
+    default @NotNull List<UUID> trySaveAllProgressFiles(List<QuestProgressFile> files) {
+        List<UUID> saved = new ArrayList<>(files.size());
+        for (QuestProgressFile file : files) {
+            if (saveProgressFile(file.getPlayerUUID(), file)) {
+                saved.add(file.getPlayerUUID());
+            }
+        }
+        return saved;
+    }
+
     /**
      * Whether this provider is 'similar' to another one.
      * Similarity is determined if the provider effectively points to the same data source.
@@ -72,6 +72,18 @@ public abstract class TaskType {
         }
     }
 
+    /**
+     * Unregisters a {@link Quest} from this task type. This is usually done when
+     * a quest is reloaded on its own.
+     *
+     * @param quest the {@link Quest} to unregister.
+     */
+    public final void unregisterQuest(@NotNull Quest quest) {
+        Objects.requireNonNull(quest, "quest cannot be null");
+
+        quests.remove(quest);
+    }
+
     /**
      * Clears the list which contains the registered quests.
      */
@@ -131,6 +143,10 @@ public abstract class TaskType {
         return configValidators;
     }
 
+    /**
+     * Validates the configuration of a task. Quest files are validated in parallel, so validators
+     * may be called from several threads at once and must not modify any shared state.
+     */
     @FunctionalInterface
     public interface ConfigValidator {
         void validateConfig(@NotNull HashMap<String, Object> taskConfig, @NotNull List<ConfigProblem> problems);
@@ -130,6 +130,22 @@ public abstract class TaskTypeManager {
         }
     }
 
+    /**
+     * Unregister a quest from its task types.
+     *
+     * @param quest the quest to unregister
+     */
+    public void unregisterQuestTasksWithTaskTypes(@NotNull Quest quest) {
+        Objects.requireNonNull(quest, "quest cannot be null");
+
+        for (Task task : quest.getTasks()) {
+            TaskType t;
+            if ((t = getTaskType(task.getType())) != null) {
+                t.unregisterQuest(quest);
+            }
+        }
+    }
+
     /**
      * Get a registered task type by type
      *